@@ -0,0 +1,68 @@
+package kasirin.bench;
+
+import kasirin.Log;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/// Seeded database shared by every benchmark of a trial, sized by the `stores`, `products` and `transactions`
+/// parameters, the latter two per store
+///
+/// The benchmarks run in-process on the embedded database, which every fork builds and seeds from scratch. Pass
+/// `-Dkasirin.datasource=mysql` to measure against MySQL instead, on the database named by the `kasirin.db.url`
+/// system property, a local `db_kasir_bench` schema by default. The seeder wipes it before every trial, so it refuses
+/// any MySQL database whose name doesn't mention "bench".
+///
+/// Run every benchmark with the default sizes, or override them, and keep the JSON to compare against later commits:
+/// <pre>{@code
+/// java -cp <classpath> org.openjdk.jmh.Main kasirin.bench -rf json -rff bench_output.json
+/// java -cp <classpath> org.openjdk.jmh.Main CheckoutBenchmark -p stores=1 -p products=5000 -p transactions=50000
+/// }</pre>
+/// @author yamaym
+@State(Scope.Benchmark)
+public class BenchDataset {
+    public static final String BENCH_DB_URL = "jdbc:mysql://localhost:3306/db_kasir_bench?rewriteBatchedStatements=true";
+
+    static {
+        // Read by the DAO factories when they're first used, which is after this
+        System.getProperties().putIfAbsent("kasirin.datasource", "embedded");
+        System.getProperties().putIfAbsent("kasirin.db.url", BENCH_DB_URL);
+        System.getProperties().putIfAbsent("kasirin.log.level", "WARN");
+    }
+
+    @Param({"2"})
+    public int stores;
+
+    @Param({"500"})
+    public int products;
+
+    @Param({"2000"})
+    public int transactions;
+
+    private final List<DatasetSeeder.SeededStore> seededStores = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        Log.setLevel(Log.Level.WARN);
+        DatasetSeeder seeder = new DatasetSeeder(42);
+        seeder.wipe();
+        for (int i = 0; i < stores; i++) {
+            seededStores.add(seeder.seedStore(i + 1, products, transactions));
+        }
+    }
+
+    /// Gets a seeded store, the index wraps around the number of stores.
+    public DatasetSeeder.SeededStore store(int index) {
+        return seededStores.get(Math.floorMod(index, seededStores.size()));
+    }
+
+    public List<DatasetSeeder.SeededStore> getStores() {
+        return seededStores;
+    }
+}
@@ -0,0 +1,72 @@
+package kasirin.bench;
+
+import kasirin.data.model.Product;
+import kasirin.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/// Measures a complete checkout of a basket, from validation to commit, including the stock reservation and the
+/// daily sales rollup. Every invocation adds a real transaction, so the history grows a little during the run.
+/// @author yamaym
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+    @Param({"3", "15"})
+    public int basketSize;
+
+    private TransactionService transactionService;
+    private final Random random = new Random(7);
+    private List<Product> sellable;
+    private DatasetSeeder.SeededStore store;
+    private List<TransactionService.TransactionItem> basket;
+
+    @Setup(Level.Trial)
+    public void pickStore(BenchDataset dataset) {
+        // Created after the dataset, which selects the datasource
+        transactionService = new TransactionService();
+        store = dataset.store(0);
+        // Low-stock products would run out and turn the checkout into a rollback
+        sellable = new ArrayList<>();
+        for (Product product : store.getCatalog()) {
+            if (product.getVariations().get(0).getStocks() >= DatasetSeeder.AMPLE_STOCK) {
+                sellable.add(product);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillBasket() {
+        // Consecutive products from a random start, so the basket never holds the same product twice
+        basket = new ArrayList<>(basketSize);
+        int first = random.nextInt(sellable.size());
+        for (int i = 0; i < basketSize; i++) {
+            Product product = sellable.get((first + i) % sellable.size());
+            basket.add(new TransactionService.TransactionItem(product.getId(), 1 + random.nextInt(3),
+                    product.getBasePrice()));
+        }
+    }
+
+    @Benchmark
+    public TransactionService.TransactionResult processCompleteTransaction() throws TransactionService.TransactionException {
+        return transactionService.processCompleteTransaction(basket, store.getCashier(), store.getStore(), 100_000_000);
+    }
+}
@@ -0,0 +1,39 @@
+package kasirin.bench;
+
+import kasirin.service.DashboardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/// Measures loading every section of the dashboard of a store, the sections run concurrently.
+/// @author yamaym
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardBenchmark {
+    private DashboardService dashboardService;
+
+    // Created after the dataset, which selects the datasource
+    @Setup(Level.Trial)
+    public void createService(BenchDataset dataset) {
+        dashboardService = new DashboardService();
+    }
+
+    @Benchmark
+    public DashboardService.DashboardStats getDashboardStats(BenchDataset dataset) {
+        return dashboardService.getDashboardStats(dataset.store(0).getStore().getId());
+    }
+}
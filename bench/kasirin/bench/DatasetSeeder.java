@@ -0,0 +1,181 @@
+package kasirin.bench;
+
+import kasirin.data.dao.DAOFactory;
+import kasirin.data.dao.MySqlDAOFactory;
+import kasirin.data.dao.ProductDAO;
+import kasirin.data.dao.ProductVariationDAO;
+import kasirin.data.dao.StoreDAO;
+import kasirin.data.dao.TransactionDAO;
+import kasirin.data.dao.TransactionDetailDAO;
+import kasirin.data.dao.UnitOfWork;
+import kasirin.data.dao.UserDAO;
+import kasirin.data.model.Product;
+import kasirin.data.model.ProductVariation;
+import kasirin.data.model.Role;
+import kasirin.data.model.Store;
+import kasirin.data.model.Transaction;
+import kasirin.data.model.TransactionDetail;
+import kasirin.data.model.User;
+import kasirin.service.SalesReportService;
+import kasirin.service.StoreService;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/// Fills the benchmark database with a made-up but deterministic dataset through the regular DAOs, so two runs with the
+/// same sizes always measure the same data, also across commits.
+///
+/// Every store gets one cashier, `products` products with a single variation each and `transactions` transactions
+/// spread over the last [#HISTORY_DAYS] days, after which its daily sales rollup is rebuilt. Every
+/// [#LOW_STOCK_EVERY]th product is low on stock so the dashboard has something to show, all others have more stock
+/// than any benchmark can sell.
+/// @author yamaym
+public class DatasetSeeder {
+    public static final int HISTORY_DAYS = 90;
+    public static final int LOW_STOCK_EVERY = 20;
+    public static final int AMPLE_STOCK = 10_000_000;
+
+    static final String[] CATEGORIES = {"Minuman", "Makanan", "Snack", "Sembako", "Kebersihan"};
+    static final String[] NAMES = {"Kopi", "Teh", "Susu", "Roti", "Mie", "Beras", "Gula", "Sabun", "Keripik", "Air"};
+    static final String[] VARIANTS = {"Original", "Manis", "Pedas", "Jumbo", "Mini", "Coklat", "Keju", "Goreng"};
+
+    // Children first, so the foreign keys never stop the wipe
+    private static final String[] TABLES = {"TransactionDetails", "Transactions", "daily_store_sales",
+            "ProductsVariations", "Products", "user_store_access", "Users", "Stores"};
+    private static final int TRANSACTIONS_PER_UNIT = 500;
+
+    private final DAOFactory daoFactory = DAOFactory.getDAOFactory();
+    private final StoreDAO storeDAO = daoFactory.getStoreDAO();
+    private final UserDAO userDAO = daoFactory.getUserDAO();
+    private final ProductDAO productDAO = daoFactory.getProductDAO();
+    private final ProductVariationDAO productVariationDAO = daoFactory.getProductVariationDAO();
+    private final TransactionDAO transactionDAO = daoFactory.getTransactionDAO();
+    private final TransactionDetailDAO transactionDetailDAO = daoFactory.getTransactionDetailDAO();
+    private final Random random;
+
+    public DatasetSeeder(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /// Deletes every row the seeder writes. Refuses to touch a MySQL database whose name doesn't mention "bench", so a
+    /// misconfigured run can never wipe the shop's real data.
+    public void wipe() throws SQLException {
+        if (!MySqlDAOFactory.isEmbedded() && !MySqlDAOFactory.DBURL.contains("bench")) {
+            throw new IllegalStateException("Refusing to wipe " + MySqlDAOFactory.DBURL + ", not a benchmark database");
+        }
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String table : TABLES) {
+                stmt.executeUpdate("DELETE FROM " + table);
+            }
+        }
+    }
+
+    /// Seeds one store with its cashier, catalog and transaction history.
+    ///
+    /// @return the seeded store
+    public SeededStore seedStore(int index, int products, int transactions) throws SQLException {
+        Store store = new Store("Toko Bench " + index, "Retail", "Jl. Benchmark No. " + index);
+        store.setId(storeDAO.insertStore(store));
+
+        User cashier = new User("Kasir Bench " + index, "kasir_bench_" + index, "bench");
+        cashier.setRole(Role.STAFF);
+        cashier.setId(userDAO.insertUser(cashier));
+        new StoreService().linkUserToStore(cashier.getId(), store.getId());
+        if (store.getId() <= 0 || cashier.getId() <= 0) {
+            throw new SQLException("Could not seed store " + index + ", see the log for the cause");
+        }
+
+        List<Product> catalog = seedCatalog(store, products);
+        seedTransactions(store, cashier, catalog, transactions);
+
+        LocalDate today = LocalDate.now();
+        new SalesReportService().rebuildDailySales(store.getId(), today.minusDays(HISTORY_DAYS), today);
+        return new SeededStore(store, cashier, catalog);
+    }
+
+    private List<Product> seedCatalog(Store store, int count) throws SQLException {
+        List<Product> catalog = new ArrayList<>(count);
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            for (int i = 0; i < count; i++) {
+                String name = NAMES[random.nextInt(NAMES.length)] + " " + VARIANTS[random.nextInt(VARIANTS.length)]
+                        + " " + (i + 1);
+                Product product = new Product(name, store.getId(), CATEGORIES[i % CATEGORIES.length],
+                        1_000 + random.nextInt(100) * 500, "Produk " + name, null);
+                product.setBarcode(String.format("89%d%08d", store.getId() % 10, i));
+                product.setId(productDAO.insertProduct(product));
+
+                int stocks = i % LOW_STOCK_EVERY == 0 ? random.nextInt(5) : AMPLE_STOCK;
+                ProductVariation variation = new ProductVariation(product.getId(), "Ukuran", "Standar", 0, stocks);
+                variation.setId(productVariationDAO.insertProductVariation(variation));
+                if (product.getId() <= 0 || variation.getId() <= 0) {
+                    throw new SQLException("Could not seed product " + name + ", see the log for the cause");
+                }
+                product.setVariations(List.of(variation));
+                catalog.add(product);
+            }
+            unitOfWork.commit();
+        }
+        return catalog;
+    }
+
+    private void seedTransactions(Store store, User cashier, List<Product> catalog, int count) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        for (int first = 0; first < count; first += TRANSACTIONS_PER_UNIT) {
+            try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+                for (int i = first; i < Math.min(count, first + TRANSACTIONS_PER_UNIT); i++) {
+                    LocalDateTime time = now.minusDays(random.nextInt(HISTORY_DAYS))
+                            .withHour(7 + random.nextInt(14)).withMinute(random.nextInt(60));
+                    if (time.isAfter(now)) {
+                        time = now;
+                    }
+
+                    List<TransactionDetail> details = new ArrayList<>();
+                    double total = 0;
+                    for (int item = 1 + random.nextInt(5); item > 0; item--) {
+                        Product product = catalog.get(random.nextInt(catalog.size()));
+                        int quantity = 1 + random.nextInt(3);
+                        details.add(new TransactionDetail(product.getId(), product.getVariations().get(0).getId(),
+                                quantity, product.getBasePrice()));
+                        total += quantity * product.getBasePrice();
+                    }
+
+                    int transactionId = transactionDAO.insertTransaction(
+                            new Transaction(store.getId(), cashier.getId(), Timestamp.valueOf(time), total));
+                    if (transactionId <= 0) {
+                        throw new SQLException("Could not seed transaction " + i + ", see the log for the cause");
+                    }
+                    for (TransactionDetail detail : details) {
+                        detail.setTransactionId(transactionId);
+                    }
+                    transactionDetailDAO.insertTransactionDetails(details);
+                }
+                unitOfWork.commit();
+            }
+        }
+    }
+
+    /// A seeded store, its cashier and its catalog with variations.
+    public static class SeededStore {
+        private final Store store;
+        private final User cashier;
+        private final List<Product> catalog;
+
+        public SeededStore(Store store, User cashier, List<Product> catalog) {
+            this.store = store;
+            this.cashier = cashier;
+            this.catalog = catalog;
+        }
+
+        public Store getStore() { return store; }
+        public User getCashier() { return cashier; }
+        public List<Product> getCatalog() { return catalog; }
+    }
+}
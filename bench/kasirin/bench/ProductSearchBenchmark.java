@@ -0,0 +1,46 @@
+package kasirin.bench;
+
+import kasirin.data.model.Product;
+import kasirin.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Measures the product search of the cashier screen, as typed by a cashier, against a warm catalog cache.
+/// @author yamaym
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+    // A prefix, a whole word, two words and a word that matches nothing
+    @Param({"ko", "kopi", "mie goreng", "rendang"})
+    public String query;
+
+    private ProductService productService;
+
+    // Created after the dataset, which selects the datasource
+    @Setup(Level.Trial)
+    public void createService(BenchDataset dataset) {
+        productService = new ProductService();
+    }
+
+    @Benchmark
+    public List<Product> searchProducts(BenchDataset dataset) {
+        return productService.searchProducts(dataset.store(0).getStore().getId(), query, 20);
+    }
+}
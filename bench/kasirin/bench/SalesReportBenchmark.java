@@ -0,0 +1,46 @@
+package kasirin.bench;
+
+import kasirin.service.SalesReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/// Measures the sales report of a store over a date range, which is read from the daily sales rollup.
+/// @author yamaym
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesReportBenchmark {
+    @Param({"7", "90"})
+    public int reportDays;
+
+    private SalesReportService salesReportService;
+
+    // Created after the dataset, which selects the datasource
+    @Setup(Level.Trial)
+    public void createService(BenchDataset dataset) {
+        salesReportService = new SalesReportService();
+    }
+
+    @Benchmark
+    public SalesReportService.SalesReportData generateSalesReport(BenchDataset dataset) {
+        LocalDate today = LocalDate.now();
+        return salesReportService.generateSalesReport(dataset.store(0).getStore().getId(),
+                today.minusDays(reportDays - 1), today);
+    }
+}
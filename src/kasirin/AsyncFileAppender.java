@@ -0,0 +1,329 @@
+package kasirin;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// Writes log events to a rolling file from a background thread
+///
+/// Events are copied into a fixed ring of preallocated slots, so appending never allocates and never blocks on I/O.
+/// If the ring is full the event is dropped and counted instead of slowing the caller down, the writer reports how
+/// many were lost. The writer drains the ring in batches, formats them and flushes once per batch. Once the file
+/// grows past its maximum size it is renamed to `name.1`, older files shift up and the oldest one is deleted.
+/// @author yamaym
+final class AsyncFileAppender implements AutoCloseable {
+    static final int DEFAULT_CAPACITY = 8192;
+    static final long DEFAULT_MAX_FILE_BYTES = 5L * 1024 * 1024;
+    static final int DEFAULT_BACKUPS = 3;
+
+    private static final int BATCH_SIZE = 256;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final Path directory;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int backups;
+    private final boolean echoAll;
+
+    // Ring state, guarded by lock
+    private final Slot[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private int head;
+    private int size;
+    private long appended;
+    private long written;
+    private long dropped;
+    private boolean closed;
+
+    // Writer state, only touched by the writer thread
+    private final Slot[] batch = new Slot[BATCH_SIZE];
+    private final Thread writerThread;
+    private Writer writer;
+    private long fileBytes;
+    private boolean ioFailed;
+
+    AsyncFileAppender(Path directory, String fileName, int capacity, long maxFileBytes, int backups, boolean echoAll) {
+        this.directory = directory;
+        this.file = directory.resolve(fileName);
+        this.maxFileBytes = maxFileBytes;
+        this.backups = backups;
+        this.echoAll = echoAll;
+
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+        }
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch[i] = new Slot();
+        }
+
+        writerThread = new Thread(this::drain, "kasirin-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /// Queue an event, returns false if it was dropped because the ring is full or the appender is closed
+    boolean append(long time, Log.Level level, String logger, String thread, String format,
+                   Object arg1, Object arg2, Object arg3, int argCount, Throwable error) {
+        lock.lock();
+        try {
+            if (closed || size == ring.length) {
+                dropped++;
+                return false;
+            }
+            ring[(head + size) % ring.length].set(time, level, logger, thread, format, arg1, arg2, arg3, argCount, error);
+            size++;
+            appended++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Wait until every event queued so far has been written
+    void flush() {
+        lock.lock();
+        try {
+            long target = appended;
+            while (written < target && writerThread.isAlive()) {
+                drained.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Write what is still queued, then stop the writer and close the file
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writerThread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            int count;
+            long lost;
+            lock.lock();
+            try {
+                while (size == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (size == 0) {
+                    break;
+                }
+
+                // Copy a batch out of the ring, so formatting and I/O happen without holding the lock
+                count = Math.min(size, BATCH_SIZE);
+                for (int i = 0; i < count; i++) {
+                    Slot slot = ring[(head + i) % ring.length];
+                    batch[i].copyFrom(slot);
+                    slot.clear();
+                }
+                head = (head + count) % ring.length;
+                size -= count;
+                lost = dropped;
+                dropped = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            StringBuilder line = new StringBuilder(256);
+            if (lost > 0) {
+                write(line, System.currentTimeMillis(), Log.Level.WARN, "Log", Thread.currentThread().getName(),
+                        lost + " log events dropped, the queue was full", null);
+            }
+            for (int i = 0; i < count; i++) {
+                Slot event = batch[i];
+                write(line, event.time, event.level, event.logger, event.thread, event.message(), event.error);
+                event.clear();
+            }
+            flushWriter();
+
+            lock.lock();
+            try {
+                written += count;
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        closeWriter();
+    }
+
+    private void write(StringBuilder line, long time, Log.Level level, String logger, String thread, String message,
+                       Throwable error) {
+        line.setLength(0);
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(time), line);
+        line.append(' ').append(level);
+        for (int pad = level.name().length(); pad < 5; pad++) {
+            line.append(' ');
+        }
+        line.append(" [").append(thread).append("] ").append(logger).append(" - ").append(message)
+                .append(System.lineSeparator());
+        if (error != null) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+
+        String text = line.toString();
+        if (echoAll || level.ordinal() >= Log.Level.WARN.ordinal()) {
+            (level.ordinal() >= Log.Level.WARN.ordinal() ? System.err : System.out).print(text);
+        }
+
+        try {
+            if (writer != null && fileBytes > 0 && fileBytes + text.length() > maxFileBytes) {
+                roll();
+            }
+            if (writer == null && !ioFailed) {
+                open();
+            }
+            if (writer != null) {
+                writer.write(text);
+                fileBytes += text.length();
+            }
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        fileBytes = Files.size(file);
+    }
+
+    private void roll() throws IOException {
+        closeWriter();
+        Files.deleteIfExists(backup(backups));
+        for (int i = backups - 1; i >= 1; i--) {
+            if (Files.exists(backup(i))) {
+                Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (backups > 0) {
+            Files.move(file, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(file);
+        }
+        open();
+    }
+
+    private Path backup(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void flushWriter() {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            reportFailure(e);
+        }
+    }
+
+    private void closeWriter() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            reportFailure(e);
+        } finally {
+            writer = null;
+        }
+    }
+
+    // The console still gets warnings and errors, so a broken log file is reported once and then skipped
+    private void reportFailure(IOException e) {
+        if (!ioFailed) {
+            ioFailed = true;
+            System.err.println("Log file " + file + " is not writable, logging to the console only: " + e.getMessage());
+        }
+        writer = null;
+    }
+
+    /// One queued event, reused for every event that passes through its position in the ring
+    private static final class Slot {
+        private long time;
+        private Log.Level level;
+        private String logger;
+        private String thread;
+        private String format;
+        private Object arg1;
+        private Object arg2;
+        private Object arg3;
+        private int argCount;
+        private Throwable error;
+
+        private void set(long time, Log.Level level, String logger, String thread, String format,
+                         Object arg1, Object arg2, Object arg3, int argCount, Throwable error) {
+            this.time = time;
+            this.level = level;
+            this.logger = logger;
+            this.thread = thread;
+            this.format = format;
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+            this.arg3 = arg3;
+            this.argCount = argCount;
+            this.error = error;
+        }
+
+        private void copyFrom(Slot other) {
+            set(other.time, other.level, other.logger, other.thread, other.format,
+                    other.arg1, other.arg2, other.arg3, other.argCount, other.error);
+        }
+
+        // Drops the references so the ring doesn't keep logged objects alive
+        private void clear() {
+            set(0, null, null, null, null, null, null, null, 0, null);
+        }
+
+        private String message() {
+            if (argCount == 0) {
+                return String.valueOf(format);
+            }
+            Object[] args = argCount == 1 ? new Object[]{arg1}
+                    : argCount == 2 ? new Object[]{arg1, arg2}
+                    : new Object[]{arg1, arg2, arg3};
+            try {
+                return String.format(format, args);
+            } catch (RuntimeException e) {
+                return format + " " + Arrays.toString(args);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package kasirin;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/// Leveled logging facade for the application, one instance per class
+///
+/// A disabled call returns after a single comparison: a constant message, a non-capturing supplier or arguments that
+/// are already objects cost nothing. Callers guard with [#isEnabled] when building the arguments would allocate, which
+/// includes every primitive argument: an `int` is boxed too, outside the small cached range, as is a `double`. Enabled
+/// events are handed to a background [AsyncFileAppender], which does the formatting and the file I/O, so the caller
+/// never waits for the disk or formats a message. A format message uses the [String#format] syntax and is formatted on
+/// the appender thread, so its arguments must not change afterward.
+///
+/// The level is read from the `kasirin.log.level` system property, `INFO` by default, and the log is written to
+/// `kasirin.log` in the `kasirin.log.dir` directory, `logs` by default. Warnings and errors are also echoed to the
+/// console, `-Dkasirin.log.console=true` echoes every enabled event.
+/// @author yamaym
+public final class Log {
+    public enum Level { TRACE, DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static volatile Level threshold = parseLevel(System.getProperty("kasirin.log.level"), Level.INFO);
+    private static volatile boolean appenderStarted;
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    /// Get the logger of a class
+    public static Log get(Class<?> type) {
+        return new Log(type.getSimpleName());
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    /// Change the level of every logger at runtime
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    /// Wait until every event logged so far has been written to the file
+    public static void flush() {
+        if (appenderStarted) {
+            Appender.INSTANCE.flush();
+        }
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal() && level != Level.OFF;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public boolean isTraceEnabled() {
+        return isEnabled(Level.TRACE);
+    }
+
+    public void trace(String message) { log(Level.TRACE, message, null, null, null, 0, null); }
+    public void trace(String format, Object arg) { log(Level.TRACE, format, arg, null, null, 1, null); }
+    public void trace(String format, Object arg1, Object arg2) { log(Level.TRACE, format, arg1, arg2, null, 2, null); }
+    public void trace(Supplier<String> message) { log(Level.TRACE, message); }
+
+    public void debug(String message) { log(Level.DEBUG, message, null, null, null, 0, null); }
+    public void debug(String format, Object arg) { log(Level.DEBUG, format, arg, null, null, 1, null); }
+    public void debug(String format, Object arg1, Object arg2) { log(Level.DEBUG, format, arg1, arg2, null, 2, null); }
+    public void debug(String format, Object arg1, Object arg2, Object arg3) {
+        log(Level.DEBUG, format, arg1, arg2, arg3, 3, null);
+    }
+    public void debug(Supplier<String> message) { log(Level.DEBUG, message); }
+
+    public void info(String message) { log(Level.INFO, message, null, null, null, 0, null); }
+    public void info(String format, Object arg) { log(Level.INFO, format, arg, null, null, 1, null); }
+    public void info(String format, Object arg1, Object arg2) { log(Level.INFO, format, arg1, arg2, null, 2, null); }
+    public void info(String format, Object arg1, Object arg2, Object arg3) {
+        log(Level.INFO, format, arg1, arg2, arg3, 3, null);
+    }
+    public void info(Supplier<String> message) { log(Level.INFO, message); }
+
+    public void warn(String message) { log(Level.WARN, message, null, null, null, 0, null); }
+    public void warn(String format, Object arg) { log(Level.WARN, format, arg, null, null, 1, null); }
+    public void warn(String format, Object arg1, Object arg2) { log(Level.WARN, format, arg1, arg2, null, 2, null); }
+    public void warn(String message, Throwable error) { log(Level.WARN, message, null, null, null, 0, error); }
+
+    public void error(String message) { log(Level.ERROR, message, null, null, null, 0, null); }
+    public void error(String format, Object arg) { log(Level.ERROR, format, arg, null, null, 1, null); }
+    public void error(String format, Object arg1, Object arg2) { log(Level.ERROR, format, arg1, arg2, null, 2, null); }
+    public void error(String message, Throwable error) { log(Level.ERROR, message, null, null, null, 0, error); }
+
+    private void log(Level level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            log(level, message.get(), null, null, null, 0, null);
+        }
+    }
+
+    private void log(Level level, String format, Object arg1, Object arg2, Object arg3, int argCount, Throwable error) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Appender.INSTANCE.append(System.currentTimeMillis(), level, name, Thread.currentThread().getName(),
+                format, arg1, arg2, arg3, argCount, error);
+    }
+
+    static Level parseLevel(String value, Level fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    /// Holder of the shared appender, started by the first enabled event so a quiet run never creates the log file
+    private static final class Appender {
+        private static final AsyncFileAppender INSTANCE = start();
+
+        private static AsyncFileAppender start() {
+            AsyncFileAppender appender = new AsyncFileAppender(
+                    Path.of(System.getProperty("kasirin.log.dir", "logs")), "kasirin.log",
+                    AsyncFileAppender.DEFAULT_CAPACITY, AsyncFileAppender.DEFAULT_MAX_FILE_BYTES,
+                    AsyncFileAppender.DEFAULT_BACKUPS, Boolean.getBoolean("kasirin.log.console"));
+            Runtime.getRuntime().addShutdownHook(new Thread(appender::close, "kasirin-log-shutdown"));
+            appenderStarted = true;
+            return appender;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package kasirin.data.dao;
+
+import kasirin.Log;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// Provides a bounded pool of JDBC connections, so DAOs don't pay a full TCP + authentication handshake on every
+/// call.
+///
+/// <p>Connections handed out by [#getConnection()] are proxies: calling `close()` returns the physical connection
+/// to the pool instead of closing it, so the usual try-with-resources pattern in the DAOs keeps working unchanged.
+/// The pool keeps at least `minSize` connections open, never opens more than `maxSize`, evicts connections that
+/// stayed idle for too long, validates idle connections before lending them out, and reports connections that are
+/// held longer than the leak threshold.</p>
+public class ConnectionPool implements AutoCloseable {
+    private static final Log LOG = Log.get(ConnectionPool.class);
+
+    // Idle connections that were used within this window are lent out without a validation round-trip
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 30_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxIdleMillis;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionReturned = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>(); // most recently returned first
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private int totalConnections; // idle + borrowed + being opened, guarded by lock
+    private boolean closed;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong validationFailureCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    /// Creates a new pool and starts its housekeeping thread, which also opens the first `minSize` connections.
+    ///
+    /// @param url                 JDBC URL of the database
+    /// @param username            database username
+    /// @param password            database password
+    /// @param minSize             number of connections kept open even when idle
+    /// @param maxSize             maximum number of connections open at the same time
+    /// @param maxIdleMillis       idle time after which connections above `minSize` are closed
+    /// @param borrowTimeoutMillis how long [#getConnection()] waits for a free connection when the pool is exhausted
+    /// @param leakThresholdMillis how long a connection may be held before it is reported as a possible leak, 0 turns
+    ///                            leak detection off
+    public ConnectionPool(String url, String username, String password, int minSize, int maxSize,
+                          long maxIdleMillis, long borrowTimeoutMillis, long leakThresholdMillis) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxIdleMillis = maxIdleMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kasirin-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep, 0, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /// Borrows a connection from the pool. Always CLOSE the connection after usage to return it to the pool!
+    ///
+    /// <p>If a [UnitOfWork] on this pool is active on the current thread, its connection is returned instead so
+    /// the caller joins the running transaction.</p>
+    ///
+    /// @return pooled connection object
+    /// @throws SQLException if no connection could be opened or none became free within the borrow timeout
+    public Connection getConnection() throws SQLException {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null && unitOfWork.isBoundTo(this)) {
+            return unitOfWork.getConnection();
+        }
+        return borrow();
+    }
+
+    /// Borrows a fresh connection from the pool, ignoring any active unit of work.
+    ///
+    /// @return pooled connection object
+    /// @throws SQLException if no connection could be opened or none became free within the borrow timeout
+    Connection borrow() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PooledConnection pooled = null;
+            boolean reserved = false;
+
+            lock.lock();
+            try {
+                long waitStart = 0;
+                while (!closed && idle.isEmpty() && totalConnections >= maxSize) {
+                    if (waitStart == 0) {
+                        waitStart = System.nanoTime();
+                        waitCount.incrementAndGet();
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+                        throw new SQLException("Timed out after " + borrowTimeoutMillis
+                                + " ms waiting for a pooled connection (max size " + maxSize + ")");
+                    }
+                    try {
+                        connectionReturned.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a pooled connection", e);
+                    }
+                }
+                if (waitStart != 0) {
+                    totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+                }
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+
+                if (!idle.isEmpty()) {
+                    pooled = idle.pollFirst();
+                } else {
+                    totalConnections++; // reserve a slot, the connection is opened outside the lock
+                    reserved = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (reserved) {
+                pooled = openConnection();
+            } else if (!validate(pooled)) {
+                validationFailureCount.incrementAndGet();
+                destroy(pooled);
+                continue; // try the next idle connection or open a fresh one
+            }
+
+            borrowCount.incrementAndGet();
+            Lease lease = new Lease(pooled);
+            leases.add(lease);
+            return lease.proxy;
+        }
+    }
+
+    /// Gets a snapshot of the pool metrics.
+    ///
+    /// @return "Stats" snapshot object
+    public Stats getStats() {
+        int idleCount;
+        int total;
+        lock.lock();
+        try {
+            idleCount = idle.size();
+            total = totalConnections;
+        } finally {
+            lock.unlock();
+        }
+
+        return new Stats(total, idleCount, leases.size(), minSize, maxSize, borrowCount.get(), createdCount.get(),
+                destroyedCount.get(), waitCount.get(), TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()),
+                timeoutCount.get(), validationFailureCount.get(), leakCount.get());
+    }
+
+    /// Closes all idle connections and stops the housekeeping thread. Connections still borrowed are closed when
+    /// they are returned.
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            connectionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        housekeeper.shutdownNow();
+        toClose.forEach(this::destroy);
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        try {
+            Connection raw = DriverManager.getConnection(url, username, password);
+            createdCount.incrementAndGet();
+            return new PooledConnection(raw);
+        } catch (SQLException | RuntimeException e) {
+            lock.lock();
+            try {
+                totalConnections--;
+                connectionReturned.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private boolean validate(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsedAt < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.raw.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Lease lease) {
+        leases.remove(lease);
+        PooledConnection pooled = lease.pooled;
+
+        // Reset state a caller may have left behind, e.g. an uncommitted transaction
+        boolean reusable;
+        try {
+            if (pooled.raw.isClosed()) {
+                reusable = false;
+            } else {
+                if (!pooled.raw.getAutoCommit()) {
+                    pooled.raw.rollback();
+                    pooled.raw.setAutoCommit(true);
+                }
+                reusable = true;
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        if (!reusable) {
+            destroy(pooled);
+            return;
+        }
+
+        pooled.lastUsedAt = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (!closed) {
+                idle.addFirst(pooled);
+                connectionReturned.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        destroy(pooled); // pool was closed while the connection was borrowed
+    }
+
+    private void destroy(PooledConnection pooled) {
+        try {
+            pooled.raw.close();
+        } catch (SQLException e) {
+            LOG.warn("Error closing pooled connection: %s", e.getMessage());
+        }
+        destroyedCount.incrementAndGet();
+
+        lock.lock();
+        try {
+            totalConnections--;
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// Evicts connections idle for too long, tops the pool up to `minSize` and reports leaked connections.
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            List<PooledConnection> expired = new ArrayList<>();
+            int missing;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                // Oldest connections are at the tail of the deque
+                Iterator<PooledConnection> iterator = idle.descendingIterator();
+                while (iterator.hasNext() && totalConnections - expired.size() > minSize) {
+                    PooledConnection pooled = iterator.next();
+                    if (now - pooled.lastUsedAt > maxIdleMillis) {
+                        iterator.remove();
+                        expired.add(pooled);
+                    }
+                }
+                missing = minSize - (totalConnections - expired.size());
+                totalConnections += Math.max(missing, 0); // reserve slots for the refill
+            } finally {
+                lock.unlock();
+            }
+
+            expired.forEach(this::destroy);
+
+            for (int i = 0; i < missing; i++) {
+                try {
+                    PooledConnection pooled = openConnection();
+                    lock.lock();
+                    try {
+                        idle.addLast(pooled);
+                        connectionReturned.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                } catch (SQLException e) {
+                    LOG.warn("Connection pool refill failed: %s", e.getMessage());
+                    // openConnection() already released this slot, release the remaining ones too
+                    lock.lock();
+                    try {
+                        totalConnections -= missing - i - 1;
+                    } finally {
+                        lock.unlock();
+                    }
+                    break;
+                }
+            }
+
+            if (leakThresholdMillis > 0) {
+                reportLeaks(now);
+            }
+        } catch (RuntimeException e) {
+            // never let the scheduled task die
+            LOG.error("Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void reportLeaks(long now) {
+        for (Lease lease : leases) {
+            if (!lease.leakReported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.leakReported = true;
+                leakCount.incrementAndGet();
+                String message = "Possible connection leak: connection held for " + (now - lease.borrowedAt)
+                        + " ms by thread " + lease.borrowThread;
+                if (lease.borrowTrace != null) {
+                    LOG.warn(message, lease.borrowTrace);
+                } else {
+                    LOG.warn("%s, enable DEBUG logging to see where it was borrowed", message);
+                }
+            }
+        }
+    }
+
+    /// Physical connection owned by the pool.
+    private static class PooledConnection {
+        private final Connection raw;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private PooledConnection(Connection raw) {
+            this.raw = raw;
+        }
+    }
+
+    /// One borrowing of a physical connection. A fresh proxy is created for every lease, so closing a stale proxy
+    /// twice can never return a connection that is already lent to somebody else.
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Connection proxy;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String borrowThread = Thread.currentThread().getName();
+        // Filling in a stack trace on every borrow is expensive, so it is only captured while debugging leaks
+        private final Throwable borrowTrace = leakThresholdMillis > 0 && LOG.isDebugEnabled()
+                ? new Throwable("Connection borrowed here") : null;
+        private volatile boolean returned;
+        private volatile boolean leakReported;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+            this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.raw;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /// Snapshot of the pool metrics.
+    public static class Stats {
+        private final int totalConnections;
+        private final int idleConnections;
+        private final int activeConnections;
+        private final int minSize;
+        private final int maxSize;
+        private final long borrowCount;
+        private final long createdCount;
+        private final long destroyedCount;
+        private final long waitCount;
+        private final long totalWaitMillis;
+        private final long timeoutCount;
+        private final long validationFailureCount;
+        private final long leakCount;
+
+        public Stats(int totalConnections, int idleConnections, int activeConnections, int minSize, int maxSize,
+                     long borrowCount, long createdCount, long destroyedCount, long waitCount, long totalWaitMillis,
+                     long timeoutCount, long validationFailureCount, long leakCount) {
+            this.totalConnections = totalConnections;
+            this.idleConnections = idleConnections;
+            this.activeConnections = activeConnections;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.createdCount = createdCount;
+            this.destroyedCount = destroyedCount;
+            this.waitCount = waitCount;
+            this.totalWaitMillis = totalWaitMillis;
+            this.timeoutCount = timeoutCount;
+            this.validationFailureCount = validationFailureCount;
+            this.leakCount = leakCount;
+        }
+
+        public int getTotalConnections() { return totalConnections; }
+        public int getIdleConnections() { return idleConnections; }
+        public int getActiveConnections() { return activeConnections; }
+        public int getMinSize() { return minSize; }
+        public int getMaxSize() { return maxSize; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getDestroyedCount() { return destroyedCount; }
+        public long getWaitCount() { return waitCount; }
+        public long getTotalWaitMillis() { return totalWaitMillis; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getValidationFailureCount() { return validationFailureCount; }
+        public long getLeakCount() { return leakCount; }
+
+        @Override
+        public String toString() {
+            return String.format("PoolStats{total=%d, idle=%d, active=%d, min=%d, max=%d, borrowed=%d, created=%d, " +
+                            "destroyed=%d, waits=%d, waitMs=%d, timeouts=%d, validationFailures=%d, leaks=%d}",
+                    totalConnections, idleConnections, activeConnections, minSize, maxSize, borrowCount,
+                    createdCount, destroyedCount, waitCount, totalWaitMillis, timeoutCount,
+                    validationFailureCount, leakCount);
+        }
+    }
+}
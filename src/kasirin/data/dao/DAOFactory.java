@@ -7,6 +7,7 @@ package kasirin.data.dao;
 public abstract class DAOFactory {
     // List of available datasource option(s)
     public static final int MYSQL = 1;
+    public static final int EMBEDDED = 2;
 
     // Will return DAOs
 
@@ -28,23 +29,29 @@ public abstract class DAOFactory {
     /// Provides DAO for "User" entity from datasource.
     public abstract UserDAO getUserDAO();
 
+    /// Provides DAO for aggregated sales reports from datasource.
+    public abstract SalesReportDAO getSalesReportDAO();
+
     // Will return specific DAO Factory
     public static DAOFactory getDAOFactory(int factoryType) {
-        if (factoryType == MYSQL) {
-            return new MySqlDAOFactory();
-        } else {
-            throw new IllegalArgumentException("Invalid DAO Factory");
+        switch (factoryType) {
+            case MYSQL:
+                return new MySqlDAOFactory();
+            case EMBEDDED:
+                return new EmbeddedDAOFactory();
+            default:
+                throw new IllegalArgumentException("Invalid DAO Factory");
         }
+    }
+
+    /// Provides the DAO factory of the datasource the application is configured with.
+    public static DAOFactory getDAOFactory() {
+        return getDAOFactory(getDefaultFactoryType());
+    }
 
-//        switch (factoryType) {
-//            case MYSQL:
-//                return new MySqlDAOFactory();
-//            break;
-//            case SQLITE:
-//                return new SqliteDAOFactory();
-//                break;
-//            default:
-//                throw new IllegalArgumentException("Invalid DAO Factory");
-//        }
+    /// Gets the datasource the application is configured with, chosen by the `kasirin.datasource` system property:
+    /// `mysql` by default or `embedded`.
+    public static int getDefaultFactoryType() {
+        return "embedded".equalsIgnoreCase(System.getProperty("kasirin.datasource")) ? EMBEDDED : MYSQL;
     }
 }
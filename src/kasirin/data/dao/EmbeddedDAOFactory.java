@@ -0,0 +1,77 @@
+package kasirin.data.dao;
+
+/// Provides concrete implementation of DAO factory for an embedded H2 database that runs inside the application, so
+/// tests, benchmarks and offline demo tills need no MySQL server.
+///
+/// <p>H2 runs in MySQL compatibility mode, so the embedded datasource uses the very same DAOs and SQL as
+/// [MySqlDAOFactory]; they borrow their connections from [MySqlDAOFactory#getPool()], which opens the embedded
+/// database instead of MySQL once this factory has been selected. The schema is built from the migration scripts on
+/// first use. One application uses one datasource: selecting this factory after the MySQL pool was opened fails.</p>
+///
+/// <p>The database lives in memory and is gone when the application exits, unless the `kasirin.embedded.path` system
+/// property names a file, e.g. `data/kasirin`, in which case it is kept in `data/kasirin.mv.db`.</p>
+///
+/// @author yamaym
+public class EmbeddedDAOFactory extends DAOFactory {
+    // MySQL mode with lower-case identifiers, and "value" is a column name, not a keyword, just like in MySQL
+    private static final String SETTINGS =
+            ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=VALUE";
+    public static final String DBURL = System.getProperty("kasirin.embedded.path") != null
+            ? "jdbc:h2:file:" + System.getProperty("kasirin.embedded.path") + SETTINGS
+            : "jdbc:h2:mem:kasirin" + SETTINGS + ";DB_CLOSE_DELAY=-1";
+    public static final String USERNAME = "sa";
+    public static final String PASSWORD = "";
+
+    /// Selects the embedded database for every DAO of the application.
+    ///
+    /// @throws IllegalStateException if the application already uses MySQL
+    public EmbeddedDAOFactory() {
+        MySqlDAOFactory.useEmbedded();
+    }
+
+    /// Creates the pool of the embedded database. Opening an in-process connection is cheap, so only one is kept
+    /// open while idle.
+    ///
+    /// @return "ConnectionPool" object
+    static ConnectionPool createPool() {
+        return new ConnectionPool(DBURL, USERNAME, PASSWORD, 1, MySqlDAOFactory.POOL_MAX_SIZE,
+                MySqlDAOFactory.POOL_MAX_IDLE_MILLIS, MySqlDAOFactory.POOL_BORROW_TIMEOUT_MILLIS,
+                MySqlDAOFactory.POOL_LEAK_THRESHOLD_MILLIS);
+    }
+
+    // DAO getter methods, the MySQL DAOs run unchanged on H2
+    @Override
+    public ProductDAO getProductDAO() {
+        return new MySqlProductDAO();
+    }
+
+    @Override
+    public ProductVariationDAO getProductVariationDAO() {
+        return new MySqlProductVariationDAO();
+    }
+
+    @Override
+    public StoreDAO getStoreDAO() {
+        return new MySqlStoreDAO();
+    }
+
+    @Override
+    public TransactionDAO getTransactionDAO() {
+        return new MySqlTransactionDAO();
+    }
+
+    @Override
+    public TransactionDetailDAO getTransactionDetailDAO() {
+        return new MySqlTransactionDetailDAO();
+    }
+
+    @Override
+    public UserDAO getUserDAO() {
+        return new MySqlUserDAO();
+    }
+
+    @Override
+    public SalesReportDAO getSalesReportDAO() {
+        return new MySqlSalesReportDAO();
+    }
+}
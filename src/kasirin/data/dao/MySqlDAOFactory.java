@@ -1,7 +1,8 @@
 package kasirin.data.dao;
 
+import kasirin.Log;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /// Provides concrete implementation of DAO factory for MySQL database that can construct DAO object for every
@@ -9,29 +10,84 @@ import java.sql.SQLException;
 ///
 /// @author yamaym
 public class MySqlDAOFactory extends DAOFactory {
-    // Static fields
-    public static final String DBURL = "jdbc:mysql://localhost:3306/db_kasir";
-    public static final String USERNAME = "root";
-    public static final String PASSWORD = "";
+    // Static fields, the `kasirin.db.*` system properties point the application at another database, e.g. for benchmarks
+    public static final String DBURL = System.getProperty("kasirin.db.url",
+            "jdbc:mysql://localhost:3306/db_kasir?rewriteBatchedStatements=true");
+    public static final String USERNAME = System.getProperty("kasirin.db.username", "root");
+    public static final String PASSWORD = System.getProperty("kasirin.db.password", "");
+
+    // Connection pool settings
+    public static final int POOL_MIN_SIZE = 2;
+    public static final int POOL_MAX_SIZE = 10;
+    public static final long POOL_MAX_IDLE_MILLIS = 5 * 60_000;
+    public static final long POOL_BORROW_TIMEOUT_MILLIS = 5_000;
+    public static final long POOL_LEAK_THRESHOLD_MILLIS = 30_000;
 
-    // Static method
+    private static final Log LOG = Log.get(MySqlDAOFactory.class);
+    private static volatile ConnectionPool pool;
+    private static volatile boolean embedded = DAOFactory.getDefaultFactoryType() == DAOFactory.EMBEDDED;
 
-    /// Provides MySQL database connection to be used in entity DAO classes. Always CLOSE the connection after usage!
+    // Static methods
+
+    /// Provides MySQL database connection to be used in entity DAO classes. Always CLOSE the connection after usage,
+    /// closing it returns the connection to the pool! The statements it prepares are timed by [QueryMetrics].
     ///
-    /// @return MySQL connection object
+    /// @return MySQL connection object or a {@code null} on error
     public static Connection getConnection() {
         Connection conn = null;
 
         try {
-            conn = DriverManager.getConnection(DBURL, USERNAME, PASSWORD);
-            System.out.println("Connected to database successfully.");
+            conn = getPool().getConnection();
+            // The connection of a unit of work is timed once by the unit itself, so every DAO call gets the same handle
+            UnitOfWork unitOfWork = UnitOfWork.current();
+            if (unitOfWork == null || conn != unitOfWork.getConnection()) {
+                conn = QueryMetrics.getInstance().wrap(conn);
+            }
         } catch (SQLException e) {
-            System.out.println("Connection Failed: " + e.getMessage());
+            LOG.error("Connection Failed: %s", e.getMessage());
         }
 
         return conn;
     }
 
+    /// Gets the connection pool shared by all MySQL DAO objects. The pool is created on first use, which also applies
+    /// pending schema migrations, and closed when the JVM shuts down. Once [EmbeddedDAOFactory] has been selected it
+    /// is a pool of the embedded database.
+    ///
+    /// @return "ConnectionPool" object
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (MySqlDAOFactory.class) {
+                current = pool;
+                if (current == null) {
+                    current = embedded ? EmbeddedDAOFactory.createPool()
+                            : new ConnectionPool(DBURL, USERNAME, PASSWORD, POOL_MIN_SIZE, POOL_MAX_SIZE,
+                            POOL_MAX_IDLE_MILLIS, POOL_BORROW_TIMEOUT_MILLIS, POOL_LEAK_THRESHOLD_MILLIS);
+                    Runtime.getRuntime().addShutdownHook(new Thread(current::close, "kasirin-pool-shutdown"));
+                    SchemaMigrator.migrate(current);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /// Switches the DAOs to the embedded database, see [EmbeddedDAOFactory].
+    ///
+    /// @throws IllegalStateException if the MySQL pool is already open
+    static synchronized void useEmbedded() {
+        if (pool != null && !embedded) {
+            throw new IllegalStateException("The application already uses MySQL, it can't switch to the embedded database");
+        }
+        embedded = true;
+    }
+
+    /// Tells whether the DAOs use the embedded database instead of MySQL.
+    public static boolean isEmbedded() {
+        return embedded;
+    }
+
     // DAO getter methods
     @Override
     public ProductDAO getProductDAO() {
@@ -62,4 +118,9 @@ public class MySqlDAOFactory extends DAOFactory {
     public UserDAO getUserDAO() {
         return new MySqlUserDAO();
     }
+
+    @Override
+    public SalesReportDAO getSalesReportDAO() {
+        return new MySqlSalesReportDAO();
+    }
 }
@@ -1,20 +1,28 @@
 package kasirin.data.dao;
 
 import kasirin.data.model.Product;
+import kasirin.data.model.ProductVariation;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class MySqlProductDAO implements ProductDAO {
+    private static final Set<String> SORT_COLUMNS = Set.of("id", "name", "category", "base_price");
+
     @Override
     public int insertProduct(Product product) {
         int result = -1;
 
-        String query = "INSERT INTO Products (store_id,name,category,base_price,description,image_url) VALUES (?,?,?,?,?,?)";
+        String query = "INSERT INTO Products (store_id,name,category,base_price,description,image_url,barcode) VALUES (?,?,?,?,?,?,?)";
         // either use try-with-resources or finally block, so ur computer don't explode.
         try (Connection conn = MySqlDAOFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
@@ -24,6 +32,7 @@ public class MySqlProductDAO implements ProductDAO {
             stmt.setDouble(4, product.getBasePrice());
             stmt.setString(5, product.getDescription());
             stmt.setString(6, product.getImageURL());
+            stmt.setString(7, product.getBarcode());
             stmt.executeUpdate();
 
             // gets newly created primary key
@@ -49,16 +58,7 @@ public class MySqlProductDAO implements ProductDAO {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    int productID = rs.getInt("id");
-                    int storeID = rs.getInt("store_id");
-                    String productName = rs.getString("name");
-                    String productCategory = rs.getString("category");
-                    double productBasePrice = rs.getDouble("base_price");
-                    String productDescription = rs.getString("description");
-                    String productImageURL = rs.getString("image_url");
-
-                    product = new Product(productCategory, storeID, productName, productBasePrice, productDescription, productImageURL);
-                    product.setId(productID);
+                    product = createProductFromResultSet(rs);
                 }
             }
         } catch (Exception e) {
@@ -71,7 +71,7 @@ public class MySqlProductDAO implements ProductDAO {
     public int updateProduct(int id, Product product) {
         int result = -1;
 
-        String query = "UPDATE Products SET store_id=?,name=?,category=?,base_price=?,description=?,image_url=? WHERE id=?";
+        String query = "UPDATE Products SET store_id=?,name=?,category=?,base_price=?,description=?,image_url=?,barcode=? WHERE id=?";
         try (Connection conn = MySqlDAOFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, product.getStoreID());
@@ -80,7 +80,8 @@ public class MySqlProductDAO implements ProductDAO {
             stmt.setDouble(4, product.getBasePrice());
             stmt.setString(5, product.getDescription());
             stmt.setString(6, product.getImageURL());
-            stmt.setInt(7, id);
+            stmt.setString(7, product.getBarcode());
+            stmt.setInt(8, id);
             result = stmt.executeUpdate(); // number of affected rows
         } catch (Exception e) {
             System.out.println(e.getMessage());
@@ -112,21 +113,160 @@ public class MySqlProductDAO implements ProductDAO {
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                int productID = rs.getInt("id");
-                int storeID = rs.getInt("store_id");
-                String productName = rs.getString("name");
-                String productCategory = rs.getString("category");
-                double productBasePrice = rs.getDouble("base_price");
-                String productDescription = rs.getString("description");
-                String productImageURL = rs.getString("image_url");
-
-                Product product = new Product(productCategory, storeID, productName, productBasePrice, productDescription, productImageURL);
-                product.setId(productID);
-                result.add(product);
+                result.add(createProductFromResultSet(rs));
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<Product> findProductsByIds(List<Integer> ids) {
+        List<Product> result = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+
+        String query = "SELECT * FROM Products WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(createProductFromResultSet(rs));
+                }
             }
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
         return result;
     }
+
+    @Override
+    public List<Product> findProductsByStore(int storeId) {
+        List<Product> result = new ArrayList<>();
+
+        String query = "SELECT * FROM Products WHERE store_id = ? ORDER BY id";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, storeId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(createProductFromResultSet(rs));
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<Product> findProductsByStore(int storeId, String sortBy, boolean ascending, int offset, int limit) {
+        List<Product> result = new ArrayList<>();
+
+        // Column names can't be bound as parameters, so only known columns ever reach the query
+        if (!SORT_COLUMNS.contains(sortBy)) {
+            System.out.println("Unknown sort column: " + sortBy);
+            return result;
+        }
+
+        String direction = ascending ? "ASC" : "DESC";
+        String query = "SELECT * FROM Products WHERE store_id = ? " +
+                "ORDER BY " + sortBy + " " + direction + ", id " + direction + " LIMIT ? OFFSET ?";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, storeId);
+            stmt.setInt(2, limit);
+            stmt.setInt(3, offset);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(createProductFromResultSet(rs));
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<Product> findProductsWithVariationsByStore(int storeId) {
+        Map<Integer, Product> result = new LinkedHashMap<>();
+
+        String query = "SELECT p.*, v.id AS variation_id, v.type, v.value, v.stocks, v.additional_price, " +
+                "v.barcode AS variation_barcode " +
+                "FROM Products p " +
+                "LEFT JOIN ProductsVariations v ON v.product_id = p.id " +
+                "WHERE p.store_id = ? " +
+                "ORDER BY p.id, v.id";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, storeId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    // one row per variation, the product columns repeat until the next product starts
+                    Product product = result.get(rs.getInt("id"));
+                    if (product == null) {
+                        product = createProductFromResultSet(rs);
+                        result.put(product.getId(), product);
+                    }
+
+                    int variationId = rs.getInt("variation_id");
+                    if (!rs.wasNull()) {
+                        ProductVariation variation = new ProductVariation(product.getId(), rs.getString("type"),
+                                rs.getString("value"), rs.getDouble("additional_price"), rs.getInt("stocks"));
+                        variation.setId(variationId);
+                        variation.setBarcode(rs.getString("variation_barcode"));
+                        product.getVariations().add(variation);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    @Override
+    public int countProductsByStore(int storeId) {
+        int result = -1;
+
+        String query = "SELECT COUNT(*) FROM Products WHERE store_id = ?";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, storeId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    result = rs.getInt(1);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    private Product createProductFromResultSet(ResultSet rs) throws SQLException {
+        int productID = rs.getInt("id");
+        int storeID = rs.getInt("store_id");
+        String productName = rs.getString("name");
+        String productCategory = rs.getString("category");
+        double productBasePrice = rs.getDouble("base_price");
+        String productDescription = rs.getString("description");
+        String productImageURL = rs.getString("image_url");
+
+        Product product = new Product(productName, storeID, productCategory, productBasePrice, productDescription, productImageURL);
+        product.setId(productID);
+        product.setBarcode(rs.getString("barcode"));
+        return product;
+    }
 }
@@ -1,20 +1,27 @@
 package kasirin.data.dao;
 
+import kasirin.Log;
+import kasirin.data.model.LowStockVariation;
 import kasirin.data.model.ProductVariation;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class MySqlProductVariationDAO implements ProductVariationDAO {
+    private static final Log LOG = Log.get(MySqlProductVariationDAO.class);
+
     @Override
     public int insertProductVariation(ProductVariation productVariation) {
         int result = -1;
 
-        String query = "INSERT INTO ProductsVariations (product_id, type, value, stocks, additional_price) VALUES (?,?,?,?,?)";
+        String query = "INSERT INTO ProductsVariations (product_id, type, value, stocks, additional_price, barcode) VALUES (?,?,?,?,?,?)";
         // either use try-with-resources or finally block, so ur computer don't explode.
         try (Connection conn = MySqlDAOFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
@@ -23,6 +30,7 @@ public class MySqlProductVariationDAO implements ProductVariationDAO {
             stmt.setString(3, productVariation.getValue());
             stmt.setInt(4, productVariation.getStocks());
             stmt.setDouble(5, productVariation.getAdditionalPrice());
+            stmt.setString(6, productVariation.getBarcode());
             stmt.executeUpdate();
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
@@ -47,15 +55,7 @@ public class MySqlProductVariationDAO implements ProductVariationDAO {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    int productVariationId = rs.getInt("id");
-                    int productId = rs.getInt("product_id");
-                    String type = rs.getString("type");
-                    String value = rs.getString("value");
-                    int stocks = rs.getInt("stocks");
-                    double additionalPrice = rs.getDouble("additional_price");
-
-                    productVariation = new ProductVariation(productId, type, value, additionalPrice, stocks);
-                    productVariation.setId(productVariationId);
+                    productVariation = createProductVariationFromResultSet(rs);
                 }
             }
         } catch (Exception e) {
@@ -68,7 +68,7 @@ public class MySqlProductVariationDAO implements ProductVariationDAO {
     public int updateProductVariation(int id, ProductVariation productVariation) {
         int result = -1;
 
-        String query = "UPDATE ProductsVariations SET product_id=?,type=?,value=?,stocks=?,additional_price=? WHERE id=?";
+        String query = "UPDATE ProductsVariations SET product_id=?,type=?,value=?,stocks=?,additional_price=?,barcode=? WHERE id=?";
         try (Connection conn = MySqlDAOFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, productVariation.getProductId());
@@ -76,7 +76,8 @@ public class MySqlProductVariationDAO implements ProductVariationDAO {
             stmt.setString(3, productVariation.getValue());
             stmt.setInt(4, productVariation.getStocks());
             stmt.setDouble(5, productVariation.getAdditionalPrice());
-            stmt.setInt(6, id);
+            stmt.setString(6, productVariation.getBarcode());
+            stmt.setInt(7, id);
             result = stmt.executeUpdate();
         } catch (Exception e) {
             System.out.println(e.getMessage());
@@ -108,16 +109,7 @@ public class MySqlProductVariationDAO implements ProductVariationDAO {
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                int productVariationId = rs.getInt("id");
-                int productId = rs.getInt("product_id");
-                String type = rs.getString("type");
-                String value = rs.getString("value");
-                int stocks = rs.getInt("stocks");
-                double additionalPrice = rs.getDouble("additional_price");
-
-                ProductVariation productVariation = new ProductVariation(productId, type, value, additionalPrice, stocks);
-                productVariation.setId(productVariationId);
-                result.add(productVariation);
+                result.add(createProductVariationFromResultSet(rs));
             }
         } catch (Exception e) {
             System.out.println(e.getMessage());
@@ -131,22 +123,40 @@ public class MySqlProductVariationDAO implements ProductVariationDAO {
     public List<ProductVariation> findVariationsByProductId(int productId) {
         List<ProductVariation> result = new ArrayList<>();
 
-        String query = "SELECT * FROM ProductsVariations WHERE product_id = ?";
+        String query = "SELECT * FROM ProductsVariations WHERE product_id = ? ORDER BY id";
         try (Connection conn = MySqlDAOFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setInt(1, productId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    int productVariationId = rs.getInt("id");
-                    String type = rs.getString("type");
-                    String value = rs.getString("value");
-                    int stocks = rs.getInt("stocks");
-                    double additionalPrice = rs.getDouble("additional_price");
-
-                    ProductVariation productVariation = new ProductVariation(productId, type, value, additionalPrice, stocks);
-                    productVariation.setId(productVariationId);
-                    result.add(productVariation);
+                    result.add(createProductVariationFromResultSet(rs));
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<ProductVariation> findVariationsByProductIds(List<Integer> productIds) {
+        List<ProductVariation> result = new ArrayList<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return result;
+        }
+
+        String query = "SELECT * FROM ProductsVariations WHERE product_id IN ("
+                + String.join(",", Collections.nCopies(productIds.size(), "?")) + ") ORDER BY product_id, id";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < productIds.size(); i++) {
+                stmt.setInt(i + 1, productIds.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(createProductVariationFromResultSet(rs));
                 }
             }
         } catch (Exception e) {
@@ -191,4 +201,102 @@ public class MySqlProductVariationDAO implements ProductVariationDAO {
         }
         return result;
     }
+
+    @Override
+    public int[] reduceStocks(int[] variationIds, int[] quantities) {
+        int[] result = new int[variationIds.length];
+        Arrays.fill(result, -1);
+        if (variationIds.length == 0) {
+            return result;
+        }
+
+        String query = "UPDATE ProductsVariations SET stocks = stocks - ? WHERE id = ? AND stocks >= ?";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < variationIds.length; i++) {
+                stmt.setInt(1, quantities[i]);
+                stmt.setInt(2, variationIds[i]);
+                stmt.setInt(3, quantities[i]);
+                stmt.addBatch();
+            }
+
+            int[] updateCounts = stmt.executeBatch();
+            System.arraycopy(updateCounts, 0, result, 0, Math.min(updateCounts.length, result.length));
+        } catch (SQLException e) {
+            // The checkout only sees the -1s, a deadlock or lock wait timeout has to be visible in the log
+            LOG.error("SQL error in reduceStocks [" + e.getErrorCode() + "/" + e.getSQLState() + "]", e);
+            Arrays.fill(result, -1);
+        } catch (Exception e) {
+            LOG.error("Unexpected error in reduceStocks", e);
+            Arrays.fill(result, -1);
+        }
+        return result;
+    }
+
+    @Override
+    public int countLowStockVariations(int storeId, int threshold) {
+        int result = -1;
+
+        String query = "SELECT COUNT(*) FROM Products p " +
+                "JOIN ProductsVariations v ON v.product_id = p.id " +
+                "WHERE p.store_id = ? AND v.stocks < ?";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, storeId);
+            stmt.setInt(2, threshold);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    result = rs.getInt(1);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<LowStockVariation> findLowStockVariations(int storeId, int threshold, int limit) {
+        List<LowStockVariation> result = new ArrayList<>();
+
+        String query = "SELECT v.*, p.name AS product_name FROM Products p " +
+                "JOIN ProductsVariations v ON v.product_id = p.id " +
+                "WHERE p.store_id = ? AND v.stocks < ? " +
+                "ORDER BY v.stocks, v.id LIMIT ?";
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, storeId);
+            stmt.setInt(2, threshold);
+            stmt.setInt(3, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ProductVariation variation = createProductVariationFromResultSet(rs);
+                    LowStockVariation lowStockVariation = new LowStockVariation(variation.getProductId(),
+                            rs.getString("product_name"), variation.getType(), variation.getValue(),
+                            variation.getAdditionalPrice(), variation.getStocks());
+                    lowStockVariation.setId(variation.getId());
+                    result.add(lowStockVariation);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    private ProductVariation createProductVariationFromResultSet(ResultSet rs) throws SQLException {
+        int productVariationId = rs.getInt("id");
+        int productId = rs.getInt("product_id");
+        String type = rs.getString("type");
+        String value = rs.getString("value");
+        int stocks = rs.getInt("stocks");
+        double additionalPrice = rs.getDouble("additional_price");
+
+        ProductVariation productVariation = new ProductVariation(productId, type, value, additionalPrice, stocks);
+        productVariation.setId(productVariationId);
+        productVariation.setBarcode(rs.getString("barcode"));
+        return productVariation;
+    }
 }
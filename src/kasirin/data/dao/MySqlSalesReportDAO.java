@@ -0,0 +1,329 @@
+package kasirin.data.dao;
+
+import kasirin.data.model.SalesAggregate;
+import kasirin.data.model.Transaction;
+import kasirin.data.model.TransactionDetail;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class MySqlSalesReportDAO implements SalesReportDAO {
+    // Closed days come from the rollup; its primary key starts with (store_id, sales_date), so this is a range scan
+    private static final String ROLLUP_RANGE = "r.store_id = ? AND r.sales_date >= ? AND r.sales_date < ?";
+    // Today comes from the raw rows, half-open on transaction_time so the (store_id, transaction_time) index is used
+    private static final String RAW_RANGE = "t.store_id = ? AND t.transaction_time >= ? AND t.transaction_time < ?";
+
+    private static final String ITEMIZED_SALES = "SELECT s.product_id AS group_key, p.name, p.category, " +
+            "SUM(s.transaction_count) AS transaction_count, SUM(s.quantity) AS quantity, SUM(s.revenue) AS revenue " +
+            "FROM (" +
+            "SELECT r.product_id, r.transaction_count, r.quantity, r.revenue " +
+            "FROM daily_store_sales r " +
+            "WHERE " + ROLLUP_RANGE + " AND r.product_id <> 0 " +
+            "UNION ALL " +
+            "SELECT d.products_id, COUNT(DISTINCT d.transaction_id), SUM(d.quantity), SUM(d.quantity * d.price_per_unit) " +
+            "FROM Transactions t " +
+            "JOIN TransactionDetails d ON d.transaction_id = t.id " +
+            "WHERE " + RAW_RANGE + " " +
+            "GROUP BY d.products_id" +
+            ") s " +
+            "LEFT JOIN Products p ON p.id = s.product_id " +
+            "GROUP BY s.product_id, p.name, p.category ";
+
+    static final String ITEMIZED_SALES_QUERY = ITEMIZED_SALES + "ORDER BY revenue DESC";
+
+    // The database keeps only the best rows while sorting, so a store with a huge catalogue never ships it all
+    static final String TOP_PRODUCTS_QUERY = ITEMIZED_SALES + "ORDER BY quantity DESC, revenue DESC LIMIT ?";
+
+    static final String DAILY_SALES_QUERY = "SELECT s.sales_date AS group_key, " +
+            "SUM(s.transaction_count) AS transaction_count, SUM(s.revenue) AS revenue " +
+            "FROM (" +
+            "SELECT r.sales_date, r.transaction_count, r.revenue " +
+            "FROM daily_store_sales r " +
+            "WHERE " + ROLLUP_RANGE + " AND r.product_id = 0 " +
+            "UNION ALL " +
+            "SELECT DATE(t.transaction_time), COUNT(*), SUM(t.total) " +
+            "FROM Transactions t " +
+            "WHERE " + RAW_RANGE + " " +
+            "GROUP BY DATE(t.transaction_time)" +
+            ") s " +
+            "GROUP BY s.sales_date " +
+            "ORDER BY group_key";
+
+    static final String HOURLY_SALES_QUERY = "SELECT s.sales_hour AS group_key, " +
+            "SUM(s.transaction_count) AS transaction_count, SUM(s.revenue) AS revenue " +
+            "FROM (" +
+            "SELECT r.sales_hour, r.transaction_count, r.revenue " +
+            "FROM daily_store_sales r " +
+            "WHERE " + ROLLUP_RANGE + " AND r.product_id = 0 " +
+            "UNION ALL " +
+            "SELECT HOUR(t.transaction_time), COUNT(*), SUM(t.total) " +
+            "FROM Transactions t " +
+            "WHERE " + RAW_RANGE + " " +
+            "GROUP BY HOUR(t.transaction_time)" +
+            ") s " +
+            "GROUP BY s.sales_hour " +
+            "ORDER BY group_key";
+
+    static final String CASHIER_SALES_QUERY = "SELECT s.user_id AS group_key, u.name, " +
+            "SUM(s.transaction_count) AS transaction_count, SUM(s.revenue) AS revenue " +
+            "FROM (" +
+            "SELECT r.user_id, r.transaction_count, r.revenue " +
+            "FROM daily_store_sales r " +
+            "WHERE " + ROLLUP_RANGE + " AND r.product_id = 0 " +
+            "UNION ALL " +
+            "SELECT t.user_id, COUNT(*), SUM(t.total) " +
+            "FROM Transactions t " +
+            "WHERE " + RAW_RANGE + " " +
+            "GROUP BY t.user_id" +
+            ") s " +
+            "LEFT JOIN Users u ON u.id = s.user_id " +
+            "GROUP BY s.user_id, u.name " +
+            "ORDER BY revenue DESC";
+
+    static final String UPSERT_DAILY_SALES_QUERY = "INSERT INTO daily_store_sales " +
+            "(store_id, sales_date, sales_hour, product_id, user_id, transaction_count, quantity, revenue) " +
+            "VALUES (?,?,?,?,?,?,?,?) " +
+            "ON DUPLICATE KEY UPDATE transaction_count = transaction_count + VALUES(transaction_count), " +
+            "quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue)";
+
+    private static final String DELETE_DAILY_SALES_QUERY = "DELETE FROM daily_store_sales " +
+            "WHERE store_id = ? AND sales_date >= ? AND sales_date < ?";
+
+    private static final String REBUILD_TRANSACTION_ROWS_QUERY = "INSERT INTO daily_store_sales " +
+            "(store_id, sales_date, sales_hour, product_id, user_id, transaction_count, quantity, revenue) " +
+            "SELECT t.store_id, DATE(t.transaction_time), HOUR(t.transaction_time), 0, t.user_id, " +
+            "COUNT(*), COALESCE(SUM(q.quantity), 0), SUM(t.total) " +
+            "FROM Transactions t " +
+            "LEFT JOIN (" +
+            "SELECT d.transaction_id, SUM(d.quantity) AS quantity " +
+            "FROM TransactionDetails d " +
+            "JOIN Transactions t ON t.id = d.transaction_id " +
+            "WHERE " + RAW_RANGE + " " +
+            "GROUP BY d.transaction_id" +
+            ") q ON q.transaction_id = t.id " +
+            "WHERE " + RAW_RANGE + " " +
+            "GROUP BY t.store_id, DATE(t.transaction_time), HOUR(t.transaction_time), t.user_id";
+
+    private static final String REBUILD_PRODUCT_ROWS_QUERY = "INSERT INTO daily_store_sales " +
+            "(store_id, sales_date, sales_hour, product_id, user_id, transaction_count, quantity, revenue) " +
+            "SELECT t.store_id, DATE(t.transaction_time), HOUR(t.transaction_time), d.products_id, t.user_id, " +
+            "COUNT(DISTINCT t.id), SUM(d.quantity), SUM(d.quantity * d.price_per_unit) " +
+            "FROM Transactions t " +
+            "JOIN TransactionDetails d ON d.transaction_id = t.id " +
+            "WHERE " + RAW_RANGE + " " +
+            "GROUP BY t.store_id, DATE(t.transaction_time), HOUR(t.transaction_time), d.products_id, t.user_id";
+
+    @Override
+    public List<SalesAggregate> findItemizedSales(int storeId, LocalDate startDate, LocalDate endDate) {
+        List<SalesAggregate> result = new ArrayList<>();
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = prepareRange(conn, ITEMIZED_SALES_QUERY, storeId, startDate, endDate);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                SalesAggregate aggregate = createSalesAggregateFromResultSet(rs, true);
+                aggregate.setName(rs.getString("name"));
+                aggregate.setCategory(rs.getString("category"));
+                // weighted by quantity, so it comes out the same from the rollup and from raw rows
+                aggregate.setAveragePrice(aggregate.getQuantity() > 0 ? aggregate.getRevenue() / aggregate.getQuantity() : 0.0);
+                result.add(aggregate);
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<SalesAggregate> findTopProducts(int storeId, LocalDate startDate, LocalDate endDate, int limit) {
+        List<SalesAggregate> result = new ArrayList<>();
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = prepareRange(conn, TOP_PRODUCTS_QUERY, storeId, startDate, endDate)) {
+            stmt.setInt(7, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    SalesAggregate aggregate = createSalesAggregateFromResultSet(rs, true);
+                    aggregate.setName(rs.getString("name"));
+                    aggregate.setCategory(rs.getString("category"));
+                    result.add(aggregate);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<SalesAggregate> findDailySales(int storeId, LocalDate startDate, LocalDate endDate) {
+        List<SalesAggregate> result = new ArrayList<>();
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = prepareRange(conn, DAILY_SALES_QUERY, storeId, startDate, endDate);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                SalesAggregate aggregate = createSalesAggregateFromResultSet(rs, false);
+                aggregate.setGroupKey(rs.getDate("group_key").toLocalDate().toString());
+                result.add(aggregate);
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<SalesAggregate> findHourlySales(int storeId, LocalDate startDate, LocalDate endDate) {
+        List<SalesAggregate> result = new ArrayList<>();
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = prepareRange(conn, HOURLY_SALES_QUERY, storeId, startDate, endDate);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                result.add(createSalesAggregateFromResultSet(rs, false));
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public List<SalesAggregate> findCashierSales(int storeId, LocalDate startDate, LocalDate endDate) {
+        List<SalesAggregate> result = new ArrayList<>();
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = prepareRange(conn, CASHIER_SALES_QUERY, storeId, startDate, endDate);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                SalesAggregate aggregate = createSalesAggregateFromResultSet(rs, false);
+                aggregate.setName(rs.getString("name"));
+                result.add(aggregate);
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public int recordSale(Transaction transaction, List<TransactionDetail> details) {
+        int result = -1;
+
+        LocalDateTime time = transaction.getTimestamp().toLocalDateTime();
+        Date salesDate = Date.valueOf(time.toLocalDate());
+
+        // Sorted by product ID so concurrent checkouts lock the rollup rows in the same order
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        Map<Integer, Double> revenues = new TreeMap<>();
+        int totalQuantity = 0;
+        for (TransactionDetail detail : details) {
+            quantities.merge(detail.getProductID(), detail.getQuantity(), Integer::sum);
+            revenues.merge(detail.getProductID(), detail.getQuantity() * detail.getPricePerUnit(), Double::sum);
+            totalQuantity += detail.getQuantity();
+        }
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPSERT_DAILY_SALES_QUERY)) {
+            addRollupRow(stmt, transaction, salesDate, time.getHour(), 0, totalQuantity, transaction.getTotal());
+            for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                addRollupRow(stmt, transaction, salesDate, time.getHour(), entry.getKey(), entry.getValue(),
+                        revenues.get(entry.getKey()));
+            }
+
+            // a batched upsert reports driver-specific counts, so count the rows we sent instead
+            result = stmt.executeBatch().length;
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    @Override
+    public int rebuildDailySales(int storeId, LocalDate startDate, LocalDate endDate) {
+        int result = -1;
+
+        Date fromDate = Date.valueOf(startDate);
+        Date untilDate = Date.valueOf(endDate.plusDays(1));
+        Timestamp from = Timestamp.valueOf(startDate.atStartOfDay());
+        Timestamp until = Timestamp.valueOf(endDate.plusDays(1).atStartOfDay());
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement delete = conn.prepareStatement(DELETE_DAILY_SALES_QUERY);
+             PreparedStatement transactionRows = conn.prepareStatement(REBUILD_TRANSACTION_ROWS_QUERY);
+             PreparedStatement productRows = conn.prepareStatement(REBUILD_PRODUCT_ROWS_QUERY)) {
+            delete.setInt(1, storeId);
+            delete.setDate(2, fromDate);
+            delete.setDate(3, untilDate);
+            delete.executeUpdate();
+
+            for (int i = 0; i < 2; i++) {
+                transactionRows.setInt(i * 3 + 1, storeId);
+                transactionRows.setTimestamp(i * 3 + 2, from);
+                transactionRows.setTimestamp(i * 3 + 3, until);
+            }
+            productRows.setInt(1, storeId);
+            productRows.setTimestamp(2, from);
+            productRows.setTimestamp(3, until);
+
+            result = transactionRows.executeUpdate() + productRows.executeUpdate();
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Binds a date range split at the start of today: closed days go to the rollup, today goes to the raw rows.
+     */
+    private PreparedStatement prepareRange(Connection conn, String query, int storeId, LocalDate startDate,
+                                           LocalDate endDate) throws SQLException {
+        LocalDate today = LocalDate.now();
+        LocalDate untilDate = endDate.plusDays(1);
+        LocalDate rollupUntil = untilDate.isBefore(today) ? untilDate : today;
+        LocalDate rawFrom = startDate.isAfter(today) ? startDate : today;
+
+        PreparedStatement stmt = conn.prepareStatement(query);
+        stmt.setInt(1, storeId);
+        stmt.setDate(2, Date.valueOf(startDate));
+        stmt.setDate(3, Date.valueOf(rollupUntil));
+        stmt.setInt(4, storeId);
+        stmt.setTimestamp(5, Timestamp.valueOf(rawFrom.atStartOfDay()));
+        stmt.setTimestamp(6, Timestamp.valueOf(untilDate.atStartOfDay()));
+        return stmt;
+    }
+
+    private void addRollupRow(PreparedStatement stmt, Transaction transaction, Date salesDate, int salesHour,
+                              int productId, int quantity, double revenue) throws SQLException {
+        stmt.setInt(1, transaction.getStoreID());
+        stmt.setDate(2, salesDate);
+        stmt.setInt(3, salesHour);
+        stmt.setInt(4, productId);
+        stmt.setInt(5, transaction.getUserID());
+        stmt.setInt(6, 1);
+        stmt.setInt(7, quantity);
+        stmt.setDouble(8, revenue);
+        stmt.addBatch();
+    }
+
+    private SalesAggregate createSalesAggregateFromResultSet(ResultSet rs, boolean hasQuantity) throws SQLException {
+        String groupKey = rs.getString("group_key");
+        int transactionCount = rs.getInt("transaction_count");
+        int quantity = hasQuantity ? rs.getInt("quantity") : 0;
+        double revenue = rs.getDouble("revenue");
+
+        return new SalesAggregate(groupKey, transactionCount, quantity, revenue);
+    }
+}
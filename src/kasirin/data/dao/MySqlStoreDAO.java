@@ -6,23 +6,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class MySqlStoreDAO implements StoreDAO {
-    Connection conn;
-
-    public MySqlStoreDAO() {
-        conn = MySqlDAOFactory.getConnection();
-    }
 
     @Override
 
 
     public int insertStore(Store store) {
         int result = -1;
-        String query = "INSERT INTO Stores (name, type, address) VALUES (?, ?, ?)";
+        String query = "INSERT INTO Stores (name, type, address, low_stock_threshold) VALUES (?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, store.getName());
             pstmt.setString(2, store.getType());
             pstmt.setString(3, store.getAddress());
+            pstmt.setInt(4, store.getLowStockThreshold());
             pstmt.executeUpdate();
 
             try (ResultSet rs = pstmt.getGeneratedKeys()) {
@@ -43,7 +40,8 @@ public class MySqlStoreDAO implements StoreDAO {
         Store store = null;
         String query = "SELECT * FROM Stores WHERE id = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
@@ -59,13 +57,15 @@ public class MySqlStoreDAO implements StoreDAO {
     @Override
     public int updateStore(int id, Store store) {
         int result = -1;
-        String query = "UPDATE Stores SET name=?, type=?, address=? WHERE id=?";
+        String query = "UPDATE Stores SET name=?, type=?, address=?, low_stock_threshold=? WHERE id=?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, store.getName());
             pstmt.setString(2, store.getType());
             pstmt.setString(3, store.getAddress());
-            pstmt.setInt(4, id);
+            pstmt.setInt(4, store.getLowStockThreshold());
+            pstmt.setInt(5, id);
             result = pstmt.executeUpdate();
         } catch (SQLException e) {
             System.out.println("Error updating store: " + e.getMessage());
@@ -78,7 +78,8 @@ public class MySqlStoreDAO implements StoreDAO {
         int result = -1;
         String query = "DELETE FROM Stores WHERE id=?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, id);
             result = pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -91,7 +92,8 @@ public class MySqlStoreDAO implements StoreDAO {
         List<Store> stores = new ArrayList<>();
         String query = "SELECT * FROM Stores";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
@@ -109,7 +111,8 @@ public class MySqlStoreDAO implements StoreDAO {
                 "JOIN user_store_access usa ON s.id = usa.store_id " +
                 "WHERE usa.user_id = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, userId);
             ResultSet rs = pstmt.executeQuery();
 
@@ -125,7 +128,8 @@ public class MySqlStoreDAO implements StoreDAO {
     public boolean linkUserToStore(int userId, int storeId) {
         String query = "INSERT INTO user_store_access (user_id, store_id) VALUES (?, ?)";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, userId);
             pstmt.setInt(2, storeId);
             int result = pstmt.executeUpdate();
@@ -141,20 +145,16 @@ public class MySqlStoreDAO implements StoreDAO {
         String name = rs.getString("name");
         String type = rs.getString("type");
         String address = rs.getString("address");
+        int lowStockThreshold = rs.getInt("low_stock_threshold");
 
         Store store = new Store(name, type, address);
         store.setId(id);
+        store.setLowStockThreshold(lowStockThreshold);
         return store;
     }
 
+    /** Connections are borrowed from the pool per call, so there is nothing left to close. */
     public void closeConnection() {
-        try {
-            if (conn != null && !conn.isClosed()) {
-                conn.close();
-            }
-        } catch (SQLException e) {
-            System.out.println("Error closing connection: " + e.getMessage());
-        }
     }
 
 
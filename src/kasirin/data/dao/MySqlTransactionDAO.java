@@ -11,6 +11,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class MySqlTransactionDAO implements TransactionDAO {
+    // Date filters are half-open timestamp ranges (>= start of first day, < start of the day after the last day),
+    // so MySQL can range-scan the (store_id, transaction_time) index instead of evaluating DATE() on every row
+    static final String FIND_BY_STORE_AND_DATE_RANGE_QUERY = "SELECT * FROM Transactions " +
+            "WHERE store_id = ? AND transaction_time >= ? AND transaction_time < ? ORDER BY transaction_time DESC";
+    static final String REVENUE_BY_STORE_AND_DATE_RANGE_QUERY = "SELECT SUM(total) AS revenue FROM Transactions " +
+            "WHERE store_id = ? AND transaction_time >= ? AND transaction_time < ?";
+
     @Override
     public int insertTransaction(Transaction transaction) {
         int result = -1;
@@ -151,18 +158,28 @@ public class MySqlTransactionDAO implements TransactionDAO {
         return result;
     }
 
-    /**
-     * Get transactions by store and date range
-     */
-    public List<Transaction> findTransactionsByStoreAndDateRange(int storeId, java.sql.Date startDate, java.sql.Date endDate) {
+    @Override
+    public List<Transaction> findTransactionsByStore(int storeId, int afterId, int limit) {
         List<Transaction> result = new ArrayList<>();
 
-        String query = "SELECT * FROM Transactions WHERE store_id = ? AND DATE(transaction_time) BETWEEN ? AND ? ORDER BY transaction_time DESC";
+        // Keyset pagination on (transaction_time, id); the anchor row is resolved by primary key, so the page is a
+        // range scan on the (store_id, transaction_time) index
+        String query = afterId <= 0
+                ? "SELECT * FROM Transactions WHERE store_id = ? " +
+                  "ORDER BY transaction_time DESC, id DESC LIMIT ?"
+                : "SELECT t.* FROM Transactions t " +
+                  "CROSS JOIN (SELECT transaction_time, id FROM Transactions WHERE id = ?) anchor " +
+                  "WHERE t.store_id = ? AND (t.transaction_time < anchor.transaction_time " +
+                  "OR (t.transaction_time = anchor.transaction_time AND t.id < anchor.id)) " +
+                  "ORDER BY t.transaction_time DESC, t.id DESC LIMIT ?";
         try (Connection conn = MySqlDAOFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, storeId);
-            stmt.setDate(2, startDate);
-            stmt.setDate(3, endDate);
+            int index = 1;
+            if (afterId > 0) {
+                stmt.setInt(index++, afterId);
+            }
+            stmt.setInt(index++, storeId);
+            stmt.setInt(index, limit);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -183,44 +200,57 @@ public class MySqlTransactionDAO implements TransactionDAO {
     }
 
     /**
-     * Get daily revenue for a store
+     * Get transactions by store and date range (both days inclusive)
      */
-    public double getDailyRevenue(int storeId, java.sql.Date date) {
-        double revenue = 0.0;
+    public List<Transaction> findTransactionsByStoreAndDateRange(int storeId, java.sql.Date startDate, java.sql.Date endDate) {
+        List<Transaction> result = new ArrayList<>();
 
-        String query = "SELECT SUM(total) as daily_revenue FROM Transactions WHERE store_id = ? AND DATE(transaction_time) = ?";
         try (Connection conn = MySqlDAOFactory.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_STORE_AND_DATE_RANGE_QUERY)) {
             stmt.setInt(1, storeId);
-            stmt.setDate(2, date);
+            stmt.setTimestamp(2, startOfDay(startDate));
+            stmt.setTimestamp(3, startOfNextDay(endDate));
 
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    revenue = rs.getDouble("daily_revenue");
+                while (rs.next()) {
+                    int transactionId = rs.getInt("id");
+                    int userId = rs.getInt("user_id");
+                    Timestamp transactionTime = rs.getTimestamp("transaction_time");
+                    double total = rs.getDouble("total");
+
+                    Transaction transaction = new Transaction(storeId, userId, transactionTime, total);
+                    transaction.setId(transactionId);
+                    result.add(transaction);
                 }
             }
         } catch (Exception e) {
             System.out.println(e.getMessage());
         }
-        return revenue;
+        return result;
+    }
+
+    /**
+     * Get daily revenue for a store
+     */
+    public double getDailyRevenue(int storeId, java.sql.Date date) {
+        return getTotalRevenue(storeId, date, date);
     }
 
     /**
-     * Get total revenue for a store within date range
+     * Get total revenue for a store within date range (both days inclusive)
      */
     public double getTotalRevenue(int storeId, java.sql.Date startDate, java.sql.Date endDate) {
         double revenue = 0.0;
 
-        String query = "SELECT SUM(total) as total_revenue FROM Transactions WHERE store_id = ? AND DATE(transaction_time) BETWEEN ? AND ?";
         try (Connection conn = MySqlDAOFactory.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+             PreparedStatement stmt = conn.prepareStatement(REVENUE_BY_STORE_AND_DATE_RANGE_QUERY)) {
             stmt.setInt(1, storeId);
-            stmt.setDate(2, startDate);
-            stmt.setDate(3, endDate);
+            stmt.setTimestamp(2, startOfDay(startDate));
+            stmt.setTimestamp(3, startOfNextDay(endDate));
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    revenue = rs.getDouble("total_revenue");
+                    revenue = rs.getDouble("revenue");
                 }
             }
         } catch (Exception e) {
@@ -228,4 +258,18 @@ public class MySqlTransactionDAO implements TransactionDAO {
         }
         return revenue;
     }
+
+    /**
+     * Inclusive lower bound of a half-open day range
+     */
+    static Timestamp startOfDay(java.sql.Date date) {
+        return Timestamp.valueOf(date.toLocalDate().atStartOfDay());
+    }
+
+    /**
+     * Exclusive upper bound of a half-open day range
+     */
+    static Timestamp startOfNextDay(java.sql.Date date) {
+        return Timestamp.valueOf(date.toLocalDate().plusDays(1).atStartOfDay());
+    }
 }
@@ -1,5 +1,6 @@
 package kasirin.data.dao;
 
+import kasirin.Log;
 import kasirin.data.model.TransactionDetail;
 
 import java.sql.Connection;
@@ -14,34 +15,31 @@ import java.util.List;
  * Enhanced MySQL implementation of TransactionDetailDAO with improved error handling
  */
 public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
+    private static final Log LOG = Log.get(MySqlTransactionDetailDAO.class);
 
     @Override
     public int insertTransactionDetail(TransactionDetail transactionDetail) {
-        System.out.println("=== Inserting TransactionDetail ===");
-        System.out.println("TransactionID: " + transactionDetail.getTransactionId());
-        System.out.println("ProductID: " + transactionDetail.getProductID());
-        System.out.println("VariationID: " + transactionDetail.getVariationID());
-        System.out.println("Quantity: " + transactionDetail.getQuantity());
-        System.out.println("PricePerUnit: " + transactionDetail.getPricePerUnit());
+        LOG.trace("Inserting detail for transaction %s, product %s",
+                transactionDetail.getTransactionId(), transactionDetail.getProductID());
 
         // Validate input before insertion
         if (transactionDetail.getTransactionId() <= 0) {
-            System.err.println("ERROR: Invalid transaction ID: " + transactionDetail.getTransactionId());
+            LOG.error("Invalid transaction ID: %s", transactionDetail.getTransactionId());
             return -1;
         }
 
         if (transactionDetail.getProductID() <= 0) {
-            System.err.println("ERROR: Invalid product ID: " + transactionDetail.getProductID());
+            LOG.error("Invalid product ID: %s", transactionDetail.getProductID());
             return -1;
         }
 
         if (transactionDetail.getQuantity() <= 0) {
-            System.err.println("ERROR: Invalid quantity: " + transactionDetail.getQuantity());
+            LOG.error("Invalid quantity: %s", transactionDetail.getQuantity());
             return -1;
         }
 
         if (transactionDetail.getPricePerUnit() < 0) {
-            System.err.println("ERROR: Invalid price per unit: " + transactionDetail.getPricePerUnit());
+            LOG.error("Invalid price per unit: %s", transactionDetail.getPricePerUnit());
             return -1;
         }
 
@@ -55,91 +53,128 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
         try {
             conn = MySqlDAOFactory.getConnection();
             if (conn == null) {
-                System.err.println("ERROR: Failed to get database connection");
+                LOG.error("Failed to get database connection");
                 return -1;
             }
 
-            System.out.println("Database connection obtained");
-            System.out.println("Executing query: " + query);
-
             stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
 
-            // Set parameters with logging
             stmt.setInt(1, transactionDetail.getTransactionId());
-            System.out.println("Parameter 1 (transaction_id): " + transactionDetail.getTransactionId());
-
             stmt.setInt(2, transactionDetail.getProductID());
-            System.out.println("Parameter 2 (products_id): " + transactionDetail.getProductID());
 
             // Handle variation_id - set to NULL if 0 (no variation)
             if (transactionDetail.getVariationID() == 0) {
                 stmt.setNull(3, java.sql.Types.INTEGER);
-                System.out.println("Parameter 3 (variation_id): NULL (no variation)");
             } else {
                 stmt.setInt(3, transactionDetail.getVariationID());
-                System.out.println("Parameter 3 (variation_id): " + transactionDetail.getVariationID());
             }
 
             stmt.setInt(4, transactionDetail.getQuantity());
-            System.out.println("Parameter 4 (quantity): " + transactionDetail.getQuantity());
-
             stmt.setDouble(5, transactionDetail.getPricePerUnit());
-            System.out.println("Parameter 5 (price_per_unit): " + transactionDetail.getPricePerUnit());
 
             // Execute the insert
             int rowsAffected = stmt.executeUpdate();
-            System.out.println("Rows affected: " + rowsAffected);
 
             if (rowsAffected > 0) {
                 rs = stmt.getGeneratedKeys();
                 if (rs.next()) {
                     result = rs.getInt(1);
-                    System.out.println("Generated key (detail ID): " + result);
+                    LOG.trace("Generated key (detail ID): %s", result);
                 } else {
-                    System.err.println("ERROR: No generated keys returned");
+                    LOG.error("No generated keys returned");
                 }
             } else {
-                System.err.println("ERROR: No rows were inserted");
+                LOG.error("No rows were inserted");
             }
 
         } catch (SQLException e) {
-            System.err.println("SQL ERROR in insertTransactionDetail:");
-            System.err.println("Error Code: " + e.getErrorCode());
-            System.err.println("SQL State: " + e.getSQLState());
-            System.err.println("Message: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("SQL error in insertTransactionDetail [" + e.getErrorCode() + "/" + e.getSQLState() + "]", e);
 
             // Check for specific constraint violations
             if (e.getErrorCode() == 1452) { // Foreign key constraint fails
-                System.err.println("FOREIGN KEY CONSTRAINT VIOLATION:");
                 if (e.getMessage().contains("transaction_id")) {
-                    System.err.println("- Transaction ID " + transactionDetail.getTransactionId() + " does not exist in Transactions table");
+                    LOG.error("Transaction ID %s does not exist in Transactions table", transactionDetail.getTransactionId());
                 }
                 if (e.getMessage().contains("products_id")) {
-                    System.err.println("- Product ID " + transactionDetail.getProductID() + " does not exist in Products table");
+                    LOG.error("Product ID %s does not exist in Products table", transactionDetail.getProductID());
                 }
                 if (e.getMessage().contains("variation_id")) {
-                    System.err.println("- Variation ID " + transactionDetail.getVariationID() + " does not exist in ProductsVariations table");
+                    LOG.error("Variation ID %s does not exist in ProductsVariations table", transactionDetail.getVariationID());
                 }
             }
 
         } catch (Exception e) {
-            System.err.println("UNEXPECTED ERROR in insertTransactionDetail: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Unexpected error in insertTransactionDetail", e);
         } finally {
             // Clean up resources
             try {
                 if (rs != null) rs.close();
                 if (stmt != null) stmt.close();
                 if (conn != null) conn.close();
-                System.out.println("Database resources cleaned up");
             } catch (SQLException e) {
-                System.err.println("Error closing database resources: " + e.getMessage());
+                LOG.error("Error closing database resources: %s", e.getMessage());
             }
         }
 
-        System.out.println("Insert result: " + result);
-        System.out.println("=== End TransactionDetail Insert ===");
+        return result;
+    }
+
+    @Override
+    public int insertTransactionDetails(List<TransactionDetail> transactionDetails) {
+        if (transactionDetails == null || transactionDetails.isEmpty()) {
+            return 0;
+        }
+
+        for (TransactionDetail transactionDetail : transactionDetails) {
+            if (transactionDetail.getTransactionId() <= 0 || transactionDetail.getProductID() <= 0
+                    || transactionDetail.getQuantity() <= 0 || transactionDetail.getPricePerUnit() < 0) {
+                LOG.error("Invalid transaction detail in batch: transactionId=" + transactionDetail.getTransactionId()
+                        + ", productId=" + transactionDetail.getProductID() + ", quantity=" + transactionDetail.getQuantity()
+                        + ", pricePerUnit=" + transactionDetail.getPricePerUnit());
+                return -1;
+            }
+        }
+
+        int result = -1;
+        // rewriteBatchedStatements in the JDBC URL turns the batch into one multi-row INSERT
+        String query = "INSERT INTO TransactionDetails (transaction_id, products_id, variation_id, quantity, price_per_unit) VALUES (?,?,?,?,?)";
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+
+            for (TransactionDetail transactionDetail : transactionDetails) {
+                stmt.setInt(1, transactionDetail.getTransactionId());
+                stmt.setInt(2, transactionDetail.getProductID());
+                // Handle variation_id - set to NULL if 0 (no variation)
+                if (transactionDetail.getVariationID() == 0) {
+                    stmt.setNull(3, java.sql.Types.INTEGER);
+                } else {
+                    stmt.setInt(3, transactionDetail.getVariationID());
+                }
+                stmt.setInt(4, transactionDetail.getQuantity());
+                stmt.setDouble(5, transactionDetail.getPricePerUnit());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            // Generated keys come back in the same order as the batch
+            int index = 0;
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                while (rs.next() && index < transactionDetails.size()) {
+                    transactionDetails.get(index++).setId(rs.getInt(1));
+                }
+            }
+
+            if (index == transactionDetails.size()) {
+                result = index;
+            } else {
+                LOG.error("Expected %s generated keys, got %s", transactionDetails.size(), index);
+            }
+        } catch (SQLException e) {
+            LOG.error("SQL error in insertTransactionDetails [" + e.getErrorCode() + "/" + e.getSQLState() + "]", e);
+        } catch (Exception e) {
+            LOG.error("Unexpected error in insertTransactionDetails", e);
+        }
         return result;
     }
 
@@ -168,8 +203,7 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error in findTransactionDetail: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error in findTransactionDetail", e);
         }
         return transactionDetail;
     }
@@ -190,11 +224,10 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
             stmt.setInt(6, id);
 
             result = stmt.executeUpdate();
-            System.out.println("Updated TransactionDetail ID " + id + ", rows affected: " + result);
+            LOG.debug("Updated TransactionDetail ID %s, rows affected: %s", id, result);
 
         } catch (Exception e) {
-            System.err.println("Error in updateTransactionDetail: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error in updateTransactionDetail", e);
         }
         return result;
     }
@@ -209,11 +242,10 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
 
             stmt.setInt(1, id);
             result = stmt.executeUpdate();
-            System.out.println("Deleted TransactionDetail ID " + id + ", rows affected: " + result);
+            LOG.debug("Deleted TransactionDetail ID %s, rows affected: %s", id, result);
 
         } catch (Exception e) {
-            System.err.println("Error in deleteTransactionDetail: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error in deleteTransactionDetail", e);
         }
         return result;
     }
@@ -241,11 +273,10 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
                 result.add(transactionDetail);
             }
 
-            System.out.println("Retrieved " + result.size() + " transaction details");
+            LOG.debug("Retrieved %s transaction details", result.size());
 
         } catch (Exception e) {
-            System.err.println("Error in findAllTransactionDetails: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error in findAllTransactionDetails", e);
         }
         return result;
     }
@@ -257,8 +288,6 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
         List<TransactionDetail> result = new ArrayList<>();
         String query = "SELECT * FROM TransactionDetails WHERE transaction_id = ? ORDER BY id";
 
-        System.out.println("Finding transaction details for transaction ID: " + transactionId);
-
         try (Connection conn = MySqlDAOFactory.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
@@ -277,16 +306,49 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
                     transactionDetail.setTransactionId(transactionId);
                     result.add(transactionDetail);
 
-                    System.out.println("Found detail: ID=" + detailId + ", ProductID=" + productId +
-                            ", VariationID=" + variationId + ", Qty=" + quantity + ", Price=" + pricePerUnit);
                 }
             }
 
-            System.out.println("Found " + result.size() + " details for transaction " + transactionId);
+            LOG.debug("Found %s details for transaction %s", result.size(), transactionId);
+
+        } catch (Exception e) {
+            LOG.error("Error in findDetailsByTransactionId", e);
+        }
+        return result;
+    }
+
+    @Override
+    public List<TransactionDetail> findDetailsByTransaction(int storeId, int transactionId, int afterId, int limit) {
+        List<TransactionDetail> result = new ArrayList<>();
+        String query = "SELECT d.* FROM TransactionDetails d " +
+                "JOIN Transactions t ON t.id = d.transaction_id " +
+                "WHERE d.transaction_id = ? AND t.store_id = ? AND d.id > ? " +
+                "ORDER BY d.id LIMIT ?";
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            stmt.setInt(1, transactionId);
+            stmt.setInt(2, storeId);
+            stmt.setInt(3, afterId);
+            stmt.setInt(4, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int detailId = rs.getInt("id");
+                    int productId = rs.getInt("products_id");
+                    int variationId = rs.getInt("variation_id");
+                    int quantity = rs.getInt("quantity");
+                    double pricePerUnit = rs.getDouble("price_per_unit");
 
+                    TransactionDetail transactionDetail = new TransactionDetail(productId, variationId, quantity, pricePerUnit);
+                    transactionDetail.setId(detailId);
+                    transactionDetail.setTransactionId(transactionId);
+                    result.add(transactionDetail);
+                }
+            }
         } catch (Exception e) {
-            System.err.println("Error in findDetailsByTransactionId: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error in findDetailsByTransaction: %s", e.getMessage());
         }
         return result;
     }
@@ -305,12 +367,11 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     int count = rs.getInt(1);
-                    System.out.println("Transaction " + transactionId + " exists: " + (count > 0));
                     return count > 0;
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error checking if transaction exists: " + e.getMessage());
+            LOG.error("Error checking if transaction exists: %s", e.getMessage());
         }
 
         return false;
@@ -330,12 +391,11 @@ public class MySqlTransactionDetailDAO implements TransactionDetailDAO {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     int count = rs.getInt(1);
-                    System.out.println("Product " + productId + " exists: " + (count > 0));
                     return count > 0;
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error checking if product exists: " + e.getMessage());
+            LOG.error("Error checking if product exists: %s", e.getMessage());
         }
 
         return false;
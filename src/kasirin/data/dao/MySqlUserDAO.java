@@ -10,18 +10,13 @@ import java.util.List;
 
 public class MySqlUserDAO implements UserDAO {
 
-    Connection conn;
-
-    public MySqlUserDAO() {
-        conn = MySqlDAOFactory.getConnection();
-    }
-
     @Override
     public int insertUser(User user) {
         int result = -1;
         String query = "INSERT INTO Users (name, username, password, role) VALUES (?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, user.getName());
             pstmt.setString(2, user.getUsername());
             pstmt.setString(3, user.getPassword());
@@ -44,7 +39,8 @@ public class MySqlUserDAO implements UserDAO {
         User user = null;
         String query = "SELECT * FROM Users WHERE id = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
@@ -62,7 +58,8 @@ public class MySqlUserDAO implements UserDAO {
         int result = -1;
         String query = "UPDATE Users SET name=?, username=?, password=?, role=? WHERE id=?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, user.getName());
             pstmt.setString(2, user.getUsername());
             pstmt.setString(3, user.getPassword());
@@ -80,7 +77,8 @@ public class MySqlUserDAO implements UserDAO {
         int result = -1;
         String query = "DELETE FROM Users WHERE id=?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, id);
             result = pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -93,7 +91,8 @@ public class MySqlUserDAO implements UserDAO {
         User user = null;
         String query = "SELECT * FROM Users WHERE username = ? AND password = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, username);
             pstmt.setString(2, password);
             ResultSet rs = pstmt.executeQuery();
@@ -111,7 +110,8 @@ public class MySqlUserDAO implements UserDAO {
         User user = null;
         String query = "SELECT * FROM Users WHERE username = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
 
@@ -128,7 +128,8 @@ public class MySqlUserDAO implements UserDAO {
         List<User> users = new ArrayList<>();
         String query = "SELECT * FROM Users";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
@@ -143,7 +144,8 @@ public class MySqlUserDAO implements UserDAO {
     public boolean isUsernameExists(String username) {
         String query = "SELECT COUNT(*) FROM Users WHERE username = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
 
@@ -169,18 +171,57 @@ public class MySqlUserDAO implements UserDAO {
         return user;
     }
 
+    /** Connections are borrowed from the pool per call, so there is nothing left to close. */
     public void closeConnection() {
-        try {
-            if (conn != null && !conn.isClosed()) {
-                conn.close();
-            }
-        } catch (SQLException e) {
-            System.out.println("Error closing connection: " + e.getMessage());
-        }
     }
 
     @Override
     public List<User> findAllUsers() {
         return List.of();
     }
+
+    @Override
+    public List<User> findUsersByStore(int storeId, Role roleFilter, String nameLike, int page, int pageSize) {
+        List<User> users = new ArrayList<>();
+        boolean searching = nameLike != null && !nameLike.trim().isEmpty();
+
+        // The access rows of the store are found through (store_id, user_id), a prefix LIKE seeks the name and
+        // username indexes, so the cost doesn't grow with the number of users of the whole chain
+        String query = "SELECT u.* FROM user_store_access usa " +
+                "JOIN Users u ON u.id = usa.user_id " +
+                "WHERE usa.store_id = ?" +
+                (roleFilter != null ? " AND u.role = ?" : "") +
+                (searching ? " AND (u.name LIKE ? ESCAPE '!' OR u.username LIKE ? ESCAPE '!')" : "") +
+                " ORDER BY u.name, u.id LIMIT ? OFFSET ?";
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            int index = 1;
+            pstmt.setInt(index++, storeId);
+            if (roleFilter != null) {
+                pstmt.setString(index++, roleFilter.getValue());
+            }
+            if (searching) {
+                String prefix = escapeLike(nameLike.trim()) + "%";
+                pstmt.setString(index++, prefix);
+                pstmt.setString(index++, prefix);
+            }
+            pstmt.setInt(index++, pageSize);
+            pstmt.setInt(index, Math.max(0, page) * pageSize);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(createUserFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println("Error finding users by store: " + e.getMessage());
+        }
+        return users;
+    }
+
+    /** Escapes the LIKE wildcards typed by the user, so they are searched for literally. */
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
 }
@@ -37,4 +37,39 @@ public interface ProductDAO {
     ///
     /// @return a list of "Product" transfer objects
     public List<Product> findAllProducts();
+
+    /// Finds all products with the given IDs using a single query.
+    ///
+    /// @param ids product IDs to search
+    /// @return a list of "Product" transfer objects that were found, in no particular order
+    public List<Product> findProductsByIds(List<Integer> ids);
+
+    /// Gets the products of a single store.
+    ///
+    /// @param storeId store ID to search products for
+    /// @return a list of "Product" transfer objects ordered by product ID
+    public List<Product> findProductsByStore(int storeId);
+
+    /// Gets one page of the products of a single store.
+    ///
+    /// @param storeId   store ID to search products for
+    /// @param sortBy    column to sort by, one of {@code id}, {@code name}, {@code category} or {@code base_price}
+    /// @param ascending whether to sort ascending or descending
+    /// @param offset    number of products to skip
+    /// @param limit     maximum number of products to return
+    /// @return a list of "Product" transfer objects, empty on error
+    public List<Product> findProductsByStore(int storeId, String sortBy, boolean ascending, int offset, int limit);
+
+    /// Gets the products of a single store together with their variations, using a single query.
+    ///
+    /// @param storeId store ID to search products for
+    /// @return a list of "Product" transfer objects ordered by product ID, each with its variations ordered by
+    /// variation ID
+    public List<Product> findProductsWithVariationsByStore(int storeId);
+
+    /// Counts the products of a store without loading them.
+    ///
+    /// @param storeId store ID to count products for
+    /// @return number of products or a {@code -1} on error
+    public int countProductsByStore(int storeId);
 }
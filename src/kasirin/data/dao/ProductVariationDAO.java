@@ -1,5 +1,6 @@
 package kasirin.data.dao;
 
+import kasirin.data.model.LowStockVariation;
 import kasirin.data.model.ProductVariation;
 
 import java.util.List;
@@ -43,4 +44,34 @@ public interface ProductVariationDAO {
     /// @param productId product ID to search variations for
     /// @return a list of "Product Variation" transfer objects for the specified product
     public List<ProductVariation> findVariationsByProductId(int productId);
+
+    /// Finds all product variations for several products using a single query.
+    ///
+    /// @param productIds product IDs to search variations for
+    /// @return a list of "Product Variation" transfer objects ordered by product ID, then variation ID
+    public List<ProductVariation> findVariationsByProductIds(List<Integer> productIds);
+
+    /// Reduces the stock of several product variations in a single batch. Each line is only applied if the variation
+    /// still has enough stock, so concurrent sales can never drive a stock below zero.
+    ///
+    /// @param variationIds product variation IDs to reduce the stock of
+    /// @param quantities   quantity to subtract for each variation ID at the same index
+    /// @return number of affected rows for each line, where {@code 0} means insufficient stock, or {@code -1} for
+    /// every line on error
+    public int[] reduceStocks(int[] variationIds, int[] quantities);
+
+    /// Counts the product variations of a store whose stock is below a threshold.
+    ///
+    /// @param storeId   store ID to count variations for
+    /// @param threshold stock level below which a variation counts as low
+    /// @return number of low-stock variations or a {@code -1} on error
+    public int countLowStockVariations(int storeId, int threshold);
+
+    /// Finds the product variations of a store whose stock is below a threshold, with their product name joined in.
+    ///
+    /// @param storeId   store ID to search variations for
+    /// @param threshold stock level below which a variation counts as low
+    /// @param limit     maximum number of variations to return
+    /// @return a list of "Low Stock Variation" transfer objects, lowest stock first
+    public List<LowStockVariation> findLowStockVariations(int storeId, int threshold, int limit);
 }
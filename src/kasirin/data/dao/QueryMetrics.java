@@ -0,0 +1,300 @@
+package kasirin.data.dao;
+
+import kasirin.LatencyHistogram;
+import kasirin.Log;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Times the SQL that the DAOs run through the connections of [MySqlDAOFactory].
+///
+/// <p>[#wrap(Connection)] returns a proxy whose prepared statements record, per SQL template, how often they ran,
+/// how long they took and how many rows they fetched or changed. A statement slower than the threshold is written to
+/// the log as a slow query; bind values are never logged, only their types, because they hold customer data and
+/// passwords. The threshold is set with the `kasirin.sql.slowMillis` system property, 200 ms by default.</p>
+///
+/// @author yamaym
+public class QueryMetrics {
+    public static final long DEFAULT_SLOW_QUERY_MILLIS = 200;
+    private static final int RECENT_SLOW_QUERIES = 50;
+    private static final Log SLOW_QUERY_LOG = Log.get(SlowQuery.class);
+
+    private static final QueryMetrics instance =
+            new QueryMetrics(Long.getLong("kasirin.sql.slowMillis", DEFAULT_SLOW_QUERY_MILLIS));
+
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, String> templates = new ConcurrentHashMap<>(); // SQL as written to its template
+    private final Deque<String> recentSlowQueries = new ArrayDeque<>();
+    private volatile long slowQueryNanos;
+
+    QueryMetrics(long slowQueryMillis) {
+        setSlowQueryMillis(slowQueryMillis);
+    }
+
+    /// Gets the query metrics shared by every MySQL DAO.
+    ///
+    /// @return "QueryMetrics" object
+    public static QueryMetrics getInstance() {
+        return instance;
+    }
+
+    /// Wraps a connection so the statements it prepares are timed. Closing the wrapper closes the connection.
+    ///
+    /// @param connection connection to wrap, may be {@code null}
+    /// @return timed connection or {@code null} if the connection was {@code null}
+    public Connection wrap(Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                        return new TimedStatement(statement, (String) args[0]).proxy;
+                    }
+                    return result;
+                });
+    }
+
+    /// Gets the statistics of every SQL template seen so far, the most expensive in total first.
+    ///
+    /// @return a list of "QueryStats" objects
+    public List<QueryStats> getStats() {
+        List<QueryStats> result = new ArrayList<>(stats.values());
+        result.sort(Comparator.comparingLong(QueryStats::getTotalMicros).reversed());
+        return result;
+    }
+
+    /// Gets the most recent slow queries, newest first, in the form they were logged.
+    ///
+    /// @return a list of slow-query descriptions
+    public List<String> getRecentSlowQueries() {
+        synchronized (recentSlowQueries) {
+            return new ArrayList<>(recentSlowQueries);
+        }
+    }
+
+    public long getSlowQueryMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryNanos);
+    }
+
+    public void setSlowQueryMillis(long slowQueryMillis) {
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+    }
+
+    /// Drops every statistic and slow query recorded so far.
+    public void reset() {
+        stats.clear();
+        synchronized (recentSlowQueries) {
+            recentSlowQueries.clear();
+        }
+    }
+
+    /// Renders the statistics as a plain-text table, latencies in milliseconds.
+    ///
+    /// @return report text
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%8s %8s %9s %9s %9s %9s  %s%n",
+                "calls", "rows", "total", "mean", "p99", "max", "SQL (ms, slowest in total first)"));
+        for (QueryStats query : getStats()) {
+            LatencyHistogram latency = query.latency;
+            report.append(String.format("%8d %8d %9.1f %9.2f %9.2f %9.2f  %s%n",
+                    query.getCalls(), query.getRows(), query.getTotalMicros() / 1_000.0,
+                    latency.getMeanMicros() / 1_000.0, latency.getPercentileMicros(99) / 1_000.0,
+                    latency.getMaxMicros() / 1_000.0, query.getSql()));
+        }
+
+        List<String> slowQueries = getRecentSlowQueries();
+        report.append('\n').append("Slow queries (over ").append(getSlowQueryMillis()).append(" ms, newest first): ")
+                .append(slowQueries.size()).append('\n');
+        for (String slowQuery : slowQueries) {
+            report.append(slowQuery).append('\n');
+        }
+        return report.toString();
+    }
+
+    private void record(String sql, long nanos, long rows, String[] bindTypes, int bindCount, int batchSize) {
+        QueryStats query = stats.computeIfAbsent(sql, QueryStats::new);
+        query.calls.increment();
+        query.rows.add(rows);
+        query.latency.recordNanos(nanos);
+
+        if (nanos >= slowQueryNanos) {
+            List<String> binds = new ArrayList<>(bindCount);
+            for (int i = 0; i < bindCount; i++) {
+                binds.add(bindTypes[i] != null ? bindTypes[i].substring(3) : "?");
+            }
+            String entry = String.format("%.1f ms%s binds=%s %s", nanos / 1_000_000.0,
+                    batchSize > 0 ? " batch=" + batchSize : "", binds, sql);
+            synchronized (recentSlowQueries) {
+                recentSlowQueries.addFirst(entry);
+                if (recentSlowQueries.size() > RECENT_SLOW_QUERIES) {
+                    recentSlowQueries.removeLast();
+                }
+            }
+            SLOW_QUERY_LOG.warn(entry);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Collapses whitespace so the same query written on several lines or with different indents counts once
+    private static String template(String sql) {
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+
+    /// Call count, row count and latency of one SQL template.
+    public static class QueryStats {
+        private final String sql;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private QueryStats(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() { return sql; }
+        public long getCalls() { return calls.sum(); }
+        /// Rows fetched by queries or changed by updates
+        public long getRows() { return rows.sum(); }
+        public long getTotalMicros() { return latency.getTotalMicros(); }
+        public LatencyHistogram getLatency() { return latency; }
+    }
+
+    /// One prepared statement. Bind values are never kept, only the name of the setter, e.g. `setString`.
+    private class TimedStatement {
+        private final PreparedStatement statement;
+        private final String sql;
+        private final PreparedStatement proxy;
+        private String[] bindTypes = new String[8];
+        private int bindCount;
+        private int batchSize;
+
+        private TimedStatement(PreparedStatement statement, String sql) {
+            this.statement = statement;
+            this.sql = templates.computeIfAbsent(sql, QueryMetrics::template);
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> invoke(method, args));
+        }
+
+        private Object invoke(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "clearParameters":
+                    bindCount = 0;
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "executeQuery":
+                case "execute":
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    if (args == null) {
+                        return timed(method);
+                    }
+                    break;
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        bind(index, name);
+                    }
+            }
+            return QueryMetrics.invoke(statement, method, args);
+        }
+
+        private Object timed(Method method) throws Throwable {
+            long start = System.nanoTime();
+            Object result = QueryMetrics.invoke(statement, method, null);
+            long nanos = System.nanoTime() - start;
+
+            long rows = 0;
+            if (result instanceof ResultSet resultSet) {
+                // Connector/J reads the whole result on execute, so counting the rows as they are read is enough
+                QueryStats query = stats.computeIfAbsent(sql, QueryStats::new);
+                result = countRows(resultSet, query.rows);
+            } else if (result instanceof Number count) {
+                rows = Math.max(0, count.longValue());
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(0, count);
+                }
+            }
+
+            record(sql, nanos, rows, bindTypes, bindCount, batchSize);
+            batchSize = 0;
+            return result;
+        }
+
+        private void bind(int index, String setter) {
+            if (index < 1 || index > 1_000) {
+                return;
+            }
+            if (index > bindTypes.length) {
+                bindTypes = Arrays.copyOf(bindTypes, Math.max(index, bindTypes.length * 2));
+            }
+            bindTypes[index - 1] = setter;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        private ResultSet countRows(ResultSet resultSet, LongAdder rows) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "getStatement":
+                                return this.proxy;
+                        }
+                        Object result = QueryMetrics.invoke(resultSet, method, args);
+                        if (result == Boolean.TRUE && method.getName().equals("next")) {
+                            rows.increment();
+                        }
+                        return result;
+                    });
+        }
+    }
+
+    /// Name under which slow queries are logged.
+    private static final class SlowQuery {
+    }
+}
@@ -0,0 +1,74 @@
+package kasirin.data.dao;
+
+import kasirin.data.model.SalesAggregate;
+import kasirin.data.model.Transaction;
+import kasirin.data.model.TransactionDetail;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/// Provides aggregate queries over "Transaction" and "Transaction Detail" entities in datasource. Every method
+/// groups in the datasource, so the result size depends on the number of groups, not on the number of transactions
+/// in the date range.
+///
+/// <p>Closed days are read from the `daily_store_sales` rollup, which is kept up to date by [#recordSale] at checkout.
+/// Only today is aggregated from the raw transactions.</p>
+public interface SalesReportDAO {
+    /// Aggregates sales per product, with product name and category joined in.
+    ///
+    /// @param storeId   store ID to aggregate sales for
+    /// @param startDate first day of the range, inclusive
+    /// @param endDate   last day of the range, inclusive
+    /// @return a list of "Sales Aggregate" transfer objects keyed by product ID, highest revenue first
+    public List<SalesAggregate> findItemizedSales(int storeId, LocalDate startDate, LocalDate endDate);
+
+    /// Finds the best selling products by quantity sold, without aggregating the whole catalogue in the client.
+    ///
+    /// @param storeId   store ID to aggregate sales for
+    /// @param startDate first day of the range, inclusive
+    /// @param endDate   last day of the range, inclusive
+    /// @param limit     maximum number of products to return
+    /// @return a list of "Sales Aggregate" transfer objects keyed by product ID, most sold first
+    public List<SalesAggregate> findTopProducts(int storeId, LocalDate startDate, LocalDate endDate, int limit);
+
+    /// Aggregates sales per day.
+    ///
+    /// @param storeId   store ID to aggregate sales for
+    /// @param startDate first day of the range, inclusive
+    /// @param endDate   last day of the range, inclusive
+    /// @return a list of "Sales Aggregate" transfer objects keyed by ISO date, oldest first
+    public List<SalesAggregate> findDailySales(int storeId, LocalDate startDate, LocalDate endDate);
+
+    /// Aggregates sales per hour of the day.
+    ///
+    /// @param storeId   store ID to aggregate sales for
+    /// @param startDate first day of the range, inclusive
+    /// @param endDate   last day of the range, inclusive
+    /// @return a list of "Sales Aggregate" transfer objects keyed by hour (0-23)
+    public List<SalesAggregate> findHourlySales(int storeId, LocalDate startDate, LocalDate endDate);
+
+    /// Aggregates sales per cashier, with the cashier name joined in.
+    ///
+    /// @param storeId   store ID to aggregate sales for
+    /// @param startDate first day of the range, inclusive
+    /// @param endDate   last day of the range, inclusive
+    /// @return a list of "Sales Aggregate" transfer objects keyed by user ID, highest revenue first
+    public List<SalesAggregate> findCashierSales(int storeId, LocalDate startDate, LocalDate endDate);
+
+    /// Adds a completed sale to the daily sales rollup. Must run in the same unit of work as the checkout, so the
+    /// rollup never counts a sale that was rolled back.
+    ///
+    /// @param transaction the inserted "Transaction" transfer object
+    /// @param details     the inserted "Transaction Detail" transfer objects of the transaction
+    /// @return number of rollup rows touched or a {@code -1} on error
+    public int recordSale(Transaction transaction, List<TransactionDetail> details);
+
+    /// Recomputes the daily sales rollup of a store from the raw transactions, e.g. after transactions were edited
+    /// or to backfill history.
+    ///
+    /// @param storeId   store ID to rebuild the rollup for
+    /// @param startDate first day of the range, inclusive
+    /// @param endDate   last day of the range, inclusive
+    /// @return number of rollup rows written or a {@code -1} on error
+    public int rebuildDailySales(int storeId, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,115 @@
+package kasirin.data.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/// Applies the SQL migration scripts bundled under `kasirin/data/sql` to the database, each one exactly once.
+///
+/// <p>Applied scripts are recorded in the `schema_migrations` table. New scripts must be appended to
+/// [#MIGRATIONS]; never edit a script that was already released, add a new one instead.</p>
+public class SchemaMigrator {
+    /// Migration scripts in the order they have to be applied.
+    static final String[] MIGRATIONS = {
+            "000_baseline.sql",
+            "001_transaction_indexes.sql",
+            "002_daily_store_sales.sql",
+            "003_low_stock.sql",
+            "004_products_store.sql",
+            "005_barcodes.sql",
+            "006_user_store_search.sql",
+    };
+
+    private static final String RESOURCE_DIR = "/kasirin/data/sql/";
+
+    /// Applies every pending migration script. A failing script stops the run, so later scripts never run on top
+    /// of a half-migrated schema; it is retried the next time the application starts.
+    ///
+    /// @param pool connection pool of the database to migrate
+    /// @return number of applied scripts or a {@code -1} on error
+    public static int migrate(ConnectionPool pool) {
+        int applied = 0;
+
+        try (Connection conn = pool.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                        "version VARCHAR(100) PRIMARY KEY, " +
+                        "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+            }
+
+            Set<String> done = new HashSet<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT version FROM schema_migrations")) {
+                while (rs.next()) {
+                    done.add(rs.getString("version"));
+                }
+            }
+
+            for (String migration : MIGRATIONS) {
+                if (done.contains(migration)) {
+                    continue;
+                }
+
+                // MySQL commits DDL implicitly, so each statement is applied on its own
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : readStatements(migration)) {
+                        stmt.execute(sql);
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO schema_migrations (version) VALUES (?)")) {
+                    stmt.setString(1, migration);
+                    stmt.executeUpdate();
+                }
+
+                System.out.println("Applied schema migration " + migration);
+                applied++;
+            }
+        } catch (Exception e) {
+            System.out.println("Schema migration failed: " + e.getMessage());
+            return -1;
+        }
+        return applied;
+    }
+
+    /// Reads a migration script and splits it into single statements. Lines starting with `--` are comments.
+    ///
+    /// @param migration script file name
+    /// @return a list of SQL statements
+    static List<String> readStatements(String migration) throws IOException, SQLException {
+        String script;
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(RESOURCE_DIR + migration)) {
+            if (in == null) {
+                throw new SQLException("Migration script not found: " + migration);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
@@ -37,4 +37,13 @@ public interface TransactionDAO {
     ///
     /// @return a list of "Transaction" transfer objects.
     public List<Transaction> findAllTransactions();
+
+    /// Finds one page of a store's transactions, newest first. Pages are chained by passing the ID of the last
+    /// transaction of the previous page, so every page costs the same no matter how deep the history goes.
+    ///
+    /// @param storeId store ID to search transactions for
+    /// @param afterId ID of the last transaction of the previous page or {@code 0} for the first page
+    /// @param limit   maximum number of transactions in the page
+    /// @return a list of "Transaction" transfer objects
+    public List<Transaction> findTransactionsByStore(int storeId, int afterId, int limit);
 }
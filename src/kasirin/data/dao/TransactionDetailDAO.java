@@ -14,6 +14,13 @@ public interface TransactionDetailDAO {
     /// @return newly created transaction detail ID or a {@code -1} on error
     public int insertTransactionDetail(TransactionDetail transactionDetail);
 
+    /// Inserts a list of new transaction details to datasource in a single batch. The newly created IDs are set on
+    /// the given transfer objects.
+    ///
+    /// @param transactionDetails list of "Transaction Detail" transfer object
+    /// @return number of inserted transaction details or a {@code -1} on error
+    public int insertTransactionDetails(List<TransactionDetail> transactionDetails);
+
     /// Finds a transaction detail based on criteria.
     ///
     /// @param id transaction detail ID to search
@@ -37,4 +44,13 @@ public interface TransactionDetailDAO {
     ///
     /// @return a list of "Transaction Detail" transfer object
     public List<TransactionDetail> findAllTransactionDetails();
+
+    /// Finds one page of the details of a store's transaction, in insertion order.
+    ///
+    /// @param storeId       store ID the transaction belongs to
+    /// @param transactionId transaction ID to search details for
+    /// @param afterId       ID of the last detail of the previous page or {@code 0} for the first page
+    /// @param limit         maximum number of details in the page
+    /// @return a list of "Transaction Detail" transfer objects
+    public List<TransactionDetail> findDetailsByTransaction(int storeId, int transactionId, int afterId, int limit);
 }
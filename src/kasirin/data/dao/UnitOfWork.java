@@ -0,0 +1,167 @@
+package kasirin.data.dao;
+
+import kasirin.Log;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/// Groups several DAO calls into one database transaction that runs on a single connection.
+///
+/// <p>While a unit of work is open, every connection the DAOs borrow on the same thread from the same pool is the
+/// unit's own connection, so the DAOs join the transaction without any change to their method signatures. Closing
+/// the DAO's connection handle does nothing; the connection goes back to the pool when the unit of work is closed.
+/// A unit of work that is closed without [#commit()] is rolled back.</p>
+///
+/// <pre>{@code
+/// try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+///     transactionDAO.insertTransaction(transaction);
+///     transactionDetailDAO.insertTransactionDetail(detail);
+///     unitOfWork.commit();
+/// }
+/// }</pre>
+public class UnitOfWork implements AutoCloseable {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+    private static final Log LOG = Log.get(UnitOfWork.class);
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final Connection joinedConnection;
+    private final Thread owner;
+    private boolean committed;
+    private boolean closed;
+
+    private UnitOfWork(ConnectionPool pool, Connection connection) {
+        this.pool = pool;
+        this.connection = connection;
+        this.owner = Thread.currentThread();
+        Connection joined = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null; // released by the unit of work itself
+                        case "commit":
+                        case "rollback":
+                        case "setAutoCommit":
+                            throw new SQLException("The transaction is managed by the unit of work");
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        // Timed here once, as the DAOs get this very handle back from MySqlDAOFactory.getConnection()
+        this.joinedConnection = QueryMetrics.getInstance().wrap(joined);
+    }
+
+    /// Begins a unit of work on a connection of the MySQL connection pool.
+    ///
+    /// @return "UnitOfWork" object bound to the current thread
+    /// @throws SQLException if no connection could be borrowed
+    public static UnitOfWork begin() throws SQLException {
+        return begin(MySqlDAOFactory.getPool());
+    }
+
+    /// Begins a unit of work on a connection of the given pool.
+    ///
+    /// @param pool pool to borrow the connection from
+    /// @return "UnitOfWork" object bound to the current thread
+    /// @throws SQLException if no connection could be borrowed
+    public static UnitOfWork begin(ConnectionPool pool) throws SQLException {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("A unit of work is already active on this thread");
+        }
+
+        Connection connection = pool.borrow();
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+
+        UnitOfWork unitOfWork = new UnitOfWork(pool, connection);
+        CURRENT.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    /// Gets the unit of work bound to the current thread.
+    ///
+    /// @return "UnitOfWork" object or a {@code null} if there is none
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    /// Gets the connection the DAOs should use while this unit of work is active. Closing it does nothing.
+    ///
+    /// @return connection object
+    public Connection getConnection() {
+        return joinedConnection;
+    }
+
+    /// Commits every statement executed since the unit of work began.
+    ///
+    /// @throws SQLException if the commit failed, the unit of work is rolled back when closed
+    public void commit() throws SQLException {
+        ensureOpen();
+        connection.commit();
+        committed = true;
+    }
+
+    /// Rolls back every statement executed since the unit of work began.
+    ///
+    /// @throws SQLException if the rollback failed
+    public void rollback() throws SQLException {
+        ensureOpen();
+        connection.rollback();
+    }
+
+    /// Rolls back the transaction unless it was committed, unbinds the unit of work from the thread and returns the
+    /// connection to the pool.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (!committed) {
+                connection.rollback();
+                LOG.debug("Unit of work rolled back");
+            }
+        } catch (SQLException e) {
+            LOG.error("Error rolling back unit of work: %s", e.getMessage());
+        } finally {
+            CURRENT.remove();
+            try {
+                connection.close(); // the pool restores auto-commit
+            } catch (SQLException e) {
+                LOG.error("Error releasing unit of work connection: %s", e.getMessage());
+            }
+        }
+    }
+
+    /// Checks if the unit of work is bound to the given pool, so connections borrowed from it should join.
+    ///
+    /// @param pool pool the caller borrows from
+    /// @return {@code true} if this unit of work's connection belongs to the pool
+    boolean isBoundTo(ConnectionPool pool) {
+        return this.pool == pool && !closed;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Unit of work is already closed");
+        }
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Unit of work is used outside the thread that began it");
+        }
+    }
+}
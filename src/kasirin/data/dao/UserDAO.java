@@ -1,5 +1,6 @@
 package kasirin.data.dao;
 
+import kasirin.data.model.Role;
 import kasirin.data.model.User;
 
 import java.util.List;
@@ -37,4 +38,14 @@ public interface UserDAO {
     ///
     /// @return a list of "User" transfer objects
     public List<User> findAllUsers();
+
+    /// Finds one page of the users with access to a store, ordered by name, in a single query.
+    ///
+    /// @param storeId    store ID to search users for
+    /// @param roleFilter role the users must have or {@code null} for every role
+    /// @param nameLike   start of the name or username to search for, ignoring case, or empty for every user
+    /// @param page       page number, starting at {@code 0}
+    /// @param pageSize   maximum number of users in the page
+    /// @return a list of "User" transfer objects, empty on error
+    public List<User> findUsersByStore(int storeId, Role roleFilter, String nameLike, int page, int pageSize);
 }
@@ -0,0 +1,24 @@
+package kasirin.data.model;
+
+/// Transfer Object used by "Product Variation" DAO to send a variation that is running low on stock to the client,
+/// together with the name of its product.
+public class LowStockVariation extends ProductVariation {
+    /* Instance fields */
+    private String productName;
+
+    /* Constructor */
+    public LowStockVariation(int productId, String productName, String type, String value, double additionalPrice,
+                             int stocks) {
+        super(productId, type, value, additionalPrice, stocks);
+        this.setProductName(productName);
+    }
+
+    /* Getters and setters */
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+}
@@ -1,5 +1,8 @@
 package kasirin.data.model;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /// Transfer Object used by "Product" DAO to send/receive data from client.
 ///
 /// @author yamaym
@@ -12,6 +15,8 @@ public class Product {
     private double basePrice;
     private String description;
     private String imageURL;
+    private String barcode; // optional, unique within the store
+    private List<ProductVariation> variations = new ArrayList<>(); // only filled by join-fetching DAO methods
 
     public Product(String name, int storeID, String category, double basePrice) {
         this.setName(name);
@@ -85,4 +90,20 @@ public class Product {
     public void setImageURL(String imageURL) {
         this.imageURL = imageURL;
     }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public List<ProductVariation> getVariations() {
+        return variations;
+    }
+
+    public void setVariations(List<ProductVariation> variations) {
+        this.variations = variations;
+    }
 }
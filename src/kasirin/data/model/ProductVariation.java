@@ -11,6 +11,7 @@ public class ProductVariation {
     private String value;
     private int stocks;
     private double additionalPrice;
+    private String barcode; // optional, unique across all stores
 
     /* Constructor */
     public ProductVariation(int productId, String type, String value, double additionalPrice) {
@@ -84,4 +85,12 @@ public class ProductVariation {
     public void setAdditionalPrice(double additionalPrice) {
         this.additionalPrice = additionalPrice;
     }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
 }
@@ -0,0 +1,77 @@
+package kasirin.data.model;
+
+/// Transfer Object used by "Sales Report" DAO to send one aggregated group of sales, e.g. one product, one day, one
+/// hour or one cashier, to the client.
+public class SalesAggregate {
+    /* Instance fields */
+    private String groupKey; // product ID, user ID, hour or ISO date, depending on the grouping
+    private String name; // product or cashier name, if any
+    private String category; // product category, if any
+    private int transactionCount;
+    private int quantity;
+    private double revenue;
+    private double averagePrice;
+
+    public SalesAggregate(String groupKey, int transactionCount, int quantity, double revenue) {
+        this.setGroupKey(groupKey);
+        this.setTransactionCount(transactionCount);
+        this.setQuantity(quantity);
+        this.setRevenue(revenue);
+    }
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public void setGroupKey(String groupKey) {
+        this.groupKey = groupKey;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(int transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public double getAveragePrice() {
+        return averagePrice;
+    }
+
+    public void setAveragePrice(double averagePrice) {
+        this.averagePrice = averagePrice;
+    }
+}
@@ -4,11 +4,15 @@ package kasirin.data.model;
 ///
 /// @author yamaym
 public class Store {
+    /// Stock level below which a variation counts as low, unless the store configures its own.
+    public static final int DEFAULT_LOW_STOCK_THRESHOLD = 10;
+
     /* Instance fields */
     private int id; // primary key
     private String name;
     private String type;
     private String address;
+    private int lowStockThreshold = DEFAULT_LOW_STOCK_THRESHOLD;
 
     /* Constructor */
     public Store(String name, String type, String address) {
@@ -50,4 +54,12 @@ public class Store {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public void setLowStockThreshold(int lowStockThreshold) {
+        this.lowStockThreshold = lowStockThreshold;
+    }
 }
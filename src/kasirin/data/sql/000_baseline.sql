@@ -0,0 +1,66 @@
+-- Tables as they were before the first migration, so an empty database (a new till or the embedded datasource) can be
+-- built from the scripts alone. Existing databases already have them, which makes this script a no-op there.
+-- Foreign keys are left to the existing databases; the application never relies on them, it deletes children itself.
+CREATE TABLE IF NOT EXISTS Stores (
+    id INT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    type VARCHAR(50) NULL,
+    address VARCHAR(255) NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Users (
+    id INT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('admin', 'staff', 'owner') NOT NULL DEFAULT 'staff',
+    PRIMARY KEY (id),
+    UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS user_store_access (
+    user_id INT NOT NULL,
+    store_id INT NOT NULL,
+    PRIMARY KEY (user_id, store_id)
+);
+
+CREATE TABLE IF NOT EXISTS Products (
+    id INT NOT NULL AUTO_INCREMENT,
+    store_id INT NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    category VARCHAR(50) NULL,
+    base_price DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    description TEXT NULL,
+    image_url VARCHAR(255) NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS ProductsVariations (
+    id INT NOT NULL AUTO_INCREMENT,
+    product_id INT NOT NULL,
+    type VARCHAR(50) NULL,
+    value VARCHAR(50) NULL,
+    stocks INT NOT NULL DEFAULT 0,
+    additional_price DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Transactions (
+    id INT NOT NULL AUTO_INCREMENT,
+    store_id INT NOT NULL,
+    user_id INT NOT NULL,
+    transaction_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    total DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS TransactionDetails (
+    id INT NOT NULL AUTO_INCREMENT,
+    transaction_id INT NOT NULL,
+    products_id INT NOT NULL,
+    variation_id INT NULL,
+    quantity INT NOT NULL,
+    price_per_unit DECIMAL(15, 2) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,5 @@
+-- Store-scoped transaction history and date-range queries seek on (store_id, transaction_time).
+CREATE INDEX idx_transactions_store_time ON Transactions (store_id, transaction_time);
+
+-- Receipt lines are always looked up by their transaction.
+CREATE INDEX idx_transaction_details_transaction ON TransactionDetails (transaction_id);
@@ -0,0 +1,30 @@
+-- Pre-aggregated sales per store, day, hour, product and cashier. Rows with product_id 0 carry the
+-- transaction-level figures (count, items, total), the other rows carry per-product figures.
+CREATE TABLE IF NOT EXISTS daily_store_sales (
+    store_id INT NOT NULL,
+    sales_date DATE NOT NULL,
+    sales_hour TINYINT NOT NULL,
+    product_id INT NOT NULL,
+    user_id INT NOT NULL,
+    transaction_count INT NOT NULL DEFAULT 0,
+    quantity INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (store_id, sales_date, sales_hour, product_id, user_id)
+);
+
+-- Backfill the transaction-level rows from the existing history.
+INSERT INTO daily_store_sales (store_id, sales_date, sales_hour, product_id, user_id, transaction_count, quantity, revenue)
+SELECT t.store_id, DATE(t.transaction_time), HOUR(t.transaction_time), 0, t.user_id,
+       COUNT(*), COALESCE(SUM(q.quantity), 0), SUM(t.total)
+FROM Transactions t
+LEFT JOIN (SELECT transaction_id, SUM(quantity) AS quantity FROM TransactionDetails GROUP BY transaction_id) q
+       ON q.transaction_id = t.id
+GROUP BY t.store_id, DATE(t.transaction_time), HOUR(t.transaction_time), t.user_id;
+
+-- Backfill the per-product rows from the existing history.
+INSERT INTO daily_store_sales (store_id, sales_date, sales_hour, product_id, user_id, transaction_count, quantity, revenue)
+SELECT t.store_id, DATE(t.transaction_time), HOUR(t.transaction_time), d.products_id, t.user_id,
+       COUNT(DISTINCT t.id), SUM(d.quantity), SUM(d.quantity * d.price_per_unit)
+FROM Transactions t
+JOIN TransactionDetails d ON d.transaction_id = t.id
+GROUP BY t.store_id, DATE(t.transaction_time), HOUR(t.transaction_time), d.products_id, t.user_id;
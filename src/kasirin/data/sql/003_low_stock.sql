@@ -0,0 +1,5 @@
+-- Low-stock lookups seek each product's variations below the threshold without touching the rest.
+CREATE INDEX idx_variations_product_stocks ON ProductsVariations (product_id, stocks);
+
+-- Stock level below which a variation counts as low, configurable per store.
+ALTER TABLE Stores ADD COLUMN low_stock_threshold INT NOT NULL DEFAULT 10;
@@ -0,0 +1,2 @@
+-- Catalog queries are always scoped to one store; InnoDB appends the primary key, so ORDER BY id is free.
+CREATE INDEX idx_products_store ON Products (store_id);
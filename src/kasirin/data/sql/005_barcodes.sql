@@ -0,0 +1,8 @@
+-- Barcode/SKU the till scanner types in. NULL for items without one; unique indexes allow any number of NULLs.
+-- A product barcode is unique within its store, the same EAN may be sold by several stores.
+ALTER TABLE Products ADD COLUMN barcode VARCHAR(64) NULL;
+CREATE UNIQUE INDEX uq_products_store_barcode ON Products (store_id, barcode);
+
+-- Variations have no store column to scope by, so their barcodes are unique across all stores.
+ALTER TABLE ProductsVariations ADD COLUMN barcode VARCHAR(64) NULL;
+CREATE UNIQUE INDEX uq_variations_barcode ON ProductsVariations (barcode);
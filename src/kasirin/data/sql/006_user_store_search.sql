@@ -0,0 +1,6 @@
+-- Staff lists start from a store's access rows and join the users they point to.
+CREATE INDEX idx_user_store_access_store ON user_store_access (store_id, user_id);
+
+-- Staff search is a prefix LIKE on the name or username, which can seek an index instead of scanning every user.
+CREATE INDEX idx_users_name ON Users (name);
+CREATE INDEX idx_users_username ON Users (username);
@@ -0,0 +1,342 @@
+package kasirin.service;
+
+import kasirin.data.dao.DAOFactory;
+import kasirin.data.dao.ProductDAO;
+import kasirin.data.model.Product;
+import kasirin.data.model.ProductVariation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * In-memory catalog of the most recently used stores, shared by every screen of the application
+ * A store's products and variations are loaded with one query on first use and then served from memory until a write
+ * through ProductService or ProductVariationService invalidates them, or the entry expires
+ * Plain product edits are patched into the cached store, together with its search index, instead of reloading it
+ * The least recently used store is evicted once more than the maximum number of stores are cached
+ *
+ * @author yamaym
+ */
+public class CatalogCache {
+    private static final int MAX_STORES = 16;
+    // Safety net for changes made by other tills, writes from this application invalidate immediately
+    private static final long TTL_MILLIS = 5 * 60_000;
+
+    private static volatile CatalogCache instance;
+
+    private final IntFunction<List<Product>> loader;
+    private final int maxStores;
+    private final long ttlMillis;
+    private final Map<Integer, StoreCatalog> stores;
+    // Bumped by every invalidation and patch, guarded by this, a load that overlapped one is returned but not kept
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    CatalogCache(IntFunction<List<Product>> loader, int maxStores, long ttlMillis) {
+        this.loader = loader;
+        this.maxStores = maxStores;
+        this.ttlMillis = ttlMillis;
+        // access order turns the map into an LRU list, the eldest entry is the coldest store
+        this.stores = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, StoreCatalog> eldest) {
+                if (size() > CatalogCache.this.maxStores) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the shared catalog cache backed by the MySQL datasource
+     */
+    public static CatalogCache getInstance() {
+        if (instance == null) {
+            synchronized (CatalogCache.class) {
+                if (instance == null) {
+                    ProductDAO productDAO = DAOFactory.getDAOFactory().getProductDAO();
+                    instance = new CatalogCache(productDAO::findProductsWithVariationsByStore, MAX_STORES, TTL_MILLIS);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get all products of a store with their variations, ordered by product ID
+     */
+    public List<Product> getProducts(int storeId) {
+        return getCatalog(storeId).products;
+    }
+
+    /**
+     * Get a product of a store by its ID, or null if the store has no such product
+     */
+    public Product getProduct(int storeId, int productId) {
+        return getCatalog(storeId).byId.get(productId);
+    }
+
+    /**
+     * Get the products of a store in a category, the category is matched case-insensitively
+     */
+    public List<Product> findByCategory(int storeId, String category) {
+        List<Product> products = getCatalog(storeId).byCategory.get(normalize(category));
+        return products != null ? products : Collections.emptyList();
+    }
+
+    /**
+     * Get the products of a store whose name starts with a prefix, ignoring case, ordered by name
+     */
+    public List<Product> findByNamePrefix(int storeId, String prefix) {
+        String from = normalize(prefix);
+        List<Product> result = new ArrayList<>();
+        for (List<Product> products : getCatalog(storeId).byName.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            result.addAll(products);
+        }
+        return result;
+    }
+
+    /**
+     * Get the product and variation a scanned barcode belongs to, or null if no item of the store has that barcode
+     * A product barcode resolves to the product's first variation, the one the POS grid shows
+     */
+    public BarcodeMatch findByBarcode(int storeId, String barcode) {
+        return barcode == null ? null : getCatalog(storeId).byBarcode.get(barcode.trim());
+    }
+
+    /**
+     * Get the barcodes of a store's catalog only if it is already loaded and fresh, never querying the database
+     * Meant for the FX thread, which must send a null result, a store that would need loading, to a worker thread
+     *
+     * @return the barcode lookup of the store, or null if the store isn't cached
+     */
+    public Map<String, BarcodeMatch> getLoadedBarcodes(int storeId) {
+        StoreCatalog catalog;
+        synchronized (this) {
+            catalog = stores.get(storeId);
+        }
+        if (catalog == null || catalog.expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+        hits.incrementAndGet();
+        return Collections.unmodifiableMap(catalog.byBarcode);
+    }
+
+    /**
+     * Full-text search over the name, category and description of a store's products, best match first
+     * The search index is built on the first search after the catalog was loaded
+     */
+    public List<Product> search(int storeId, String query, int limit) {
+        return getCatalog(storeId).getSearchIndex().search(query, limit);
+    }
+
+    /**
+     * Patch an edited product into the cache without reloading its store, the search index is updated incrementally
+     * A product moved to another store drops both stores instead
+     */
+    public synchronized void patchProduct(int productId, Product edited) {
+        generation++;
+        for (Map.Entry<Integer, StoreCatalog> entry : stores.entrySet()) {
+            Product cached = entry.getValue().byId.get(productId);
+            if (cached == null) {
+                continue;
+            }
+
+            if (entry.getKey() != edited.getStoreID()) {
+                stores.remove(entry.getKey());
+                stores.remove(edited.getStoreID());
+                return;
+            }
+
+            // Screens may still hold the cached product, so it is replaced by a patched copy instead of being changed
+            Product patched = new Product(edited.getName(), cached.getStoreID(), edited.getCategory(),
+                    edited.getBasePrice(), edited.getDescription(), edited.getImageURL());
+            patched.setId(cached.getId());
+            patched.setBarcode(edited.getBarcode());
+            patched.setVariations(cached.getVariations());
+            entry.setValue(replaceProduct(entry.getValue(), patched));
+            return;
+        }
+    }
+
+    /**
+     * Drop a store so its catalog is loaded again on next use
+     */
+    public synchronized void invalidate(int storeId) {
+        generation++;
+        stores.remove(storeId);
+    }
+
+    /**
+     * Drop whichever cached store contains a product
+     */
+    public synchronized void invalidateProduct(int productId) {
+        generation++;
+        stores.values().removeIf(catalog -> catalog.byId.containsKey(productId));
+    }
+
+    /**
+     * Drop whichever cached store contains a product variation
+     */
+    public synchronized void invalidateVariation(int variationId) {
+        generation++;
+        stores.values().removeIf(catalog -> catalog.variations.containsKey(variationId));
+    }
+
+    /**
+     * Patch the cached stock of a variation after a committed sale, so the POS grid shows it without a reload
+     */
+    public synchronized void applyStockChange(int storeId, int variationId, int delta) {
+        generation++;
+        StoreCatalog catalog = stores.get(storeId);
+        ProductVariation variation = catalog != null ? catalog.variations.get(variationId) : null;
+        Product owner = variation != null ? catalog.byId.get(variation.getProductId()) : null;
+        if (owner == null) {
+            return;
+        }
+
+        // The sold variation and its product are swapped for copies, so a screen still showing them is never changed
+        ProductVariation changed = new ProductVariation(variation.getProductId(), variation.getType(),
+                variation.getValue(), variation.getAdditionalPrice(), variation.getStocks() + delta);
+        changed.setId(variation.getId());
+        changed.setBarcode(variation.getBarcode());
+
+        List<ProductVariation> variations = new ArrayList<>(owner.getVariations());
+        variations.replaceAll(candidate -> candidate == variation ? changed : candidate);
+        Product patched = new Product(owner.getName(), owner.getStoreID(), owner.getCategory(), owner.getBasePrice(),
+                owner.getDescription(), owner.getImageURL());
+        patched.setId(owner.getId());
+        patched.setBarcode(owner.getBarcode());
+        patched.setVariations(variations);
+        stores.put(storeId, replaceProduct(catalog, patched));
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+    public synchronized int getCachedStores() { return stores.size(); }
+
+    @Override
+    public String toString() {
+        return String.format("CatalogCache[stores=%d, hits=%d, misses=%d, evictions=%d]",
+                getCachedStores(), getHits(), getMisses(), getEvictions());
+    }
+
+    private StoreCatalog getCatalog(int storeId) {
+        long loadGeneration;
+        synchronized (this) {
+            StoreCatalog catalog = stores.get(storeId);
+            if (catalog != null && catalog.expiresAt > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return catalog;
+            }
+            loadGeneration = generation;
+        }
+
+        // Loaded outside the lock, so a slow query never blocks lookups for other stores
+        misses.incrementAndGet();
+        StoreCatalog catalog = new StoreCatalog(loader.apply(storeId), System.currentTimeMillis() + ttlMillis, null);
+
+        // An empty result may as well be a failed query, so it is never kept
+        // A write that invalidated or patched the cache during the load may be missing from it, and a product or
+        // variation invalidation can't even tell which store it hit, so such a load is served but not kept
+        if (!catalog.products.isEmpty()) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    stores.put(storeId, catalog);
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Build a catalog in which a product is swapped for its patched copy, the search index is updated incrementally
+     * Lookups read a catalog without the lock, so its products and maps are replaced, never changed
+     */
+    private static StoreCatalog replaceProduct(StoreCatalog previous, Product patched) {
+        List<Product> products = new ArrayList<>(previous.products);
+        products.replaceAll(product -> product.getId() == patched.getId() ? patched : product);
+        if (previous.searchIndex != null) {
+            previous.searchIndex.update(patched);
+        }
+        return new StoreCatalog(products, previous.expiresAt, previous.searchIndex);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The indexed catalog of a single store
+     */
+    private static class StoreCatalog {
+        private final List<Product> products;
+        private final Map<Integer, Product> byId = new HashMap<>();
+        private final Map<Integer, ProductVariation> variations = new HashMap<>();
+        private final Map<String, List<Product>> byCategory = new HashMap<>();
+        private final NavigableMap<String, List<Product>> byName = new TreeMap<>();
+        private final Map<String, BarcodeMatch> byBarcode = new HashMap<>();
+        private final long expiresAt;
+        private ProductSearchIndex searchIndex;
+
+        private StoreCatalog(List<Product> products, long expiresAt, ProductSearchIndex searchIndex) {
+            this.products = Collections.unmodifiableList(products);
+            this.expiresAt = expiresAt;
+            this.searchIndex = searchIndex;
+
+            for (Product product : products) {
+                byId.put(product.getId(), product);
+                byCategory.computeIfAbsent(normalize(product.getCategory()), key -> new ArrayList<>()).add(product);
+                byName.computeIfAbsent(normalize(product.getName()), key -> new ArrayList<>()).add(product);
+                for (ProductVariation variation : product.getVariations()) {
+                    variations.put(variation.getId(), variation);
+                    if (variation.getBarcode() != null) {
+                        byBarcode.put(variation.getBarcode(), new BarcodeMatch(product, variation));
+                    }
+                }
+                if (product.getBarcode() != null) {
+                    ProductVariation first = product.getVariations().isEmpty() ? null : product.getVariations().get(0);
+                    byBarcode.put(product.getBarcode(), new BarcodeMatch(product, first));
+                }
+            }
+        }
+
+        private synchronized ProductSearchIndex getSearchIndex() {
+            if (searchIndex == null) {
+                searchIndex = new ProductSearchIndex(products);
+            }
+            return searchIndex;
+        }
+    }
+
+    /**
+     * A cached product and the variation a barcode was found on
+     */
+    public static class BarcodeMatch {
+        private final Product product;
+        private final ProductVariation variation;
+
+        private BarcodeMatch(Product product, ProductVariation variation) {
+            this.product = product;
+            this.variation = variation;
+        }
+
+        public Product getProduct() { return product; }
+        public ProductVariation getVariation() { return variation; }
+    }
+}
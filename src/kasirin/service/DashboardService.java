@@ -4,79 +4,128 @@ import kasirin.data.dao.DAOFactory;
 import kasirin.data.dao.TransactionDAO;
 import kasirin.data.dao.ProductDAO;
 import kasirin.data.dao.ProductVariationDAO;
-import kasirin.data.dao.MySqlTransactionDAO;
+import kasirin.data.dao.SalesReportDAO;
+import kasirin.data.dao.StoreDAO;
+import kasirin.data.model.LowStockVariation;
+import kasirin.data.model.SalesAggregate;
+import kasirin.data.model.Store;
 import kasirin.data.model.Transaction;
-import kasirin.data.model.Product;
-import kasirin.data.model.ProductVariation;
 
-import java.sql.Date;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.ArrayList;
 
 /**
  * Service untuk Dashboard dengan integrasi database
+ * The dashboard is built from a fixed set of aggregate queries, so opening it costs the same no matter how much
+ * transaction history a store has
  *
  * @author yamaym
  */
 public class DashboardService {
+    private static final int LOW_STOCK_LIST_SIZE = 10;
+    private static final int TOP_PRODUCTS_WINDOW_DAYS = 30;
+    private static final long TOP_PRODUCTS_TTL_MILLIS = 60_000;
+    private static final long SECTION_TIMEOUT_MILLIS = 3_000;
+
+    // Names of the dashboard sections, as listed in DashboardStats.getUnavailableSections()
+    public static final String SECTION_SALES = "sales";
+    public static final String SECTION_PRODUCTS = "products";
+    public static final String SECTION_LOW_STOCK = "lowStock";
+    public static final String SECTION_TOP_PRODUCTS = "topProducts";
+    public static final String SECTION_RECENT_TRANSACTIONS = "recentTransactions";
+
+    // Sections mostly wait on the database, so a virtual thread each is cheap; the connection pool bounds the queries
+    private static final ExecutorService SECTION_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Shared by every dashboard instance, keyed by store ID
+    private static final Map<Integer, CachedTopProducts> topProductsCache = new ConcurrentHashMap<>();
+
     private final DAOFactory daoFactory;
     private final TransactionDAO transactionDAO;
     private final ProductDAO productDAO;
     private final ProductVariationDAO productVariationDAO;
+    private final SalesReportDAO salesReportDAO;
+    private final StoreDAO storeDAO;
 
     public DashboardService() {
-        this.daoFactory = DAOFactory.getDAOFactory(DAOFactory.MYSQL);
+        this.daoFactory = DAOFactory.getDAOFactory();
         this.transactionDAO = daoFactory.getTransactionDAO();
         this.productDAO = daoFactory.getProductDAO();
         this.productVariationDAO = daoFactory.getProductVariationDAO();
+        this.salesReportDAO = daoFactory.getSalesReportDAO();
+        this.storeDAO = daoFactory.getStoreDAO();
     }
 
     /**
      * Get dashboard statistics for a specific store
+     * The sections are independent queries and run at the same time, so the dashboard takes about as long as its
+     * slowest section; a section that misses the timeout is left empty and listed in the stats as unavailable
      */
     public DashboardStats getDashboardStats(int storeId) {
         try {
             LocalDate today = LocalDate.now();
-            Date sqlToday = Date.valueOf(today);
-
-            // Get today's sales
-            double todaySales = getTodaySales(storeId, sqlToday);
-
-            // Get today's transaction count
-            int todayTransactions = getTodayTransactionCount(storeId, sqlToday);
 
+            // One GROUP BY over the last 7 days, today's sales and transaction count come from the same rows
+            Future<Map<LocalDate, SalesAggregate>> salesSection =
+                    SECTION_EXECUTOR.submit(() -> getDailySales(storeId, today.minusDays(6), today));
             // Get total products count
-            int totalProducts = getTotalProductsCount(storeId);
-
-            // Get low stock products count
-            int lowStockCount = getLowStockProductsCount(storeId);
+            Future<Integer> productsSection =
+                    SECTION_EXECUTOR.submit(() -> Math.max(0, productDAO.countProductsByStore(storeId)));
+            // Get low stock count and the most urgent variations, using the store's own threshold
+            Future<LowStock> lowStockSection = SECTION_EXECUTOR.submit(() -> getLowStock(storeId));
+            // Get top selling products
+            Future<List<TopProduct>> topProductsSection = SECTION_EXECUTOR.submit(() -> getTopSellingProducts(storeId, 5));
+            // Get recent transactions
+            Future<List<RecentTransaction>> recentSection = SECTION_EXECUTOR.submit(() -> getRecentTransactions(storeId, 10));
+
+            // Every section gets the same time from the moment they were all started
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SECTION_TIMEOUT_MILLIS);
+            List<String> unavailable = new ArrayList<>();
+
+            Map<LocalDate, SalesAggregate> dailySales =
+                    awaitSection(salesSection, SECTION_SALES, Collections.emptyMap(), deadline, unavailable);
+            int totalProducts = awaitSection(productsSection, SECTION_PRODUCTS, 0, deadline, unavailable);
+            LowStock lowStock = awaitSection(lowStockSection, SECTION_LOW_STOCK,
+                    new LowStock(0, new ArrayList<>()), deadline, unavailable);
+            List<TopProduct> topProducts =
+                    awaitSection(topProductsSection, SECTION_TOP_PRODUCTS, new ArrayList<>(), deadline, unavailable);
+            List<RecentTransaction> recentTransactions =
+                    awaitSection(recentSection, SECTION_RECENT_TRANSACTIONS, new ArrayList<>(), deadline, unavailable);
+
+            SalesAggregate todayAggregate = dailySales.get(today);
+            double todaySales = todayAggregate != null ? todayAggregate.getRevenue() : 0.0;
+            int todayTransactions = todayAggregate != null ? todayAggregate.getTransactionCount() : 0;
 
             // Get average order value
             double avgOrderValue = todayTransactions > 0 ? todaySales / todayTransactions : 0;
 
             // Get weekly sales data for chart
-            Map<String, Double> weeklySales = getWeeklySalesData(storeId);
-
-            // Get top selling products
-            List<TopProduct> topProducts = getTopSellingProducts(storeId, 5);
-
-            // Get recent transactions
-            List<RecentTransaction> recentTransactions = getRecentTransactions(storeId, 10);
+            Map<String, Double> weeklySales = getWeeklySalesData(dailySales, today);
 
-            return new DashboardStats(
+            DashboardStats stats = new DashboardStats(
                     todaySales,
                     todayTransactions,
                     totalProducts,
-                    lowStockCount,
+                    lowStock.count,
                     avgOrderValue,
                     weeklySales,
                     topProducts,
-                    recentTransactions
+                    recentTransactions,
+                    lowStock.items
             );
+            stats.setUnavailableSections(unavailable);
+            return stats;
 
         } catch (Exception e) {
             System.err.println("Error getting dashboard stats: " + e.getMessage());
@@ -86,131 +135,94 @@ public class DashboardService {
     }
 
     /**
-     * Get today's sales for a store
+     * Wait for a section until the deadline, falling back to an empty value if it is too slow or failed
+     * A section that timed out keeps running in the background, its connection is returned to the pool when it ends
      */
-    private double getTodaySales(int storeId, Date today) {
+    private <T> T awaitSection(Future<T> section, String name, T fallback, long deadline, List<String> unavailable) {
         try {
-            if (transactionDAO instanceof MySqlTransactionDAO) {
-                MySqlTransactionDAO mysqlDAO = (MySqlTransactionDAO) transactionDAO;
-                return mysqlDAO.getDailyRevenue(storeId, today);
-            } else {
-                // Fallback method
-                List<Transaction> allTransactions = transactionDAO.findAllTransactions();
-                return allTransactions.stream()
-                        .filter(t -> t.getStoreID() == storeId)
-                        .filter(t -> isSameDay(t.getTimestamp(), today))
-                        .mapToDouble(Transaction::getTotal)
-                        .sum();
-            }
-        } catch (Exception e) {
-            System.err.println("Error getting today's sales: " + e.getMessage());
-            return 0.0;
+            return section.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            System.err.println("Dashboard section " + name + " timed out after " + SECTION_TIMEOUT_MILLIS + " ms");
+        } catch (ExecutionException e) {
+            System.err.println("Error getting dashboard section " + name + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        unavailable.add(name);
+        return fallback;
     }
 
     /**
-     * Get today's transaction count
+     * Get the number of low stock variations and the most urgent ones, using the store's own threshold
      */
-    private int getTodayTransactionCount(int storeId, Date today) {
-        try {
-            List<Transaction> allTransactions = transactionDAO.findAllTransactions();
-            return (int) allTransactions.stream()
-                    .filter(t -> t.getStoreID() == storeId)
-                    .filter(t -> isSameDay(t.getTimestamp(), today))
-                    .count();
-        } catch (Exception e) {
-            System.err.println("Error getting today's transaction count: " + e.getMessage());
-            return 0;
-        }
+    private LowStock getLowStock(int storeId) {
+        int threshold = getLowStockThreshold(storeId);
+        int count = Math.max(0, productVariationDAO.countLowStockVariations(storeId, threshold));
+        return new LowStock(count, productVariationDAO.findLowStockVariations(storeId, threshold, LOW_STOCK_LIST_SIZE));
     }
 
     /**
-     * Get total products count for a store
+     * Get the low stock threshold configured for a store
      */
-    private int getTotalProductsCount(int storeId) {
-        try {
-            List<Product> allProducts = productDAO.findAllProducts();
-            return (int) allProducts.stream()
-                    .filter(p -> p.getStoreID() == storeId)
-                    .count();
-        } catch (Exception e) {
-            System.err.println("Error getting total products count: " + e.getMessage());
-            return 0;
-        }
+    private int getLowStockThreshold(int storeId) {
+        Store store = storeDAO.findStore(storeId);
+        return store != null ? store.getLowStockThreshold() : Store.DEFAULT_LOW_STOCK_THRESHOLD;
     }
 
     /**
-     * Get low stock products count (stock < 10)
+     * Get sales per day for a store, days without sales are missing from the map
      */
-    private int getLowStockProductsCount(int storeId) {
-        try {
-            List<Product> storeProducts = productDAO.findAllProducts().stream()
-                    .filter(p -> p.getStoreID() == storeId)
-                    .collect(Collectors.toList());
-
-            int lowStockCount = 0;
-            for (Product product : storeProducts) {
-                List<ProductVariation> variations = productVariationDAO.findVariationsByProductId(product.getId());
-                for (ProductVariation variation : variations) {
-                    if (variation.getStocks() < 10) {
-                        lowStockCount++;
-                        break; // Count product only once even if multiple variations are low
-                    }
-                }
-            }
-            return lowStockCount;
-        } catch (Exception e) {
-            System.err.println("Error getting low stock count: " + e.getMessage());
-            return 0;
+    private Map<LocalDate, SalesAggregate> getDailySales(int storeId, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, SalesAggregate> dailySales = new HashMap<>();
+        for (SalesAggregate aggregate : salesReportDAO.findDailySales(storeId, startDate, endDate)) {
+            dailySales.put(LocalDate.parse(aggregate.getGroupKey()), aggregate);
         }
+        return dailySales;
     }
 
     /**
      * Get weekly sales data for chart
      */
-    private Map<String, Double> getWeeklySalesData(int storeId) {
+    private Map<String, Double> getWeeklySalesData(Map<LocalDate, SalesAggregate> dailySales, LocalDate today) {
         Map<String, Double> weeklySales = new HashMap<>();
-        try {
-            LocalDate today = LocalDate.now();
 
-            for (int i = 6; i >= 0; i--) {
-                LocalDate date = today.minusDays(i);
-                Date sqlDate = Date.valueOf(date);
-                double dailySales = getTodaySales(storeId, sqlDate);
+        for (int i = 6; i >= 0; i--) {
+            LocalDate date = today.minusDays(i);
+            SalesAggregate aggregate = dailySales.get(date);
+            double sales = aggregate != null ? aggregate.getRevenue() : 0.0;
 
-                String dayName = date.getDayOfWeek().toString().substring(0, 3);
-                weeklySales.put(dayName, dailySales);
-            }
-        } catch (Exception e) {
-            System.err.println("Error getting weekly sales data: " + e.getMessage());
+            String dayName = date.getDayOfWeek().toString().substring(0, 3);
+            weeklySales.put(dayName, sales);
         }
         return weeklySales;
     }
 
     /**
-     * Get top selling products (simplified - based on recent transactions)
+     * Get top selling products of the last days by quantity sold, cached per store for a short time so reopening
+     * the dashboard doesn't aggregate the details again
      */
     private List<TopProduct> getTopSellingProducts(int storeId, int limit) {
+        CachedTopProducts cached = topProductsCache.get(storeId);
+        if (cached != null && cached.limit == limit && cached.expiresAt > System.currentTimeMillis()) {
+            return cached.products;
+        }
+
         List<TopProduct> topProducts = new ArrayList<>();
         try {
-            // Get recent transactions for the store
-            List<Transaction> storeTransactions = transactionDAO.findAllTransactions().stream()
-                    .filter(t -> t.getStoreID() == storeId)
-                    .collect(Collectors.toList());
-
-            // For now, return sample data - would need TransactionDetails to get actual product sales
-            List<Product> storeProducts = productDAO.findAllProducts().stream()
-                    .filter(p -> p.getStoreID() == storeId)
-                    .limit(limit)
-                    .collect(Collectors.toList());
-
-            for (int i = 0; i < storeProducts.size(); i++) {
-                Product product = storeProducts.get(i);
+            LocalDate today = LocalDate.now();
+            LocalDate startDate = today.minusDays(TOP_PRODUCTS_WINDOW_DAYS - 1);
+
+            for (SalesAggregate aggregate : salesReportDAO.findTopProducts(storeId, startDate, today, limit)) {
                 topProducts.add(new TopProduct(
-                        product.getName(),
-                        (limit - i) * 10 // Sample sales count
+                        aggregate.getName() != null ? aggregate.getName() : "Unknown Product",
+                        aggregate.getQuantity(),
+                        aggregate.getRevenue()
                 ));
             }
+
+            topProducts = Collections.unmodifiableList(topProducts);
+            topProductsCache.put(storeId, new CachedTopProducts(topProducts, limit,
+                    System.currentTimeMillis() + TOP_PRODUCTS_TTL_MILLIS));
         } catch (Exception e) {
             System.err.println("Error getting top selling products: " + e.getMessage());
         }
@@ -218,18 +230,12 @@ public class DashboardService {
     }
 
     /**
-     * Get recent transactions
+     * Get recent transactions, newest first, with a LIMIT on the (store_id, transaction_time) index
      */
     private List<RecentTransaction> getRecentTransactions(int storeId, int limit) {
         List<RecentTransaction> recentTransactions = new ArrayList<>();
         try {
-            List<Transaction> storeTransactions = transactionDAO.findAllTransactions().stream()
-                    .filter(t -> t.getStoreID() == storeId)
-                    .sorted((t1, t2) -> t2.getTimestamp().compareTo(t1.getTimestamp()))
-                    .limit(limit)
-                    .collect(Collectors.toList());
-
-            for (Transaction transaction : storeTransactions) {
+            for (Transaction transaction : transactionDAO.findTransactionsByStore(storeId, 0, limit)) {
                 recentTransactions.add(new RecentTransaction(
                         transaction.getId(),
                         transaction.getTimestamp().toString(),
@@ -243,14 +249,6 @@ public class DashboardService {
         return recentTransactions;
     }
 
-    /**
-     * Check if timestamp is on the same day as date
-     */
-    private boolean isSameDay(java.sql.Timestamp timestamp, Date date) {
-        Date transactionDate = new Date(timestamp.getTime());
-        return transactionDate.equals(date);
-    }
-
     // Inner classes for data transfer
     public static class DashboardStats {
         private double todaySales;
@@ -261,16 +259,20 @@ public class DashboardService {
         private Map<String, Double> weeklySales;
         private List<TopProduct> topProducts;
         private List<RecentTransaction> recentTransactions;
+        private List<LowStockVariation> lowStockItems;
+        private List<String> unavailableSections = new ArrayList<>();
 
         public DashboardStats() {
             this.weeklySales = new HashMap<>();
             this.topProducts = new ArrayList<>();
             this.recentTransactions = new ArrayList<>();
+            this.lowStockItems = new ArrayList<>();
         }
 
         public DashboardStats(double todaySales, int todayTransactions, int totalProducts,
                               int lowStockCount, double avgOrderValue, Map<String, Double> weeklySales,
-                              List<TopProduct> topProducts, List<RecentTransaction> recentTransactions) {
+                              List<TopProduct> topProducts, List<RecentTransaction> recentTransactions,
+                              List<LowStockVariation> lowStockItems) {
             this.todaySales = todaySales;
             this.todayTransactions = todayTransactions;
             this.totalProducts = totalProducts;
@@ -279,6 +281,7 @@ public class DashboardService {
             this.weeklySales = weeklySales;
             this.topProducts = topProducts;
             this.recentTransactions = recentTransactions;
+            this.lowStockItems = lowStockItems;
         }
 
         // Getters
@@ -290,19 +293,61 @@ public class DashboardService {
         public Map<String, Double> getWeeklySales() { return weeklySales; }
         public List<TopProduct> getTopProducts() { return topProducts; }
         public List<RecentTransaction> getRecentTransactions() { return recentTransactions; }
+        public List<LowStockVariation> getLowStockItems() { return lowStockItems; }
+        public List<String> getUnavailableSections() { return unavailableSections; }
+
+        public void setUnavailableSections(List<String> unavailableSections) {
+            this.unavailableSections = unavailableSections;
+        }
+
+        /**
+         * False if the section timed out or failed, its values are empty then
+         */
+        public boolean isSectionAvailable(String section) {
+            return !unavailableSections.contains(section);
+        }
     }
 
     public static class TopProduct {
         private String name;
         private int salesCount;
+        private double revenue;
 
         public TopProduct(String name, int salesCount) {
+            this(name, salesCount, 0.0);
+        }
+
+        public TopProduct(String name, int salesCount, double revenue) {
             this.name = name;
             this.salesCount = salesCount;
+            this.revenue = revenue;
         }
 
         public String getName() { return name; }
         public int getSalesCount() { return salesCount; }
+        public double getRevenue() { return revenue; }
+    }
+
+    private static class CachedTopProducts {
+        private final List<TopProduct> products;
+        private final int limit;
+        private final long expiresAt;
+
+        private CachedTopProducts(List<TopProduct> products, int limit, long expiresAt) {
+            this.products = products;
+            this.limit = limit;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class LowStock {
+        private final int count;
+        private final List<LowStockVariation> items;
+
+        private LowStock(int count, List<LowStockVariation> items) {
+            this.count = count;
+            this.items = items;
+        }
     }
 
     public static class RecentTransaction {
@@ -0,0 +1,125 @@
+package kasirin.service;
+
+import kasirin.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named latency histograms and counters of the running application, shared by every screen
+ * Services record into it while they work, the diagnostics panel reads a report from it or dumps it to a file
+ *
+ * @author yamaym
+ */
+public class MetricsRegistry {
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static volatile MetricsRegistry instance;
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    MetricsRegistry() {
+    }
+
+    /**
+     * Get the metrics registry of the application
+     */
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MetricsRegistry.class) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the histogram with a name, it is created on first use
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Record the time passed since a System.nanoTime() reading and return the current reading, so consecutive
+     * stages can be timed by passing the result of one call to the next
+     */
+    public long recordSince(String name, long startNanos) {
+        long now = System.nanoTime();
+        histogram(name).recordNanos(now - startNanos);
+        return now;
+    }
+
+    public void increment(String counter) {
+        counters.computeIfAbsent(counter, key -> new LongAdder()).increment();
+    }
+
+    public long getCount(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Drop every recorded sample and counter value
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Render every histogram and counter as a plain-text table, latencies in milliseconds
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("Metrics since ").append(startedAt.withNano(0)).append(", at ")
+                .append(LocalDateTime.now().withNano(0)).append('\n').append('\n');
+
+        report.append(String.format("%-28s %8s %9s %9s %9s %9s %9s%n",
+                "Latency (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            report.append(String.format("%-28s %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), histogram.getCount(), histogram.getMeanMicros() / 1_000.0,
+                    histogram.getPercentileMicros(50) / 1_000.0, histogram.getPercentileMicros(90) / 1_000.0,
+                    histogram.getPercentileMicros(99) / 1_000.0, histogram.getMaxMicros() / 1_000.0));
+        }
+
+        report.append('\n').append(String.format("%-28s %8s%n", "Counter", "value"));
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            report.append(String.format("%-28s %8d%n", entry.getKey(), entry.getValue().sum()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Write the report to a new time-stamped file in a directory
+     *
+     * @param sections further reports to append, e.g. the SQL statistics
+     * @return the file that was written
+     * @throws IOException if the directory or the file can't be written
+     */
+    public Path dump(Path directory, String... sections) throws IOException {
+        StringBuilder content = new StringBuilder(report());
+        for (String section : sections) {
+            content.append('\n').append(section);
+        }
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve("metrics-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,290 @@
+package kasirin.service;
+
+import kasirin.data.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text index over the name, category and description of a set of products
+ * Words are kept in a prefix trie for search-as-you-type, and every word is also split into trigrams so a query can
+ * match in the middle of a word, e.g. "susu" finds "Kopisusu"
+ * Each product is tokenized once when it is added, so a search never touches products that can't match
+ *
+ * @author yamaym
+ */
+public final class ProductSearchIndex {
+    // A hit in the name counts more than one in the category, which counts more than one in the description
+    private static final int NAME = 1;
+    private static final int CATEGORY = 2;
+    private static final int DESCRIPTION = 4;
+
+    private final TrieNode root = new TrieNode();
+    private final Map<String, Set<Integer>> trigrams = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+
+    public ProductSearchIndex() {
+    }
+
+    public ProductSearchIndex(Collection<Product> products) {
+        for (Product product : products) {
+            add(product);
+        }
+    }
+
+    /**
+     * Add a product to the index, replacing it if it's already indexed
+     */
+    public synchronized void add(Product product) {
+        remove(product.getId());
+
+        Document document = new Document(product);
+        documents.put(product.getId(), document);
+        for (Map.Entry<String, Integer> word : document.words.entrySet()) {
+            root.insert(word.getKey(), 0).postings.merge(product.getId(), word.getValue(), (a, b) -> a | b);
+            for (String trigram : trigramsOf(word.getKey())) {
+                trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(product.getId());
+            }
+        }
+    }
+
+    /**
+     * Re-index a product after it was edited
+     */
+    public void update(Product product) {
+        add(product);
+    }
+
+    /**
+     * Remove a product from the index, does nothing if it isn't indexed
+     */
+    public synchronized void remove(int productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+
+        for (String word : document.words.keySet()) {
+            TrieNode node = root.find(word);
+            if (node != null) {
+                node.postings.remove(productId);
+            }
+            for (String trigram : trigramsOf(word)) {
+                Set<Integer> ids = trigrams.get(trigram);
+                if (ids != null) {
+                    ids.remove(productId);
+                    if (ids.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Search the index, every word of the query has to match a word prefix or, from three characters on, part of a
+     * word of the product
+     *
+     * @param query free text typed by the user
+     * @param limit maximum number of results
+     * @return matching products, best match first, then by name
+     */
+    public synchronized List<Product> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, Integer> scores = null;
+        for (String term : terms) {
+            Map<Integer, Integer> termScores = scoreTerm(term);
+
+            // every term must match, so keep only the products that matched all previous terms as well
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Integer, Integer> combined = new HashMap<>();
+                for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+                    Integer score = termScores.get(entry.getKey());
+                    if (score != null) {
+                        combined.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = combined;
+            }
+
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> {
+            int byScore = Integer.compare(b.getValue(), a.getValue());
+            return byScore != 0 ? byScore : documents.get(a.getKey()).name.compareTo(documents.get(b.getKey()).name);
+        });
+
+        List<Product> results = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            results.add(documents.get(ranked.get(i).getKey()).product);
+        }
+        return results;
+    }
+
+    /**
+     * Score every product matching a single query term
+     */
+    private Map<Integer, Integer> scoreTerm(String term) {
+        Map<Integer, Integer> scores = new HashMap<>();
+
+        // Prefix matches are the strongest, the name starting with the term is the best of all
+        TrieNode node = root.find(term);
+        if (node != null) {
+            node.collect((productId, fields) -> {
+                int score = fieldScore(fields) * 3;
+                if (documents.get(productId).name.startsWith(term)) {
+                    score += 5;
+                }
+                scores.merge(productId, score, Math::max);
+            });
+        }
+
+        // Infix matches through the trigrams, verified against the text because trigrams can match out of order
+        if (term.length() >= 3) {
+            Set<Integer> candidates = null;
+            for (String trigram : trigramsOf(term)) {
+                Set<Integer> ids = trigrams.get(trigram);
+                if (ids == null) {
+                    return scores;
+                }
+                if (candidates == null) {
+                    candidates = new HashSet<>(ids);
+                } else {
+                    candidates.retainAll(ids);
+                }
+            }
+
+            for (Integer productId : candidates) {
+                if (!scores.containsKey(productId)) {
+                    Document document = documents.get(productId);
+                    int fields = document.infixFields(term);
+                    if (fields != 0) {
+                        scores.put(productId, fieldScore(fields));
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static int fieldScore(int fields) {
+        if ((fields & NAME) != 0) {
+            return 3;
+        }
+        return (fields & CATEGORY) != 0 ? 2 : 1;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> trigramsOf(String word) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            result.add(word.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * The tokenized form of one product, kept so it can be removed again and infix hits can be verified
+     */
+    private static class Document {
+        private final Product product;
+        private final String name;
+        private final String category;
+        private final String description;
+        private final Map<String, Integer> words = new HashMap<>(); // word to the fields it occurs in
+
+        private Document(Product product) {
+            this.product = product;
+            this.name = String.join(" ", tokenize(product.getName()));
+            this.category = String.join(" ", tokenize(product.getCategory()));
+            this.description = String.join(" ", tokenize(product.getDescription()));
+
+            addWords(name, NAME);
+            addWords(category, CATEGORY);
+            addWords(description, DESCRIPTION);
+        }
+
+        private void addWords(String text, int field) {
+            for (String word : tokenize(text)) {
+                words.merge(word, field, (a, b) -> a | b);
+            }
+        }
+
+        private int infixFields(String term) {
+            int fields = 0;
+            if (name.contains(term)) fields |= NAME;
+            if (category.contains(term)) fields |= CATEGORY;
+            if (description.contains(term)) fields |= DESCRIPTION;
+            return fields;
+        }
+    }
+
+    /**
+     * A node of the word trie, postings map product IDs to the fields the word ending here occurs in
+     */
+    private static class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final Map<Integer, Integer> postings = new HashMap<>();
+
+        private TrieNode insert(String word, int index) {
+            if (index == word.length()) {
+                return this;
+            }
+            return children.computeIfAbsent(word.charAt(index), key -> new TrieNode()).insert(word, index + 1);
+        }
+
+        private TrieNode find(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node;
+        }
+
+        private void collect(PostingVisitor visitor) {
+            for (Map.Entry<Integer, Integer> posting : postings.entrySet()) {
+                visitor.visit(posting.getKey(), posting.getValue());
+            }
+            for (TrieNode child : children.values()) {
+                child.collect(visitor);
+            }
+        }
+    }
+
+    private interface PostingVisitor {
+        void visit(int productId, int fields);
+    }
+}
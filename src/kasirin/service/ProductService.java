@@ -6,6 +6,7 @@ import kasirin.data.dao.StoreDAO;
 import kasirin.data.model.Product;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class that provides operation logic for products management
@@ -14,8 +15,9 @@ import java.util.List;
  * @author yamaym
  */
 public class ProductService {
-    private final DAOFactory daoFactory = DAOFactory.getDAOFactory(DAOFactory.MYSQL);
+    private final DAOFactory daoFactory = DAOFactory.getDAOFactory();
     private final ProductDAO productDAO = daoFactory.getProductDAO();
+    private final CatalogCache catalogCache = CatalogCache.getInstance();
 
     /**
      * Adds a new validated product to the datasource
@@ -24,8 +26,10 @@ public class ProductService {
      * @return The ID of the newly created product, or -1 if validation fails
      */
     public int addProduct(Product product) {
-        if (validateProduct(product)) {
-            return productDAO.insertProduct(product);
+        if (validateProduct(product) && validateBarcode(0, product)) {
+            int id = productDAO.insertProduct(product);
+            catalogCache.invalidate(product.getStoreID());
+            return id;
         }
         return -1;
     }
@@ -39,8 +43,13 @@ public class ProductService {
      * @throws IllegalArgumentException if product ID doesn't exist or validation fails
      */
     public boolean updateProduct(int id, Product product) {
-        if (validateProduct(product)) {
+        if (validateProduct(product) && validateBarcode(id, product)) {
             int rowsAffected = productDAO.updateProduct(id, product);
+            if (rowsAffected > 0) {
+                catalogCache.patchProduct(id, product);
+            } else {
+                catalogCache.invalidateProduct(id);
+            }
             if (rowsAffected == 0) {
                 throw new IllegalArgumentException("Product id does not exist");
             }
@@ -68,6 +77,7 @@ public class ProductService {
 
         // Then delete the product
         int affectedRows = productDAO.deleteProduct(id);
+        catalogCache.invalidateProduct(id);
         if (affectedRows == 0) {
             throw new IllegalArgumentException("Product id does not exist");
         }
@@ -99,6 +109,83 @@ public class ProductService {
         return productDAO.findAllProducts();
     }
 
+    /**
+     * Gets the products of a single store
+     *
+     * @param storeId the store id whose products are loaded
+     * @return a list of "Product" transfer objects
+     */
+    public List<Product> getProductsByStore(int storeId) {
+        return productDAO.findProductsByStore(storeId);
+    }
+
+    /**
+     * Gets the products of a single store with their variations already attached, served from the catalog cache
+     *
+     * @param storeId the store id whose products are loaded
+     * @return a list of "Product" transfer objects with variations
+     */
+    public List<Product> getProductsWithVariationsByStore(int storeId) {
+        return catalogCache.getProducts(storeId);
+    }
+
+    /**
+     * Finds the item a scanned barcode belongs to, served from the catalog cache so a scan needs no query
+     *
+     * @param storeId the store id the till belongs to
+     * @param barcode the scanned product or variation barcode
+     * @return the matching product and variation, or null if the store has no item with that barcode
+     */
+    public CatalogCache.BarcodeMatch findByBarcode(int storeId, String barcode) {
+        return catalogCache.findByBarcode(storeId, barcode);
+    }
+
+    /**
+     * Gets the barcode lookup of a store if its catalog is already in memory, so a scan can be served without a query
+     *
+     * @param storeId the store id whose barcodes are looked up
+     * @return barcodes mapped to their product and variation, or null if the catalog would have to be loaded first
+     */
+    public Map<String, CatalogCache.BarcodeMatch> getLoadedBarcodes(int storeId) {
+        return catalogCache.getLoadedBarcodes(storeId);
+    }
+
+    /**
+     * Searches the products of a single store by name, category and description, best match first
+     *
+     * @param storeId the store id whose products are searched
+     * @param query   free text typed by the user
+     * @param limit   maximum number of products to return
+     * @return a list of "Product" transfer objects with variations
+     */
+    public List<Product> searchProducts(int storeId, String query, int limit) {
+        return catalogCache.search(storeId, query, limit);
+    }
+
+    /**
+     * Gets one page of the products of a single store
+     *
+     * @param storeId   the store id whose products are loaded
+     * @param sortBy    column to sort by, one of id, name, category or base_price
+     * @param ascending whether to sort ascending or descending
+     * @param offset    number of products to skip
+     * @param limit     maximum number of products to return
+     * @return a list of "Product" transfer objects
+     */
+    public List<Product> getProductsByStore(int storeId, String sortBy, boolean ascending, int offset, int limit) {
+        return productDAO.findProductsByStore(storeId, sortBy, ascending, offset, limit);
+    }
+
+    /**
+     * Counts the products of a single store
+     *
+     * @param storeId the store id whose products are counted
+     * @return number of products, or -1 on error
+     */
+    public int countProductsByStore(int storeId) {
+        return productDAO.countProductsByStore(storeId);
+    }
+
     /**
      * Validates each field of a given product, useful when trying to write to datasource
      *
@@ -126,4 +213,28 @@ public class ProductService {
             return true;
         }
     }
+
+    /**
+     * Checks that no other item of the product's store is already labelled with its barcode, so a scan always resolves
+     * to exactly one item
+     *
+     * @param id      the id of the product being saved, 0 for a new product
+     * @param product a "Product" transfer object
+     * @return true when the barcode is empty or free
+     * @throws IllegalArgumentException if the barcode belongs to another product
+     */
+    public boolean validateBarcode(int id, Product product) {
+        String barcode = product.getBarcode();
+        if (barcode == null || barcode.trim().isEmpty()) {
+            product.setBarcode(null); // a blank barcode is stored as NULL, the unique index allows any number of those
+            return true;
+        }
+
+        product.setBarcode(barcode.trim());
+        CatalogCache.BarcodeMatch match = catalogCache.findByBarcode(product.getStoreID(), product.getBarcode());
+        if (match != null && match.getProduct().getId() != id) {
+            throw new IllegalArgumentException("Barcode is already used by " + match.getProduct().getName());
+        }
+        return true;
+    }
 }
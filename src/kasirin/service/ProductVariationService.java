@@ -13,8 +13,9 @@ import java.util.List;
  * @author yamaym
  */
 public class ProductVariationService {
-    private final DAOFactory daoFactory = DAOFactory.getDAOFactory(DAOFactory.MYSQL);
+    private final DAOFactory daoFactory = DAOFactory.getDAOFactory();
     private final ProductVariationDAO productVariationDAO = daoFactory.getProductVariationDAO();
+    private final CatalogCache catalogCache = CatalogCache.getInstance();
 
     /**
      * Adds a new validated product variation to the datasource
@@ -24,7 +25,9 @@ public class ProductVariationService {
      */
     public int addProductVariation(ProductVariation productVariation) {
         if (validateProductVariation(productVariation)) {
-            return productVariationDAO.insertProductVariation(productVariation);
+            int id = productVariationDAO.insertProductVariation(productVariation);
+            catalogCache.invalidateProduct(productVariation.getProductId());
+            return id;
         }
         return -1;
     }
@@ -40,6 +43,7 @@ public class ProductVariationService {
     public boolean updateProductVariation(int id, ProductVariation productVariation) {
         if (validateProductVariation(productVariation)) {
             int rowsAffected = productVariationDAO.updateProductVariation(id, productVariation);
+            catalogCache.invalidateVariation(id);
             if (rowsAffected == 0) {
                 throw new IllegalArgumentException("Product variation id does not exist");
             }
@@ -57,6 +61,7 @@ public class ProductVariationService {
      */
     public boolean deleteProductVariation(int id) {
         int affectedRows = productVariationDAO.deleteProductVariation(id);
+        catalogCache.invalidateVariation(id);
         if (affectedRows == 0) {
             throw new IllegalArgumentException("Product variation id does not exist");
         }
@@ -114,7 +119,9 @@ public class ProductVariationService {
         if (productVariationDAO instanceof kasirin.data.dao.MySqlProductVariationDAO) {
             kasirin.data.dao.MySqlProductVariationDAO mysqlDAO =
                     (kasirin.data.dao.MySqlProductVariationDAO) productVariationDAO;
-            return mysqlDAO.updateStock(variationId, newStock) > 0;
+            boolean updated = mysqlDAO.updateStock(variationId, newStock) > 0;
+            catalogCache.invalidateVariation(variationId);
+            return updated;
         }
         return false;
     }
@@ -130,7 +137,9 @@ public class ProductVariationService {
         if (productVariationDAO instanceof kasirin.data.dao.MySqlProductVariationDAO) {
             kasirin.data.dao.MySqlProductVariationDAO mysqlDAO =
                     (kasirin.data.dao.MySqlProductVariationDAO) productVariationDAO;
-            return mysqlDAO.reduceStock(variationId, quantity) > 0;
+            boolean updated = mysqlDAO.reduceStock(variationId, quantity) > 0;
+            catalogCache.invalidateVariation(variationId);
+            return updated;
         }
         return false;
     }
@@ -1,44 +1,30 @@
 package kasirin.service;
 
 import kasirin.data.dao.DAOFactory;
-import kasirin.data.dao.TransactionDAO;
-import kasirin.data.dao.TransactionDetailDAO;
-import kasirin.data.dao.UserDAO;
-import kasirin.data.dao.ProductDAO;
-import kasirin.data.model.Transaction;
-import kasirin.data.model.TransactionDetail;
-import kasirin.data.model.User;
-import kasirin.data.model.Product;
-
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import kasirin.data.dao.SalesReportDAO;
+import kasirin.data.dao.UnitOfWork;
+import kasirin.data.model.SalesAggregate;
+
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Service for generating comprehensive sales reports
- * Integrates data from transactions and transaction_details tables
+ * Every section is aggregated by the database, so memory use grows with the number of groups in the report,
+ * not with the number of transactions in the date range
  *
  * @author yamaym
  */
 public class SalesReportService {
 
     private final DAOFactory daoFactory;
-    private final TransactionDAO transactionDAO;
-    private final TransactionDetailDAO transactionDetailDAO;
-    private final UserDAO userDAO;
-    private final ProductDAO productDAO;
+    private final SalesReportDAO salesReportDAO;
 
     public SalesReportService() {
-        this.daoFactory = DAOFactory.getDAOFactory(DAOFactory.MYSQL);
-        this.transactionDAO = daoFactory.getTransactionDAO();
-        this.transactionDetailDAO = daoFactory.getTransactionDetailDAO();
-        this.userDAO = daoFactory.getUserDAO();
-        this.productDAO = daoFactory.getProductDAO();
+        this.daoFactory = DAOFactory.getDAOFactory();
+        this.salesReportDAO = daoFactory.getSalesReportDAO();
     }
 
     /**
@@ -48,42 +34,39 @@ public class SalesReportService {
         try {
             System.out.println("Generating sales report for store " + storeId + " from " + startDate + " to " + endDate);
 
-            // Get all transactions in date range
-            List<Transaction> transactions = getTransactionsInDateRange(storeId, startDate, endDate);
+            // Daily groups also tell whether there is anything to report at all
+            Map<LocalDate, DailySales> dailySales = generateDailySales(storeId, startDate, endDate);
 
-            if (transactions.isEmpty()) {
+            if (dailySales.isEmpty()) {
                 System.out.println("No transactions found in the specified date range");
                 return createEmptyReport(startDate, endDate);
             }
 
             // Generate comprehensive report
             SalesReportData reportData = new SalesReportData(startDate, endDate);
-
-            // Calculate summary metrics
-            SalesSummary summary = calculateSalesSummary(transactions);
-            reportData.setSummary(summary);
+            reportData.setDailySales(dailySales);
 
             // Generate itemized sales data
-            List<ItemizedSales> itemizedSales = generateItemizedSales(transactions);
+            List<ItemizedSales> itemizedSales = generateItemizedSales(storeId, startDate, endDate);
             reportData.setItemizedSales(itemizedSales);
 
+            // Calculate summary metrics from the daily and itemized groups
+            SalesSummary summary = calculateSalesSummary(dailySales, itemizedSales);
+            reportData.setSummary(summary);
+
             // Generate top products
             List<TopSellingProduct> topProducts = generateTopProducts(itemizedSales);
             reportData.setTopProducts(topProducts);
 
-            // Generate daily sales data
-            Map<LocalDate, DailySales> dailySales = generateDailySales(transactions);
-            reportData.setDailySales(dailySales);
-
             // Generate cashier performance
-            List<CashierPerformance> cashierPerformance = generateCashierPerformance(transactions);
+            List<CashierPerformance> cashierPerformance = generateCashierPerformance(storeId, startDate, endDate);
             reportData.setCashierPerformance(cashierPerformance);
 
             // Generate hourly sales pattern
-            Map<Integer, Double> hourlySales = generateHourlySales(transactions);
+            Map<Integer, Double> hourlySales = generateHourlySales(storeId, startDate, endDate);
             reportData.setHourlySales(hourlySales);
 
-            System.out.println("Sales report generated successfully with " + transactions.size() + " transactions");
+            System.out.println("Sales report generated successfully with " + summary.getTotalTransactions() + " transactions");
             return reportData;
 
         } catch (Exception e) {
@@ -94,95 +77,83 @@ public class SalesReportService {
     }
 
     /**
-     * Get transactions within date range for a specific store
+     * Rebuild the daily sales rollup of a store from the raw transactions, e.g. after transactions were edited or
+     * deleted, or to backfill history. Runs as one unit of work, so reports never see a half-rebuilt range.
+     *
+     * @return number of rollup rows written, or -1 on error
      */
-    private List<Transaction> getTransactionsInDateRange(int storeId, LocalDate startDate, LocalDate endDate) {
-        try {
-            List<Transaction> allTransactions = transactionDAO.findAllTransactions();
-            return allTransactions.stream()
-                    .filter(t -> t.getStoreID() == storeId)
-                    .filter(t -> {
-                        LocalDate transactionDate = t.getTimestamp().toLocalDateTime().toLocalDate();
-                        return !transactionDate.isBefore(startDate) && !transactionDate.isAfter(endDate);
-                    })
-                    .sorted((t1, t2) -> t2.getTimestamp().compareTo(t1.getTimestamp()))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            System.err.println("Error getting transactions in date range: " + e.getMessage());
-            return new ArrayList<>();
+    public int rebuildDailySales(int storeId, LocalDate startDate, LocalDate endDate) {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            int rows = salesReportDAO.rebuildDailySales(storeId, startDate, endDate);
+            if (rows < 0) {
+                return -1;
+            }
+
+            unitOfWork.commit();
+            System.out.println("Rebuilt daily sales for store " + storeId + " from " + startDate + " to " + endDate +
+                    ": " + rows + " rows");
+            return rows;
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding daily sales: " + e.getMessage());
+            return -1;
         }
     }
 
+    /**
+     * Command line entry point to rebuild or backfill the daily sales rollup.
+     * Usage: {@code SalesReportService <storeId> <startDate> [endDate]}, dates in ISO format, endDate defaults to today
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: SalesReportService <storeId> <startDate> [endDate]");
+            System.exit(2);
+        }
+
+        int storeId = Integer.parseInt(args[0]);
+        LocalDate startDate = LocalDate.parse(args[1]);
+        LocalDate endDate = args.length > 2 ? LocalDate.parse(args[2]) : LocalDate.now();
+
+        int rows = new SalesReportService().rebuildDailySales(storeId, startDate, endDate);
+        System.exit(rows < 0 ? 1 : 0);
+    }
+
     /**
      * Calculate sales summary metrics
      */
-    private SalesSummary calculateSalesSummary(List<Transaction> transactions) {
+    private SalesSummary calculateSalesSummary(Map<LocalDate, DailySales> dailySales, List<ItemizedSales> itemizedSales) {
         SalesSummary summary = new SalesSummary();
 
         // Basic metrics
-        summary.setTotalTransactions(transactions.size());
-        summary.setTotalRevenue(transactions.stream().mapToDouble(Transaction::getTotal).sum());
+        summary.setTotalTransactions(dailySales.values().stream().mapToInt(DailySales::getTransactionCount).sum());
+        summary.setTotalRevenue(dailySales.values().stream().mapToDouble(DailySales::getTotalRevenue).sum());
         summary.setAverageOrderValue(summary.getTotalRevenue() / Math.max(1, summary.getTotalTransactions()));
 
-        // Get transaction details for item metrics
-        int totalItems = 0;
-        Set<Integer> uniqueProducts = new HashSet<>();
-
-        try {
-            List<TransactionDetail> allDetails = transactionDetailDAO.findAllTransactionDetails();
-            Set<Integer> transactionIds = transactions.stream()
-                    .map(Transaction::getId)
-                    .collect(Collectors.toSet());
-
-            for (TransactionDetail detail : allDetails) {
-                if (transactionIds.contains(detail.getTransactionId())) {
-                    totalItems += detail.getQuantity();
-                    uniqueProducts.add(detail.getProductID());
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error calculating summary: " + e.getMessage());
-        }
+        // Item metrics, each itemized row is one distinct product
+        int totalItems = itemizedSales.stream().mapToInt(ItemizedSales::getQuantitySold).sum();
 
         summary.setTotalItemsSold(totalItems);
-        summary.setUniqueProductsSold(uniqueProducts.size());
+        summary.setUniqueProductsSold(itemizedSales.size());
         summary.setAverageItemsPerTransaction((double) totalItems / Math.max(1, summary.getTotalTransactions()));
 
         return summary;
     }
 
     /**
-     * Generate itemized sales data
+     * Generate itemized sales data, sorted by total revenue descending
      */
-    private List<ItemizedSales> generateItemizedSales(List<Transaction> transactions) {
-        Map<Integer, ItemizedSalesBuilder> salesMap = new HashMap<>();
-
-        try {
-            List<TransactionDetail> allDetails = transactionDetailDAO.findAllTransactionDetails();
-            Set<Integer> transactionIds = transactions.stream()
-                    .map(Transaction::getId)
-                    .collect(Collectors.toSet());
-
-            for (TransactionDetail detail : allDetails) {
-                if (transactionIds.contains(detail.getTransactionId())) {
-                    ItemizedSalesBuilder builder = salesMap.computeIfAbsent(detail.getProductID(),
-                            k -> new ItemizedSalesBuilder(detail.getProductID()));
-
-                    builder.addSale(detail.getQuantity(), detail.getPricePerUnit(), detail.getTransactionId());
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error generating itemized sales: " + e.getMessage());
-        }
-
-        // Convert to ItemizedSales objects
+    private List<ItemizedSales> generateItemizedSales(int storeId, LocalDate startDate, LocalDate endDate) {
         List<ItemizedSales> itemizedSales = new ArrayList<>();
-        for (ItemizedSalesBuilder builder : salesMap.values()) {
-            itemizedSales.add(builder.build());
-        }
 
-        // Sort by total revenue descending
-        itemizedSales.sort((a, b) -> Double.compare(b.getTotalRevenue(), a.getTotalRevenue()));
+        for (SalesAggregate aggregate : salesReportDAO.findItemizedSales(storeId, startDate, endDate)) {
+            itemizedSales.add(new ItemizedSales(
+                    aggregate.getName() != null ? aggregate.getName() : "Unknown Product",
+                    aggregate.getCategory() != null ? aggregate.getCategory() : "Unknown",
+                    aggregate.getQuantity(),
+                    aggregate.getRevenue(),
+                    aggregate.getTransactionCount(),
+                    aggregate.getAveragePrice()
+            ));
+        }
 
         return itemizedSales;
     }
@@ -204,39 +175,33 @@ public class SalesReportService {
     /**
      * Generate daily sales data
      */
-    private Map<LocalDate, DailySales> generateDailySales(List<Transaction> transactions) {
+    private Map<LocalDate, DailySales> generateDailySales(int storeId, LocalDate startDate, LocalDate endDate) {
         Map<LocalDate, DailySales> dailySales = new HashMap<>();
 
-        for (Transaction transaction : transactions) {
-            LocalDate date = transaction.getTimestamp().toLocalDateTime().toLocalDate();
-
-            DailySales dayData = dailySales.computeIfAbsent(date, k -> new DailySales(date));
-            dayData.addTransaction(transaction.getTotal());
+        for (SalesAggregate aggregate : salesReportDAO.findDailySales(storeId, startDate, endDate)) {
+            LocalDate date = LocalDate.parse(aggregate.getGroupKey());
+            dailySales.put(date, new DailySales(date, aggregate.getTransactionCount(), aggregate.getRevenue()));
         }
 
         return dailySales;
     }
 
     /**
-     * Generate cashier performance data
+     * Generate cashier performance data, sorted by total revenue descending
      */
-    private List<CashierPerformance> generateCashierPerformance(List<Transaction> transactions) {
-        Map<Integer, CashierPerformanceBuilder> performanceMap = new HashMap<>();
-
-        for (Transaction transaction : transactions) {
-            CashierPerformanceBuilder builder = performanceMap.computeIfAbsent(transaction.getUserID(),
-                    k -> new CashierPerformanceBuilder(transaction.getUserID()));
-
-            builder.addTransaction(transaction.getTotal());
-        }
-
+    private List<CashierPerformance> generateCashierPerformance(int storeId, LocalDate startDate, LocalDate endDate) {
         List<CashierPerformance> performance = new ArrayList<>();
-        for (CashierPerformanceBuilder builder : performanceMap.values()) {
-            performance.add(builder.build());
-        }
 
-        // Sort by total revenue descending
-        performance.sort((a, b) -> Double.compare(b.getTotalRevenue(), a.getTotalRevenue()));
+        for (SalesAggregate aggregate : salesReportDAO.findCashierSales(storeId, startDate, endDate)) {
+            int transactionCount = aggregate.getTransactionCount();
+            double avgPerTransaction = transactionCount > 0 ? aggregate.getRevenue() / transactionCount : 0.0;
+            performance.add(new CashierPerformance(
+                    aggregate.getName() != null ? aggregate.getName() : "Unknown Cashier",
+                    transactionCount,
+                    aggregate.getRevenue(),
+                    avgPerTransaction
+            ));
+        }
 
         return performance;
     }
@@ -244,12 +209,11 @@ public class SalesReportService {
     /**
      * Generate hourly sales pattern
      */
-    private Map<Integer, Double> generateHourlySales(List<Transaction> transactions) {
+    private Map<Integer, Double> generateHourlySales(int storeId, LocalDate startDate, LocalDate endDate) {
         Map<Integer, Double> hourlySales = new HashMap<>();
 
-        for (Transaction transaction : transactions) {
-            int hour = transaction.getTimestamp().toLocalDateTime().getHour();
-            hourlySales.merge(hour, transaction.getTotal(), Double::sum);
+        for (SalesAggregate aggregate : salesReportDAO.findHourlySales(storeId, startDate, endDate)) {
+            hourlySales.put(Integer.parseInt(aggregate.getGroupKey()), aggregate.getRevenue());
         }
 
         return hourlySales;
@@ -269,78 +233,6 @@ public class SalesReportService {
         return reportData;
     }
 
-    // Helper classes for building aggregated data
-    private class ItemizedSalesBuilder {
-        private int productId;
-        private String productName;
-        private String category;
-        private int quantitySold = 0;
-        private double totalRevenue = 0.0;
-        private Set<Integer> transactionIds = new HashSet<>();
-        private double totalPrice = 0.0;
-        private int priceCount = 0;
-
-        public ItemizedSalesBuilder(int productId) {
-            this.productId = productId;
-            // Get product info
-            try {
-                Product product = productDAO.findProduct(productId);
-                if (product != null) {
-                    this.productName = product.getName();
-                    this.category = product.getCategory();
-                } else {
-                    this.productName = "Unknown Product";
-                    this.category = "Unknown";
-                }
-            } catch (Exception e) {
-                this.productName = "Unknown Product";
-                this.category = "Unknown";
-            }
-        }
-
-        public void addSale(int quantity, double price, int transactionId) {
-            this.quantitySold += quantity;
-            this.totalRevenue += (quantity * price);
-            this.transactionIds.add(transactionId);
-            this.totalPrice += price;
-            this.priceCount++;
-        }
-
-        public ItemizedSales build() {
-            double avgPrice = priceCount > 0 ? totalPrice / priceCount : 0.0;
-            return new ItemizedSales(productName, category, quantitySold, totalRevenue,
-                    transactionIds.size(), avgPrice);
-        }
-    }
-
-    private class CashierPerformanceBuilder {
-        private int cashierId;
-        private String cashierName;
-        private int transactionCount = 0;
-        private double totalRevenue = 0.0;
-
-        public CashierPerformanceBuilder(int cashierId) {
-            this.cashierId = cashierId;
-            // Get cashier info
-            try {
-                User cashier = userDAO.findUser(cashierId);
-                this.cashierName = cashier != null ? cashier.getName() : "Unknown Cashier";
-            } catch (Exception e) {
-                this.cashierName = "Unknown Cashier";
-            }
-        }
-
-        public void addTransaction(double amount) {
-            this.transactionCount++;
-            this.totalRevenue += amount;
-        }
-
-        public CashierPerformance build() {
-            double avgPerTransaction = transactionCount > 0 ? totalRevenue / transactionCount : 0.0;
-            return new CashierPerformance(cashierName, transactionCount, totalRevenue, avgPerTransaction);
-        }
-    }
-
     // Data classes
     public static class SalesReportData {
         private LocalDate startDate;
@@ -450,6 +342,12 @@ public class SalesReportService {
             this.date = date;
         }
 
+        public DailySales(LocalDate date, int transactionCount, double totalRevenue) {
+            this.date = date;
+            this.transactionCount = transactionCount;
+            this.totalRevenue = totalRevenue;
+        }
+
         public void addTransaction(double amount) {
             this.transactionCount++;
             this.totalRevenue += amount;
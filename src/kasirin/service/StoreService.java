@@ -15,7 +15,7 @@ public class StoreService {
     private MySqlStoreDAO storeDAO;
 
     public StoreService() {
-        DAOFactory factory = DAOFactory.getDAOFactory(DAOFactory.MYSQL);
+        DAOFactory factory = DAOFactory.getDAOFactory();
         this.storeDAO = (MySqlStoreDAO) factory.getStoreDAO();
     }
 
@@ -1,11 +1,13 @@
 package kasirin.service;
 
+import kasirin.Log;
 import kasirin.data.dao.DAOFactory;
 import kasirin.data.dao.TransactionDAO;
 import kasirin.data.dao.TransactionDetailDAO;
 import kasirin.data.dao.ProductVariationDAO;
 import kasirin.data.dao.ProductDAO;
-import kasirin.data.dao.MySqlDAOFactory;
+import kasirin.data.dao.SalesReportDAO;
+import kasirin.data.dao.UnitOfWork;
 import kasirin.data.model.Transaction;
 import kasirin.data.model.TransactionDetail;
 import kasirin.data.model.ProductVariation;
@@ -13,13 +15,14 @@ import kasirin.data.model.Product;
 import kasirin.data.model.User;
 import kasirin.data.model.Store;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -28,18 +31,41 @@ import java.util.stream.Collectors;
  * @author yamaym
  */
 public class TransactionService {
+    private static final Log LOG = Log.get(TransactionService.class);
+
+    // Checkout stages timed in the metrics registry, in the order they run
+    public static final String STAGE_VALIDATE = "checkout.1.validate";
+    public static final String STAGE_CONNECT = "checkout.2.connect";
+    public static final String STAGE_LOAD = "checkout.3.load";
+    public static final String STAGE_PRICE = "checkout.4.price";
+    public static final String STAGE_STOCK = "checkout.5.stock";
+    public static final String STAGE_INSERT_HEADER = "checkout.6.insertHeader";
+    public static final String STAGE_INSERT_DETAILS = "checkout.7.insertDetails";
+    public static final String STAGE_ROLLUP = "checkout.8.rollup";
+    public static final String STAGE_COMMIT = "checkout.9.commit";
+    public static final String STAGE_TOTAL = "checkout.total";
+    public static final String COUNTER_COMPLETED = "checkout.completed";
+    public static final String COUNTER_ROLLBACKS = "checkout.rollbacks";
+    public static final String COUNTER_PRICE_CORRECTIONS = "checkout.priceCorrections";
+
     private final DAOFactory daoFactory;
     private final TransactionDAO transactionDAO;
     private final TransactionDetailDAO transactionDetailDAO;
     private final ProductVariationDAO productVariationDAO;
     private final ProductDAO productDAO;
+    private final SalesReportDAO salesReportDAO;
+    private final CatalogCache catalogCache;
+    private final MetricsRegistry metrics;
 
     public TransactionService() {
-        this.daoFactory = DAOFactory.getDAOFactory(DAOFactory.MYSQL);
+        this.daoFactory = DAOFactory.getDAOFactory();
         this.transactionDAO = daoFactory.getTransactionDAO();
         this.transactionDetailDAO = daoFactory.getTransactionDetailDAO();
         this.productVariationDAO = daoFactory.getProductVariationDAO();
         this.productDAO = daoFactory.getProductDAO();
+        this.salesReportDAO = daoFactory.getSalesReportDAO();
+        this.catalogCache = CatalogCache.getInstance();
+        this.metrics = MetricsRegistry.getInstance();
     }
 
     /**
@@ -48,82 +74,111 @@ public class TransactionService {
     public TransactionResult processCompleteTransaction(List<TransactionItem> items, User user, Store store, double paymentAmount)
             throws TransactionException {
 
-        System.out.println("=== Starting Simplified Transaction Processing ===");
-        System.out.println("Store: " + store.getName() + " (ID: " + store.getId() + ")");
-        System.out.println("User: " + user.getName() + " (ID: " + user.getId() + ")");
-        System.out.println("Items: " + items.size());
-        System.out.println("Payment: Rp " + String.format("%,.2f", paymentAmount));
+        // Checked first, the arguments would be boxed even with debug logging off
+        if (LOG.isDebugEnabled() && store != null && user != null && items != null) {
+            LOG.debug("Starting checkout: store %s, user %s, %d items", store.getId(), user.getId(), items.size());
+            LOG.debug("Payment: Rp %,.2f", paymentAmount);
+        }
 
         // Input validation
+        long started = System.nanoTime();
         validateTransactionInput(items, user, store, paymentAmount);
-
-        Connection conn = null;
-        try {
-            // Get database connection and start transaction
-            conn = MySqlDAOFactory.getConnection();
-            if (conn == null) {
-                throw new TransactionException("Failed to establish database connection");
-            }
-
-            System.out.println("Database connection established");
-            conn.setAutoCommit(false);
-            System.out.println("Auto-commit disabled, transaction started");
-
-            // Step 1: Validate and calculate transaction details
-            TransactionCalculation calculation = validateAndCalculateTransaction(items, paymentAmount);
-            System.out.println("Transaction calculation completed. Total: Rp " + String.format("%,.2f", calculation.getTotalAmount()));
-
-            // Step 2: Validate stock availability for all items
-            validateStockAvailability(items);
-            System.out.println("Stock validation completed");
-
-            // Step 3: Create main transaction record
-            Transaction transaction = createTransactionRecord(store, user, calculation.getTotalAmount());
-            int transactionId = insertTransactionRecord(transaction);
-            System.out.println("Transaction record created with ID: " + transactionId);
+        long stage = metrics.recordSince(STAGE_VALIDATE, started);
+
+        boolean inUnitOfWork = false;
+        boolean committed = false;
+        CheckoutSnapshot snapshot;
+        TransactionCalculation calculation;
+        Map<Integer, Integer> reservedStock;
+        Transaction transaction;
+        int transactionId;
+        List<TransactionDetail> transactionDetails;
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            // Every DAO call below joins the unit of work, so the whole checkout runs on one connection
+            inUnitOfWork = true;
+            stage = metrics.recordSince(STAGE_CONNECT, stage);
+            LOG.trace("Unit of work started");
+
+            // Step 1: Load every product and variation in the basket once
+            snapshot = loadCheckoutSnapshot(store, items);
+            stage = metrics.recordSince(STAGE_LOAD, stage);
+
+            // Step 2: Validate and calculate transaction details
+            calculation = validateAndCalculateTransaction(items, snapshot, paymentAmount);
+            stage = metrics.recordSince(STAGE_PRICE, stage);
+
+            // Step 3: Reserve stock for all items with a conditional decrement, fails on any shortage
+            reservedStock = reserveStock(store, items, calculation);
+            stage = metrics.recordSince(STAGE_STOCK, stage);
+            LOG.trace("Stock reserved");
+
+            // Step 4: Create main transaction record
+            transaction = createTransactionRecord(store, user, calculation.getTotalAmount());
+            transactionId = insertTransactionRecord(transaction);
 
             if (transactionId <= 0) {
                 throw new TransactionException("Failed to create transaction record - invalid ID returned: " + transactionId);
             }
+            stage = metrics.recordSince(STAGE_INSERT_HEADER, stage);
 
-            // Step 4: Process each transaction item with simplified handling
-            List<TransactionDetail> transactionDetails = processTransactionItems(transactionId, items);
-            System.out.println("Transaction details created: " + transactionDetails.size() + " items");
-
-            // Step 5: Update product variation stocks
-            updateProductStocks(items);
-            System.out.println("Product stocks updated");
-
-            // Step 6: Commit transaction
-            conn.commit();
-            System.out.println("Transaction committed successfully");
-
-            // Step 7: Create and return result
-            TransactionResult result = new TransactionResult(
-                    transactionId,
-                    calculation.getTotalAmount(),
-                    paymentAmount,
-                    calculation.getChangeAmount(),
-                    transactionDetails,
-                    transaction.getTimestamp()
-            );
+            // Step 5: Process each transaction item with simplified handling
+            transactionDetails = processTransactionItems(transactionId, items);
+            stage = metrics.recordSince(STAGE_INSERT_DETAILS, stage);
 
-            System.out.println("=== Simplified Transaction Processing Completed Successfully ===");
-            return result;
+            // Step 6: Add the sale to the daily sales rollup, in the same unit of work so it can't drift
+            int rollupRows = salesReportDAO.recordSale(transaction, transactionDetails);
+            if (rollupRows < 0) {
+                throw new TransactionException("Failed to update daily sales for transaction " + transactionId);
+            }
+            stage = metrics.recordSince(STAGE_ROLLUP, stage);
 
+            // Step 7: Commit transaction, closing the unit of work without a commit rolls everything back
+            unitOfWork.commit();
+            committed = true;
+            metrics.recordSince(STAGE_COMMIT, stage);
         } catch (TransactionException e) {
-            System.err.println("Transaction error: " + e.getMessage());
-            rollbackTransaction(conn);
+            LOG.warn("Transaction error: %s", e.getMessage());
             throw e;
+        } catch (SQLException e) {
+            String errorMessage = "Database error during transaction processing: " + e.getMessage();
+            LOG.error(errorMessage, e);
+            throw new TransactionException(errorMessage, e);
         } catch (Exception e) {
             String errorMessage = "Unexpected error during transaction processing: " + e.getMessage();
-            System.err.println(errorMessage);
-            e.printStackTrace();
-            rollbackTransaction(conn);
+            LOG.error(errorMessage, e);
             throw new TransactionException(errorMessage, e);
         } finally {
-            closeConnection(conn);
+            if (inUnitOfWork && !committed) {
+                metrics.increment(COUNTER_ROLLBACKS);
+            }
         }
+
+        // Step 8: Create and return result. The sale is committed and the stock is taken, so nothing from here on may
+        // report it as failed, or the cashier would charge the customer a second time
+        List<String> receiptLines = new ArrayList<>();
+        try {
+            // Keep the cached catalog in step with the stock that was just sold
+            for (Map.Entry<Integer, Integer> reserved : reservedStock.entrySet()) {
+                catalogCache.applyStockChange(store.getId(), reserved.getKey(), -reserved.getValue());
+            }
+            receiptLines = buildReceiptLines(items, snapshot);
+            metrics.recordSince(STAGE_TOTAL, started);
+            metrics.increment(COUNTER_COMPLETED);
+        } catch (RuntimeException e) {
+            LOG.error("Transaction " + transactionId + " was committed, but finishing it failed", e);
+            catalogCache.invalidate(store.getId());
+        }
+
+        LOG.info("Transaction %s committed with %s items", transactionId, transactionDetails.size());
+        return new TransactionResult(
+                transactionId,
+                calculation.getTotalAmount(),
+                paymentAmount,
+                calculation.getChangeAmount(),
+                transactionDetails,
+                transaction.getTimestamp(),
+                receiptLines
+        );
     }
 
     /**
@@ -132,8 +187,6 @@ public class TransactionService {
     private void validateTransactionInput(List<TransactionItem> items, User user, Store store, double paymentAmount)
             throws TransactionException {
 
-        System.out.println("Validating transaction input...");
-
         if (items == null || items.isEmpty()) {
             throw new TransactionException("Transaction must contain at least one item");
         }
@@ -153,7 +206,7 @@ public class TransactionService {
         // Validate each transaction item
         for (int i = 0; i < items.size(); i++) {
             TransactionItem item = items.get(i);
-            System.out.println("Validating item " + (i + 1) + ": " + item);
+            LOG.trace("Validating item %s", item);
 
             if (item == null) {
                 throw new TransactionException("Transaction item " + (i + 1) + " is null");
@@ -171,61 +224,93 @@ public class TransactionService {
                 throw new TransactionException("Price per unit cannot be negative for item " + (i + 1) + ": " + item.getPricePerUnit());
             }
         }
-
-        System.out.println("Input validation completed successfully");
     }
 
     /**
-     * Simplified transaction calculation
+     * Load all products and variations in the basket, from the catalog cache where possible and otherwise with one
+     * query each. The snapshot is reused for pricing, stock reservation and the receipt, so no row is fetched twice
+     * during checkout. Cached stock may be stale, which is fine because the reservation re-checks it in the database.
      */
-    private TransactionCalculation validateAndCalculateTransaction(List<TransactionItem> items, double paymentAmount)
-            throws TransactionException {
+    private CheckoutSnapshot loadCheckoutSnapshot(Store store, List<TransactionItem> items) throws TransactionException {
+        List<Integer> productIds = items.stream()
+                .map(TransactionItem::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+
+        // Each product has a single variation, the lowest ID wins like in findVariationsByProductId()
+        Map<Integer, Product> products = new HashMap<>();
+        Map<Integer, ProductVariation> variations = new HashMap<>();
+        List<Integer> uncachedIds = new ArrayList<>();
+        for (Integer productId : productIds) {
+            Product product = catalogCache.getProduct(store.getId(), productId);
+            if (product == null) {
+                uncachedIds.add(productId);
+                continue;
+            }
+            products.put(productId, product);
+            if (!product.getVariations().isEmpty()) {
+                variations.put(productId, product.getVariations().get(0));
+            }
+        }
 
-        System.out.println("Calculating and validating transaction...");
+        if (!uncachedIds.isEmpty()) {
+            // The cache holds the whole store, so a product it misses is usually another store's and must not be sold
+            for (Product product : productDAO.findProductsByIds(uncachedIds)) {
+                if (product.getStoreID() == store.getId()) {
+                    products.put(product.getId(), product);
+                }
+            }
+            for (ProductVariation variation : productVariationDAO.findVariationsByProductIds(uncachedIds)) {
+                variations.putIfAbsent(variation.getProductId(), variation);
+            }
+        }
 
-        double totalAmount = 0.0;
-        Map<String, Double> itemTotals = new HashMap<>();
+        for (Integer productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new TransactionException("Product not found for ID: " + productId);
+            }
+        }
 
-        for (int i = 0; i < items.size(); i++) {
-            TransactionItem item = items.get(i);
-            System.out.println("Processing item " + (i + 1) + ": Product ID " + item.getProductId());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Checkout snapshot loaded: %s products, %s variations", products.size(), variations.size());
+        }
+        return new CheckoutSnapshot(products, variations);
+    }
 
-            // Validate product exists
-            Product product = productDAO.findProduct(item.getProductId());
-            if (product == null) {
-                throw new TransactionException("Product not found for ID: " + item.getProductId());
-            }
-            System.out.println("Product found: " + product.getName() + " (Base price: Rp " + product.getBasePrice() + ")");
+    /**
+     * Simplified transaction calculation
+     */
+    private TransactionCalculation validateAndCalculateTransaction(List<TransactionItem> items, CheckoutSnapshot snapshot,
+                                                                   double paymentAmount) throws TransactionException {
 
-            // Get the single variation for this product
-            List<ProductVariation> variations = productVariationDAO.findVariationsByProductId(item.getProductId());
-            ProductVariation variation = variations.isEmpty() ? null : variations.get(0);
+        double totalAmount = 0.0;
+        Map<String, Double> itemTotals = new HashMap<>();
 
-            if (variation != null) {
-                System.out.println("Variation found: " + variation.getValue() + " (Additional price: Rp " + variation.getAdditionalPrice() + ")");
-            } else {
-                System.out.println("No variation found for product - using base price only");
-            }
+        for (TransactionItem item : items) {
+            Product product = snapshot.getProduct(item.getProductId());
+            ProductVariation variation = snapshot.getVariation(item.getProductId());
 
             // Calculate and validate price
             double expectedPrice = calculateItemPrice(product, variation);
-            System.out.println("Expected price: Rp " + expectedPrice + ", Item price: Rp " + item.getPricePerUnit());
 
             if (Math.abs(item.getPricePerUnit() - expectedPrice) > 0.01) {
-                System.out.println("Price mismatch detected - using expected price");
+                if (LOG.isEnabled(Log.Level.WARN)) {
+                    LOG.warn("Price mismatch detected for product %s - using expected price Rp %,.2f",
+                            item.getProductId(), expectedPrice);
+                }
                 item.setPricePerUnit(expectedPrice); // Auto-correct the price
+                metrics.increment(COUNTER_PRICE_CORRECTIONS);
             }
 
             double itemTotal = item.getQuantity() * item.getPricePerUnit();
             totalAmount += itemTotal;
 
-            String itemKey = product.getName() + (variation != null ? " (" + variation.getValue() + ")" : "");
-            itemTotals.put(itemKey, itemTotal);
-
-            System.out.println("Item total: Rp " + String.format("%,.2f", itemTotal));
+            itemTotals.merge(snapshot.describe(item.getProductId()), itemTotal, Double::sum);
         }
 
-        System.out.println("Total amount: Rp " + String.format("%,.2f", totalAmount));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Total amount: Rp %,.2f", totalAmount);
+        }
 
         // Validate payment amount
         if (paymentAmount < totalAmount) {
@@ -236,9 +321,11 @@ public class TransactionService {
         }
 
         double changeAmount = paymentAmount - totalAmount;
-        System.out.println("Change amount: Rp " + String.format("%,.2f", changeAmount));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Change amount: Rp %,.2f", changeAmount);
+        }
 
-        return new TransactionCalculation(totalAmount, changeAmount, itemTotals);
+        return new TransactionCalculation(totalAmount, changeAmount, itemTotals, snapshot);
     }
 
     /**
@@ -251,56 +338,108 @@ public class TransactionService {
     }
 
     /**
-     * Simplified stock validation
+     * Reserve stock for every product in the cart with one batched conditional decrement. A line whose variation
+     * no longer has enough stock is not applied and reported as a shortage, so concurrent tills can't oversell.
+     * Returns the reserved quantity per variation ID.
      */
-    private void validateStockAvailability(List<TransactionItem> items) throws TransactionException {
-        System.out.println("Validating stock availability...");
-
-        List<String> stockErrors = new ArrayList<>();
+    private Map<Integer, Integer> reserveStock(Store store, List<TransactionItem> items, TransactionCalculation calculation)
+            throws TransactionException {
 
         // Group items by product to handle multiple quantities of same product
         Map<Integer, Integer> productQuantities = items.stream()
                 .collect(Collectors.groupingBy(
                         TransactionItem::getProductId,
+                        LinkedHashMap::new,
                         Collectors.summingInt(TransactionItem::getQuantity)
                 ));
 
-        System.out.println("Checking stock for " + productQuantities.size() + " products");
-
-        for (Map.Entry<Integer, Integer> entry : productQuantities.entrySet()) {
-            int productId = entry.getKey();
-            int requiredQuantity = entry.getValue();
+        List<Integer> productIds = new ArrayList<>();
+        for (Integer productId : productQuantities.keySet()) {
+            if (calculation.getSnapshot().getVariation(productId) != null) {
+                productIds.add(productId);
+            } else if (LOG.isDebugEnabled()) {
+                // No variation found - assume unlimited stock
+                LOG.debug("No variation found for product %s - skipping stock update", productId);
+            }
+        }
 
-            System.out.println("Checking product ID " + productId + " - required: " + requiredQuantity);
+        Map<Integer, Integer> reserved = new LinkedHashMap<>();
+        if (productIds.isEmpty()) {
+            return reserved;
+        }
 
-            // Get the single variation for this product
-            List<ProductVariation> variations = productVariationDAO.findVariationsByProductId(productId);
+        // Rows are locked in variation ID order, like the rollup upserts, so two tills selling the same items in a
+        // different order wait for each other instead of deadlocking
+        CheckoutSnapshot snapshot = calculation.getSnapshot();
+        productIds.sort(Comparator.comparingInt(productId -> snapshot.getVariation(productId).getId()));
 
-            if (!variations.isEmpty()) {
-                ProductVariation variation = variations.get(0);
-                System.out.println("Available stock: " + variation.getStocks());
+        int[] variationIds = new int[productIds.size()];
+        int[] quantities = new int[productIds.size()];
+        for (int i = 0; i < productIds.size(); i++) {
+            variationIds[i] = calculation.getSnapshot().getVariation(productIds.get(i)).getId();
+            quantities[i] = productQuantities.get(productIds.get(i));
+        }
 
-                if (variation.getStocks() < requiredQuantity) {
-                    Product product = productDAO.findProduct(productId);
-                    String productName = product != null ? product.getName() : "Unknown Product";
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Reducing stock for %s variations", variationIds.length);
+        }
+        int[] results = productVariationDAO.reduceStocks(variationIds, quantities);
 
-                    stockErrors.add(String.format(
-                            "%s: Available %d, Required %d",
-                            productName, variation.getStocks(), requiredQuantity
-                    ));
-                }
-            } else {
-                // No variation found - assume unlimited stock or add warning
-                System.out.println("No variation found for product " + productId + " - assuming sufficient stock");
+        List<Integer> shortLines = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] < 0) {
+                throw new TransactionException("Failed to update stock - DAO returned: " + results[i]
+                        + ", the database error is in the log");
+            }
+            if (results[i] == 0) {
+                shortLines.add(i);
             }
         }
 
-        if (!stockErrors.isEmpty()) {
+        if (!shortLines.isEmpty()) {
+            // The snapshot stock may come from the cache and be minutes old, so the shortage shows the current stock
+            List<Integer> shortProductIds = new ArrayList<>();
+            for (int i : shortLines) {
+                shortProductIds.add(productIds.get(i));
+            }
+            Map<Integer, Integer> availableStock = new HashMap<>();
+            for (ProductVariation variation : productVariationDAO.findVariationsByProductIds(shortProductIds)) {
+                availableStock.put(variation.getId(), variation.getStocks());
+            }
+
+            List<String> stockErrors = new ArrayList<>();
+            for (int i : shortLines) {
+                int available = availableStock.getOrDefault(variationIds[i],
+                        snapshot.getVariation(productIds.get(i)).getStocks());
+                stockErrors.add(String.format(
+                        "%s: Available %d, Required %d",
+                        snapshot.describe(productIds.get(i)), available, quantities[i]
+                ));
+            }
+
+            // The cached stock was wrong, so the next screen load must read it from the database again
+            catalogCache.invalidate(store.getId());
             throw new TransactionException("Insufficient stock for the following items:\n" +
                     String.join("\n", stockErrors));
         }
 
-        System.out.println("Stock validation completed successfully");
+        for (int i = 0; i < variationIds.length; i++) {
+            reserved.put(variationIds[i], quantities[i]);
+        }
+        return reserved;
+    }
+
+    /**
+     * Build the receipt lines from the checkout snapshot
+     */
+    private List<String> buildReceiptLines(List<TransactionItem> items, CheckoutSnapshot snapshot) {
+        List<String> receiptLines = new ArrayList<>(items.size());
+        for (TransactionItem item : items) {
+            receiptLines.add(String.format("%s x%d @ Rp %,.0f = Rp %,.0f",
+                    snapshot.describe(item.getProductId()), item.getQuantity(), item.getPricePerUnit(),
+                    item.getTotalPrice()));
+        }
+        return receiptLines;
     }
 
     /**
@@ -308,12 +447,7 @@ public class TransactionService {
      */
     private Transaction createTransactionRecord(Store store, User user, double totalAmount) {
         Timestamp currentTime = new Timestamp(System.currentTimeMillis());
-        Transaction transaction = new Transaction(store.getId(), user.getId(), currentTime, totalAmount);
-
-        System.out.println("Created transaction record: Store ID=" + store.getId() +
-                ", User ID=" + user.getId() + ", Total=" + totalAmount + ", Time=" + currentTime);
-
-        return transaction;
+        return new Transaction(store.getId(), user.getId(), currentTime, totalAmount);
     }
 
     /**
@@ -321,83 +455,52 @@ public class TransactionService {
      */
     private int insertTransactionRecord(Transaction transaction) throws TransactionException {
         try {
-            System.out.println("Inserting transaction record...");
             int transactionId = transactionDAO.insertTransaction(transaction);
 
             if (transactionId <= 0) {
                 throw new TransactionException("Failed to insert transaction record - DAO returned invalid ID: " + transactionId);
             }
 
-            System.out.println("Transaction record inserted successfully with ID: " + transactionId);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Transaction record inserted with ID: %s", transactionId);
+            }
             return transactionId;
 
         } catch (Exception e) {
             String errorMsg = "Database error while creating transaction: " + e.getMessage();
-            System.err.println(errorMsg);
-            e.printStackTrace();
+            LOG.error(errorMsg, e);
             throw new TransactionException(errorMsg, e);
         }
     }
 
     /**
-     * Simplified transaction items processing - no variation_id needed
+     * Simplified transaction items processing - no variation_id needed, all details are inserted in one batch
      */
     private List<TransactionDetail> processTransactionItems(int transactionId, List<TransactionItem> items)
             throws TransactionException {
 
-        System.out.println("Processing " + items.size() + " transaction items for transaction ID: " + transactionId);
-
-        List<TransactionDetail> transactionDetails = new ArrayList<>();
+        List<TransactionDetail> transactionDetails = new ArrayList<>(items.size());
 
-        for (int i = 0; i < items.size(); i++) {
-            TransactionItem item = items.get(i);
-            System.out.println("Processing item " + (i + 1) + "/" + items.size() + ": " + item);
-
-            try {
-                // Simplified: Create transaction detail with only product_id, no variation_id
-                TransactionDetail detail = new TransactionDetail(
-                        item.getProductId(),
-                        0, // Set variation_id to 0 (will be NULL in database)
-                        item.getQuantity(),
-                        item.getPricePerUnit()
-                );
-
-                // Set transaction ID
-                detail.setTransactionId(transactionId);
-
-                System.out.println("Created TransactionDetail: " +
-                        "TransactionID=" + detail.getTransactionId() +
-                        ", ProductID=" + detail.getProductID() +
-                        ", Quantity=" + detail.getQuantity() +
-                        ", PricePerUnit=" + detail.getPricePerUnit());
-
-                // Validate detail before insertion
-                validateTransactionDetail(detail);
-
-                // Insert transaction detail
-                int detailId = transactionDetailDAO.insertTransactionDetail(detail);
-                System.out.println("TransactionDetail insertion result: " + detailId);
-
-                if (detailId <= 0) {
-                    throw new TransactionException("Failed to create transaction detail for product " +
-                            item.getProductId() + " - DAO returned invalid ID: " + detailId);
-                }
-
-                detail.setId(detailId);
-                transactionDetails.add(detail);
-
-                System.out.println("Successfully created transaction detail with ID: " + detailId);
+        for (TransactionItem item : items) {
+            // Simplified: Create transaction detail with only product_id, no variation_id
+            TransactionDetail detail = new TransactionDetail(
+                    item.getProductId(),
+                    0, // Set variation_id to 0 (will be NULL in database)
+                    item.getQuantity(),
+                    item.getPricePerUnit()
+            );
+            detail.setTransactionId(transactionId);
 
-            } catch (Exception e) {
-                String errorMsg = "Error processing transaction item " + (i + 1) + " (Product ID: " +
-                        item.getProductId() + "): " + e.getMessage();
-                System.err.println(errorMsg);
-                e.printStackTrace();
-                throw new TransactionException(errorMsg, e);
-            }
+            // Validate detail before insertion
+            validateTransactionDetail(detail);
+            transactionDetails.add(detail);
         }
 
-        System.out.println("Successfully processed all " + transactionDetails.size() + " transaction items");
+        int inserted = transactionDetailDAO.insertTransactionDetails(transactionDetails);
+        if (inserted != transactionDetails.size()) {
+            throw new TransactionException("Failed to create transaction details for transaction " +
+                    transactionId + " - DAO returned: " + inserted);
+        }
         return transactionDetails;
     }
 
@@ -420,130 +523,32 @@ public class TransactionService {
         if (detail.getPricePerUnit() < 0) {
             throw new TransactionException("Price per unit cannot be negative: " + detail.getPricePerUnit());
         }
-
-        System.out.println("TransactionDetail validation passed");
-    }
-
-    /**
-     * Simplified stock update
-     */
-    private void updateProductStocks(List<TransactionItem> items) throws TransactionException {
-        System.out.println("Updating product stocks...");
-
-        // Group items by product to handle multiple quantities
-        Map<Integer, Integer> productQuantities = items.stream()
-                .collect(Collectors.groupingBy(
-                        TransactionItem::getProductId,
-                        Collectors.summingInt(TransactionItem::getQuantity)
-                ));
-
-        System.out.println("Updating stock for " + productQuantities.size() + " products");
-
-        for (Map.Entry<Integer, Integer> entry : productQuantities.entrySet()) {
-            int productId = entry.getKey();
-            int quantityToReduce = entry.getValue();
-
-            System.out.println("Updating stock for product " + productId + " - reducing by " + quantityToReduce);
-
-            try {
-                // Get the single variation for this product
-                List<ProductVariation> variations = productVariationDAO.findVariationsByProductId(productId);
-
-                if (!variations.isEmpty()) {
-                    ProductVariation variation = variations.get(0);
-                    int originalStock = variation.getStocks();
-                    int newStock = originalStock - quantityToReduce;
-
-                    System.out.println("Stock update: " + originalStock + " -> " + newStock);
-
-                    if (newStock < 0) {
-                        throw new TransactionException("Stock would become negative for product " + productId +
-                                ": " + originalStock + " - " + quantityToReduce + " = " + newStock);
-                    }
-
-                    variation.setStocks(newStock);
-                    int updateResult = productVariationDAO.updateProductVariation(variation.getId(), variation);
-
-                    if (updateResult <= 0) {
-                        throw new TransactionException("Failed to update stock for product " + productId +
-                                " - DAO returned: " + updateResult);
-                    }
-
-                    System.out.println("Successfully updated stock for product " + productId +
-                            ": " + originalStock + " -> " + newStock);
-                } else {
-                    System.out.println("No variation found for product " + productId + " - skipping stock update");
-                }
-
-            } catch (Exception e) {
-                String errorMsg = "Error updating stock for product " + productId + ": " + e.getMessage();
-                System.err.println(errorMsg);
-                e.printStackTrace();
-                throw new TransactionException(errorMsg, e);
-            }
-        }
-
-        System.out.println("Stock update completed successfully");
-    }
-
-    /**
-     * Enhanced rollback with logging
-     */
-    private void rollbackTransaction(Connection conn) {
-        if (conn != null) {
-            try {
-                System.out.println("Rolling back transaction...");
-                conn.rollback();
-                System.out.println("Transaction rolled back successfully");
-            } catch (SQLException e) {
-                System.err.println("Failed to rollback transaction: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
-    }
-
-    /**
-     * Enhanced connection cleanup
-     */
-    private void closeConnection(Connection conn) {
-        if (conn != null) {
-            try {
-                conn.setAutoCommit(true);
-                conn.close();
-                System.out.println("Database connection closed");
-            } catch (SQLException e) {
-                System.err.println("Failed to close database connection: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
     }
 
     // ==================== REPORTING METHODS ====================
 
     /**
-     * Get transaction history for a specific store
+     * Get one page of transaction history for a specific store, newest first. Pass the ID of the last transaction
+     * of the previous page as afterId, or 0 for the first page.
      */
-    public List<Transaction> getTransactionHistory(int storeId) {
+    public List<Transaction> getTransactionHistory(int storeId, int afterId, int limit) {
         try {
-            return transactionDAO.findAllTransactions().stream()
-                    .filter(t -> t.getStoreID() == storeId)
-                    .collect(Collectors.toList());
+            return transactionDAO.findTransactionsByStore(storeId, afterId, limit);
         } catch (Exception e) {
-            System.err.println("Error retrieving transaction history: " + e.getMessage());
+            LOG.error("Error retrieving transaction history: %s", e.getMessage());
             return new ArrayList<>();
         }
     }
 
     /**
-     * Get transaction details for a specific transaction
+     * Get one page of transaction details for a specific transaction of a store. Pass the ID of the last detail
+     * of the previous page as afterId, or 0 for the first page.
      */
-    public List<TransactionDetail> getTransactionDetails(int transactionId) {
+    public List<TransactionDetail> getTransactionDetails(int storeId, int transactionId, int afterId, int limit) {
         try {
-            return transactionDetailDAO.findAllTransactionDetails().stream()
-                    .filter(td -> td.getTransactionId() == transactionId)
-                    .collect(Collectors.toList());
+            return transactionDetailDAO.findDetailsByTransaction(storeId, transactionId, afterId, limit);
         } catch (Exception e) {
-            System.err.println("Error retrieving transaction details: " + e.getMessage());
+            LOG.error("Error retrieving transaction details: %s", e.getMessage());
             return new ArrayList<>();
         }
     }
@@ -603,16 +608,43 @@ public class TransactionService {
         private final double totalAmount;
         private final double changeAmount;
         private final Map<String, Double> itemTotals;
+        private final CheckoutSnapshot snapshot;
 
-        public TransactionCalculation(double totalAmount, double changeAmount, Map<String, Double> itemTotals) {
+        public TransactionCalculation(double totalAmount, double changeAmount, Map<String, Double> itemTotals,
+                                      CheckoutSnapshot snapshot) {
             this.totalAmount = totalAmount;
             this.changeAmount = changeAmount;
             this.itemTotals = itemTotals;
+            this.snapshot = snapshot;
         }
 
         public double getTotalAmount() { return totalAmount; }
         public double getChangeAmount() { return changeAmount; }
         public Map<String, Double> getItemTotals() { return itemTotals; }
+        public CheckoutSnapshot getSnapshot() { return snapshot; }
+    }
+
+    /**
+     * Products and variations of the basket, loaded once at the start of checkout
+     */
+    private static class CheckoutSnapshot {
+        private final Map<Integer, Product> products;
+        private final Map<Integer, ProductVariation> variations; // keyed by product ID
+
+        public CheckoutSnapshot(Map<Integer, Product> products, Map<Integer, ProductVariation> variations) {
+            this.products = products;
+            this.variations = variations;
+        }
+
+        public Product getProduct(int productId) { return products.get(productId); }
+        public ProductVariation getVariation(int productId) { return variations.get(productId); }
+
+        public String describe(int productId) {
+            Product product = products.get(productId);
+            ProductVariation variation = variations.get(productId);
+            String name = product != null ? product.getName() : "Product " + productId;
+            return variation != null ? name + " (" + variation.getValue() + ")" : name;
+        }
     }
 
     /**
@@ -625,16 +657,25 @@ public class TransactionService {
         private final double changeAmount;
         private final List<TransactionDetail> transactionDetails;
         private final Timestamp transactionTime;
+        private final List<String> receiptLines;
 
         public TransactionResult(int transactionId, double totalAmount, double paymentAmount,
                                  double changeAmount, List<TransactionDetail> transactionDetails,
                                  Timestamp transactionTime) {
+            this(transactionId, totalAmount, paymentAmount, changeAmount, transactionDetails, transactionTime,
+                    new ArrayList<>());
+        }
+
+        public TransactionResult(int transactionId, double totalAmount, double paymentAmount,
+                                 double changeAmount, List<TransactionDetail> transactionDetails,
+                                 Timestamp transactionTime, List<String> receiptLines) {
             this.transactionId = transactionId;
             this.totalAmount = totalAmount;
             this.paymentAmount = paymentAmount;
             this.changeAmount = changeAmount;
             this.transactionDetails = transactionDetails;
             this.transactionTime = transactionTime;
+            this.receiptLines = receiptLines;
         }
 
         // Getters
@@ -644,6 +685,7 @@ public class TransactionService {
         public double getChangeAmount() { return changeAmount; }
         public List<TransactionDetail> getTransactionDetails() { return transactionDetails; }
         public Timestamp getTransactionTime() { return transactionTime; }
+        public List<String> getReceiptLines() { return receiptLines; }
 
         @Override
         public String toString() {
@@ -17,7 +17,7 @@ public class UserService {
     private MySqlUserDAO userDAO;
 
     public UserService() {
-        DAOFactory factory = DAOFactory.getDAOFactory(DAOFactory.MYSQL);
+        DAOFactory factory = DAOFactory.getDAOFactory();
         this.userDAO = (MySqlUserDAO) factory.getUserDAO();
     }
 
@@ -102,6 +102,20 @@ public class UserService {
         return userDAO.getAllUsers();
     }
 
+    /**
+     * Gets one page of the users with access to a store, ordered by name
+     *
+     * @param storeId    the store whose users are loaded
+     * @param roleFilter role the users must have, null for every role
+     * @param nameLike   start of the name or username to search for, empty for every user
+     * @param page       page number, starting at 0
+     * @param pageSize   maximum number of users in the page
+     * @return List of matching users
+     */
+    public List<User> getUsersByStore(int storeId, Role roleFilter, String nameLike, int page, int pageSize) {
+        return userDAO.findUsersByStore(storeId, roleFilter, nameLike, page, pageSize);
+    }
+
     /**
      * Finds a user by their ID
      *
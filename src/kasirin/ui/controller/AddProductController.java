@@ -11,6 +11,7 @@ import kasirin.data.model.User;
 import kasirin.service.ProductService;
 import kasirin.service.ProductVariationService;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -27,6 +28,7 @@ public class AddProductController implements Initializable {
     @FXML private TextField nameField;
     @FXML private TextField categoryField;
     @FXML private TextField basePriceField;
+    @FXML private TextField barcodeField;
     @FXML private TextArea descriptionArea;
 
     // Single variation fields
@@ -43,12 +45,17 @@ public class AddProductController implements Initializable {
     private Store currentStore;
     private ProductService productService;
     private ProductVariationService variationService;
+    private AsyncUtil.Scope tasks;
     private ProductsController parentController;
 
+    private enum SaveResult { SAVED, VARIATION_FAILED, PRODUCT_FAILED }
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         productService = new ProductService();
         variationService = new ProductVariationService();
+        tasks = AsyncUtil.scope(saveButton);
+        saveButton.disableProperty().bind(tasks.loadingProperty());
 
         setupValidation();
         setupDefaultValues();
@@ -122,23 +129,18 @@ public class AddProductController implements Initializable {
             String imageUrl = null;
             // Buat objek produk baru
             Product product = new Product(name, currentStore.getId(), category, basePrice, description, imageUrl);
+            product.setBarcode(barcodeField.getText().trim());
 
-            // Simpan produk ke database
-            int productId = productService.addProduct(product);
-
-            if (productId > 0) {
-                // Ambil data variasi dari form
-                String type = variationTypeField.getText().trim();
-                String value = variationValueField.getText().trim();
-                int stock = Integer.parseInt(variationStockField.getText().trim());
-                double additionalPrice = variationPriceField.getText().trim().isEmpty() ?
-                        0.0 : Double.parseDouble(variationPriceField.getText().trim());
-
-                // Buat variasi untuk produk
-                ProductVariation variation = new ProductVariation(productId, type, value, additionalPrice, stock);
-                int variationId = variationService.addProductVariation(variation);
+            // Ambil data variasi dari form
+            String type = variationTypeField.getText().trim();
+            String value = variationValueField.getText().trim();
+            int stock = Integer.parseInt(variationStockField.getText().trim());
+            double additionalPrice = variationPriceField.getText().trim().isEmpty() ?
+                    0.0 : Double.parseDouble(variationPriceField.getText().trim());
 
-                if (variationId > 0) {
+            // Simpan ke database di background thread, tombol simpan dinonaktifkan selama proses
+            tasks.submit("save", () -> saveProduct(product, type, value, additionalPrice, stock), result -> {
+                if (result == SaveResult.SAVED) {
                     AlertUtil.showInfo("Berhasil",
                             "Produk '" + name + "' berhasil ditambahkan dengan variasi '" + value + "'!");
 
@@ -148,25 +150,46 @@ public class AddProductController implements Initializable {
                     }
 
                     handleCancel();
-                } else {
-                    // Jika variasi gagal, hapus produk yang sudah dibuat
-                    productService.deleteProduct(productId);
+                } else if (result == SaveResult.VARIATION_FAILED) {
                     AlertUtil.showError("Gagal", "Gagal menambahkan variasi produk. Produk dibatalkan.");
+                } else {
+                    AlertUtil.showError("Gagal", "Gagal menambahkan produk. Silakan coba lagi.");
                 }
-            } else {
-                AlertUtil.showError("Gagal", "Gagal menambahkan produk. Silakan coba lagi.");
-            }
+            }, error -> {
+                if (error instanceof IllegalArgumentException) {
+                    AlertUtil.showError("Validasi Gagal", error.getMessage());
+                } else {
+                    System.err.println("Error saat menyimpan produk: " + error.getMessage());
+                    AlertUtil.showError("Error", "Terjadi kesalahan: " + error.getMessage());
+                }
+            });
 
         } catch (NumberFormatException e) {
             AlertUtil.showError("Input Tidak Valid", "Silakan masukkan nilai numerik yang valid.");
-        } catch (IllegalArgumentException e) {
-            AlertUtil.showError("Validasi Gagal", e.getMessage());
-        } catch (Exception e) {
-            System.err.println("Error saat menyimpan produk: " + e.getMessage());
-            AlertUtil.showError("Error", "Terjadi kesalahan: " + e.getMessage());
         }
     }
 
+    /**
+     * Simpan produk baru beserta variasinya, dijalankan di background thread
+     */
+    private SaveResult saveProduct(Product product, String type, String value, double additionalPrice, int stock) {
+        // Simpan produk ke database
+        int productId = productService.addProduct(product);
+        if (productId <= 0) {
+            return SaveResult.PRODUCT_FAILED;
+        }
+
+        // Buat variasi untuk produk
+        ProductVariation variation = new ProductVariation(productId, type, value, additionalPrice, stock);
+        int variationId = variationService.addProductVariation(variation);
+        if (variationId <= 0) {
+            // Jika variasi gagal, hapus produk yang sudah dibuat
+            productService.deleteProduct(productId);
+            return SaveResult.VARIATION_FAILED;
+        }
+        return SaveResult.SAVED;
+    }
+
     /**
      * Validasi input form
      */
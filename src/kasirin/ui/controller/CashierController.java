@@ -12,6 +12,7 @@ import kasirin.data.model.User;
 import kasirin.service.StoreService;
 import kasirin.service.UserService;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.util.List;
@@ -48,13 +49,18 @@ public class CashierController implements Initializable {
     private Store currentStore;
     private UserService userService;
     private StoreService storeService;
+    private AsyncUtil.Scope tasks;
     private ObservableList<User> cashierList;
 
+    // Batas kasir yang ditampilkan sekaligus, jauh di atas jumlah kasir satu toko
+    private static final int CASHIER_PAGE_SIZE = 200;
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
             userService = new UserService();
             storeService = new StoreService();
+            tasks = AsyncUtil.scope(cashierTable);
             cashierList = FXCollections.observableArrayList();
 
             setupTable();
@@ -182,37 +188,31 @@ public class CashierController implements Initializable {
      * Muat daftar kasir untuk toko saat ini
      */
     private void loadCashiers() {
-        try {
-            // TODO: Tim dapat mengoptimalkan query ini
-            // Saat ini mengambil semua user lalu filter, bisa dibuat query khusus
-
-            List<User> allUsers = userService.getAllUsers();
-            cashierList.clear();
-
-            for (User user : allUsers) {
-                if (user.getRole() == Role.STAFF) {
-                    // Cek apakah user memiliki akses ke toko saat ini
-                    List<Store> userStores = storeService.getStoresByUserId(user.getId());
-                    for (Store store : userStores) {
-                        if (store.getId() == currentStore.getId()) {
-                            cashierList.add(user);
-                            break;
-                        }
-                    }
-                }
-            }
-
+        // Query dijalankan di background thread, pencarian dengan key yang sama membatalkan hasil yang lama
+        tasks.submit("cashiers", () -> findStoreCashiers(currentStore.getId(), ""), cashiers -> {
+            cashierList.setAll(cashiers);
             totalCashiersLabel.setText(cashierList.size() + " kasir");
 
             // TODO: Tim dapat menambahkan statistik tambahan
             // Contoh: kasir aktif hari ini, total transaksi per kasir, dll.
 
             System.out.println("Dimuat " + cashierList.size() + " kasir untuk toko: " + currentStore.getName());
-        } catch (Exception e) {
-            System.err.println("Error memuat kasir: " + e.getMessage());
-            e.printStackTrace();
-            AlertUtil.showError("Error", "Gagal memuat daftar kasir: " + e.getMessage());
-        }
+        }, error -> {
+            System.err.println("Error memuat kasir: " + error.getMessage());
+            error.printStackTrace();
+            AlertUtil.showError("Error", "Gagal memuat daftar kasir: " + error.getMessage());
+        });
+    }
+
+    /**
+     * Cari kasir toko saat ini yang nama atau username-nya diawali kata kunci, dengan satu query
+     * Dijalankan di background thread, jangan menyentuh komponen UI di sini
+     *
+     * @param storeId    ID toko saat ini
+     * @param searchTerm kata kunci, kosong untuk semua kasir
+     */
+    private List<User> findStoreCashiers(int storeId, String searchTerm) {
+        return userService.getUsersByStore(storeId, Role.STAFF, searchTerm, 0, CASHIER_PAGE_SIZE);
     }
 
     /**
@@ -224,24 +224,27 @@ public class CashierController implements Initializable {
             return;
         }
 
-        try {
-            String name = nameField.getText().trim();
-            String username = usernameField.getText().trim();
-            String password = passwordField.getText();
-            String confirmPassword = confirmPasswordField.getText();
+        String name = nameField.getText().trim();
+        String username = usernameField.getText().trim();
+        String password = passwordField.getText();
+        String confirmPassword = confirmPasswordField.getText();
 
-            // TODO: Tim dapat menambahkan validasi bisnis tambahan
-            // Contoh:
-            // - Cek limit maksimal kasir per toko
-            // - Validasi format nama (tidak boleh angka, dll.)
-            // - Enkripsi password dengan algoritma yang lebih kuat
+        // TODO: Tim dapat menambahkan validasi bisnis tambahan
+        // Contoh:
+        // - Cek limit maksimal kasir per toko
+        // - Validasi format nama (tidak boleh angka, dll.)
+        // - Enkripsi password dengan algoritma yang lebih kuat
 
+        addCashierBtn.setDisable(true);
+        int storeId = currentStore.getId();
+        tasks.submit("add-cashier", () -> {
             // Buat user kasir baru dengan role STAFF
             User newCashier = userService.registerUser(name, username, password, confirmPassword, Role.STAFF);
 
             // Link kasir ke toko saat ini melalui user_store_access
-            boolean linked = storeService.linkUserToStore(newCashier.getId(), currentStore.getId());
-
+            return storeService.linkUserToStore(newCashier.getId(), storeId);
+        }, linked -> {
+            addCashierBtn.setDisable(false);
             if (linked) {
                 // TODO: Tim dapat menambahkan logika setelah berhasil membuat kasir
                 // Contoh:
@@ -258,14 +261,16 @@ public class CashierController implements Initializable {
             } else {
                 AlertUtil.showError("Error", "Kasir berhasil dibuat tetapi gagal menghubungkan ke toko. Silakan coba lagi.");
             }
-
-        } catch (IllegalArgumentException e) {
-            AlertUtil.showError("Validasi Gagal", e.getMessage());
-        } catch (Exception e) {
-            // TODO: Tim dapat menambahkan logging error yang lebih detail
-            System.err.println("Error membuat kasir: " + e.getMessage());
-            AlertUtil.showError("Error", "Gagal membuat kasir: " + e.getMessage());
-        }
+        }, error -> {
+            addCashierBtn.setDisable(false);
+            if (error instanceof IllegalArgumentException) {
+                AlertUtil.showError("Validasi Gagal", error.getMessage());
+            } else {
+                // TODO: Tim dapat menambahkan logging error yang lebih detail
+                System.err.println("Error membuat kasir: " + error.getMessage());
+                AlertUtil.showError("Error", "Gagal membuat kasir: " + error.getMessage());
+            }
+        });
     }
 
     /**
@@ -287,14 +292,13 @@ public class CashierController implements Initializable {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    // TODO: Tim perlu implementasi soft delete atau transfer data
-                    // Sebelum menghapus user, pastikan:
-                    // 1. Backup/transfer semua transaksi kasir
-                    // 2. Update referensi di tabel lain
-                    // 3. Log aktivitas penghapusan
-
-                    boolean deleted = userService.deleteUser(cashier.getId());
+                // TODO: Tim perlu implementasi soft delete atau transfer data
+                // Sebelum menghapus user, pastikan:
+                // 1. Backup/transfer semua transaksi kasir
+                // 2. Update referensi di tabel lain
+                // 3. Log aktivitas penghapusan
+
+                tasks.submit("delete-" + cashier.getId(), () -> userService.deleteUser(cashier.getId()), deleted -> {
                     if (deleted) {
                         AlertUtil.showInfo("Berhasil", "Kasir berhasil dihapus!");
                         loadCashiers();
@@ -305,9 +309,7 @@ public class CashierController implements Initializable {
                     } else {
                         AlertUtil.showError("Error", "Gagal menghapus kasir.");
                     }
-                } catch (Exception e) {
-                    AlertUtil.showError("Error", "Gagal menghapus kasir: " + e.getMessage());
-                }
+                }, error -> AlertUtil.showError("Error", "Gagal menghapus kasir: " + error.getMessage()));
             }
         });
     }
@@ -374,41 +376,19 @@ public class CashierController implements Initializable {
      */
     @FXML
     private void searchCashiers() {
-        String searchTerm = searchField.getText().trim().toLowerCase();
+        String searchTerm = searchField.getText().trim();
 
         if (searchTerm.isEmpty()) {
             loadCashiers();
             return;
         }
 
-        try {
-            // TODO: Tim dapat mengoptimalkan pencarian ini dengan query database
-            // Saat ini filter di memori, bisa dibuat query LIKE di database
-
-            List<User> allUsers = userService.getAllUsers();
-            cashierList.clear();
-
-            for (User user : allUsers) {
-                if (user.getRole() == Role.STAFF) {
-                    // Cek akses ke toko saat ini
-                    List<Store> userStores = storeService.getStoresByUserId(user.getId());
-                    boolean hasAccess = userStores.stream().anyMatch(store -> store.getId() == currentStore.getId());
-
-                    // Filter berdasarkan nama atau username
-                    if (hasAccess && (user.getName().toLowerCase().contains(searchTerm) ||
-                            user.getUsername().toLowerCase().contains(searchTerm))) {
-                        cashierList.add(user);
-                    }
-                }
-            }
-
+        tasks.submit("cashiers", () -> findStoreCashiers(currentStore.getId(), searchTerm), cashiers -> {
+            cashierList.setAll(cashiers);
             totalCashiersLabel.setText(cashierList.size() + " kasir ditemukan");
 
             // TODO: Tim dapat menambahkan highlight hasil pencarian
-
-        } catch (Exception e) {
-            AlertUtil.showError("Error", "Pencarian gagal: " + e.getMessage());
-        }
+        }, error -> AlertUtil.showError("Error", "Pencarian gagal: " + error.getMessage()));
     }
 
     /**
@@ -8,6 +8,7 @@ import kasirin.data.model.Store;
 import kasirin.data.model.User;
 import kasirin.service.StoreService;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -27,10 +28,13 @@ public class CreateStoreController implements Initializable {
     private User currentUser;
     private MainController parentController;
     private StoreService storeService;
+    private AsyncUtil.Scope tasks;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         storeService = new StoreService();
+        tasks = AsyncUtil.scope(createButton);
+        createButton.disableProperty().bind(tasks.loadingProperty());
     }
     
     /// Initialize with user data and parent controller
@@ -53,13 +57,12 @@ public class CreateStoreController implements Initializable {
             return;
         }
         
-        try {
-            // Create store object
-            Store newStore = new Store(name, type, address);
-            
-            // Save to database and link with user
-            int storeId = storeService.createStore(newStore, currentUser.getId());
-            
+        // Create store object
+        Store newStore = new Store(name, type, address);
+        int userId = currentUser.getId();
+
+        // Save to database and link with user, in the background
+        tasks.submit("create-store", () -> storeService.createStore(newStore, userId), storeId -> {
             if (storeId > 0) {
                 AlertUtil.showInfo("Sukses", "Toko berhasil dibuat!");
                 
@@ -76,10 +79,7 @@ public class CreateStoreController implements Initializable {
             } else {
                 AlertUtil.showError("Error", "Gagal membuat toko. Silakan coba lagi.");
             }
-            
-        } catch (Exception e) {
-            AlertUtil.showError("Error", "Terjadi kesalahan: " + e.getMessage());
-        }
+        }, error -> AlertUtil.showError("Error", "Terjadi kesalahan: " + error.getMessage()));
     }
     
     /// Handle cancel button click
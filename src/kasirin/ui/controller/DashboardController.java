@@ -10,12 +10,14 @@ import javafx.scene.chart.*;
 import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
 import javafx.geometry.Pos;
+import kasirin.data.model.LowStockVariation;
 import kasirin.data.model.Store;
 import kasirin.data.model.User;
 import kasirin.service.DashboardService;
 import kasirin.service.DashboardService.DashboardStats;
 import kasirin.service.DashboardService.TopProduct;
 import kasirin.service.DashboardService.RecentTransaction;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.time.LocalDateTime;
@@ -70,12 +72,14 @@ public class DashboardController implements Initializable {
     private User currentUser;
     private Store currentStore;
     private DashboardService dashboardService;
+    private AsyncUtil.Scope tasks;
     private ObservableList<RecentTransactionItem> recentTransactionItems;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
             dashboardService = new DashboardService();
+            tasks = AsyncUtil.scope(refreshBtn);
             recentTransactionItems = FXCollections.observableArrayList();
 
             setupWelcomeView();
@@ -250,16 +254,21 @@ public class DashboardController implements Initializable {
 
             System.out.println("Loading comprehensive dashboard data for store: " + currentStore.getName());
 
-            // Get dashboard statistics
-            DashboardStats stats = dashboardService.getDashboardStats(currentStore.getId());
-
-            // Update all dashboard components
-            updateSummaryCards(stats);
-            updateCharts(stats);
-            updateLists(stats);
-            updateRecentTransactionsTable(stats.getRecentTransactions());
-
-            System.out.println("Dashboard data loaded successfully");
+            // Get dashboard statistics in the background, a refresh replaces a load that is still running
+            int storeId = currentStore.getId();
+            tasks.submit("dashboard", () -> dashboardService.getDashboardStats(storeId), stats -> {
+                // Update all dashboard components
+                updateSummaryCards(stats);
+                updateCharts(stats);
+                updateLists(stats);
+                updateRecentTransactionsTable(stats.getRecentTransactions());
+                showUnavailableSections(stats);
+
+                System.out.println("Dashboard data loaded successfully");
+            }, error -> {
+                System.err.println("Error loading dashboard data: " + error.getMessage());
+                error.printStackTrace();
+            });
         } catch (Exception e) {
             System.err.println("Error loading dashboard data: " + e.getMessage());
             e.printStackTrace();
@@ -409,12 +418,42 @@ public class DashboardController implements Initializable {
         }
     }
 
+    /**
+     * Tandai bagian dashboard yang terlalu lambat atau gagal dimuat, bagian lain tetap ditampilkan
+     */
+    private void showUnavailableSections(DashboardStats stats) {
+        if (recentTransactionsTable != null) recentTransactionsTable.setPlaceholder(null);
+        if (stats.getUnavailableSections().isEmpty()) return;
+
+        System.err.println("Dashboard sections unavailable: " + stats.getUnavailableSections());
+        String notLoaded = "⏳ Data belum tersedia, coba refresh";
+
+        if (!stats.isSectionAvailable(DashboardService.SECTION_SALES)) {
+            if (todaySalesLabel != null) todaySalesLabel.setText("-");
+            if (transactionCountLabel != null) transactionCountLabel.setText("-");
+            if (avgOrderLabel != null) avgOrderLabel.setText("-");
+        }
+        if (!stats.isSectionAvailable(DashboardService.SECTION_PRODUCTS) && productCountLabel != null) {
+            productCountLabel.setText("-");
+        }
+        if (!stats.isSectionAvailable(DashboardService.SECTION_LOW_STOCK)) {
+            if (lowStockLabel != null) lowStockLabel.setText("-");
+            if (lowStockList != null) lowStockList.getItems().setAll(notLoaded);
+        }
+        if (!stats.isSectionAvailable(DashboardService.SECTION_TOP_PRODUCTS) && topProductsList != null) {
+            topProductsList.getItems().setAll(notLoaded);
+        }
+        if (!stats.isSectionAvailable(DashboardService.SECTION_RECENT_TRANSACTIONS) && recentTransactionsTable != null) {
+            recentTransactionsTable.setPlaceholder(new Label(notLoaded));
+        }
+    }
+
     /**
      * Update lists with relevant information
      */
     private void updateLists(DashboardStats stats) {
         updateTopProductsList(stats.getTopProducts());
-        updateLowStockList();
+        updateLowStockList(stats.getLowStockItems());
     }
 
     /**
@@ -433,8 +472,8 @@ public class DashboardController implements Initializable {
 
             for (int i = 0; i < Math.min(5, topProducts.size()); i++) {
                 TopProduct product = topProducts.get(i);
-                String item = String.format("🏆 %d. %s (%d terjual)",
-                        i + 1, product.getName(), product.getSalesCount());
+                String item = String.format("🏆 %d. %s (%d terjual, Rp %,.0f)",
+                        i + 1, product.getName(), product.getSalesCount(), product.getRevenue());
                 topProductsList.getItems().add(item);
             }
 
@@ -447,18 +486,16 @@ public class DashboardController implements Initializable {
     /**
      * Update low stock list
      */
-    private void updateLowStockList() {
+    private void updateLowStockList(java.util.List<LowStockVariation> lowStockItems) {
         if (lowStockList == null) return;
 
         try {
             lowStockList.getItems().clear();
 
-            // This would typically fetch from ProductVariationService
-            lowStockList.getItems().addAll(
-                    "⚠️ Produk A - Stok: 5",
-                    "⚠️ Produk B - Stok: 3",
-                    "⚠️ Produk C - Stok: 8"
-            );
+            for (LowStockVariation item : lowStockItems) {
+                lowStockList.getItems().add(String.format("⚠️ %s (%s: %s) - Stok: %d",
+                        item.getProductName(), item.getType(), item.getValue(), item.getStocks()));
+            }
 
             if (lowStockList.getItems().isEmpty()) {
                 lowStockList.getItems().add("✅ Semua produk stok aman");
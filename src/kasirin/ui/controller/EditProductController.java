@@ -11,6 +11,7 @@ import kasirin.data.model.User;
 import kasirin.service.ProductService;
 import kasirin.service.ProductVariationService;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.util.List;
@@ -28,6 +29,7 @@ public class EditProductController implements Initializable {
     @FXML private TextField nameField;
     @FXML private TextField categoryField;
     @FXML private TextField basePriceField;
+    @FXML private TextField barcodeField;
     @FXML private TextArea descriptionArea;
 
 
@@ -47,12 +49,17 @@ public class EditProductController implements Initializable {
     private ProductVariation currentVariation;
     private ProductService productService;
     private ProductVariationService variationService;
+    private AsyncUtil.Scope tasks;
     private ProductsController parentController;
 
+    private enum SaveResult { SAVED, VARIATION_FAILED, PRODUCT_FAILED }
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         productService = new ProductService();
         variationService = new ProductVariationService();
+        tasks = AsyncUtil.scope(saveButton);
+        saveButton.disableProperty().bind(tasks.loadingProperty());
 
         setupValidation();
     }
@@ -83,6 +90,7 @@ public class EditProductController implements Initializable {
             categoryField.setText(currentProduct.getCategory());
             basePriceField.setText(String.valueOf(currentProduct.getBasePrice()));
             descriptionArea.setText(currentProduct.getDescription() != null ? currentProduct.getDescription() : "");
+            barcodeField.setText(currentProduct.getBarcode() != null ? currentProduct.getBarcode() : "");
         }
     }
 
@@ -92,7 +100,8 @@ public class EditProductController implements Initializable {
     private void loadProductVariation() {
         if (currentProduct != null) {
             try {
-                List<ProductVariation> variations = variationService.getVariationsByProductId(currentProduct.getId());
+                // Variasi sudah dimuat bersama produk oleh daftar produk
+                List<ProductVariation> variations = currentProduct.getVariations();
 
                 if (!variations.isEmpty()) {
                     // Ambil variasi pertama (dan seharusnya satu-satunya)
@@ -164,40 +173,29 @@ public class EditProductController implements Initializable {
             double basePrice = Double.parseDouble(basePriceField.getText().trim());
             String description = descriptionArea.getText().trim();
 
+            // Data variasi
+            String type = variationTypeField.getText().trim();
+            String value = variationValueField.getText().trim();
+            int stock = Integer.parseInt(variationStockField.getText().trim());
+            double additionalPrice = variationPriceField.getText().trim().isEmpty() ?
+                    0.0 : Double.parseDouble(variationPriceField.getText().trim());
+
             currentProduct.setName(name);
             currentProduct.setCategory(category);
             currentProduct.setBasePrice(basePrice);
             currentProduct.setDescription(description);
+            currentProduct.setBarcode(barcodeField.getText().trim());
 
-            // Update produk di database
-            boolean productUpdated = productService.updateProduct(currentProduct.getId(), currentProduct);
-
-            if (productUpdated) {
-                // Update atau buat variasi
-                String type = variationTypeField.getText().trim();
-                String value = variationValueField.getText().trim();
-                int stock = Integer.parseInt(variationStockField.getText().trim());
-                double additionalPrice = variationPriceField.getText().trim().isEmpty() ?
-                        0.0 : Double.parseDouble(variationPriceField.getText().trim());
-
-                boolean variationUpdated = false;
-
-                if (currentVariation != null) {
-                    // Update variasi yang sudah ada
-                    currentVariation.setType(type);
-                    currentVariation.setValue(value);
-                    currentVariation.setStocks(stock);
-                    currentVariation.setAdditionalPrice(additionalPrice);
-
-                    variationUpdated = variationService.updateProductVariation(currentVariation.getId(), currentVariation);
-                } else {
-                    // Buat variasi baru
-                    ProductVariation newVariation = new ProductVariation(currentProduct.getId(), type, value, additionalPrice, stock);
-                    int variationId = variationService.addProductVariation(newVariation);
-                    variationUpdated = variationId > 0;
-                }
+            if (currentVariation != null) {
+                currentVariation.setType(type);
+                currentVariation.setValue(value);
+                currentVariation.setStocks(stock);
+                currentVariation.setAdditionalPrice(additionalPrice);
+            }
 
-                if (variationUpdated) {
+            // Simpan ke database di background thread, tombol simpan dinonaktifkan selama proses
+            tasks.submit("save", () -> saveProduct(type, value, stock, additionalPrice), result -> {
+                if (result == SaveResult.SAVED) {
                     AlertUtil.showInfo("Berhasil",
                             "Produk '" + name + "' berhasil diperbarui!");
 
@@ -207,24 +205,48 @@ public class EditProductController implements Initializable {
                     }
 
                     handleCancel();
-                } else {
+                } else if (result == SaveResult.VARIATION_FAILED) {
                     AlertUtil.showWarning("Sebagian Berhasil",
                             "Produk berhasil diperbarui, tetapi gagal memperbarui variasi.");
+                } else {
+                    AlertUtil.showError("Gagal", "Gagal memperbarui produk. Silakan coba lagi.");
                 }
-            } else {
-                AlertUtil.showError("Gagal", "Gagal memperbarui produk. Silakan coba lagi.");
-            }
+            }, error -> {
+                if (error instanceof IllegalArgumentException) {
+                    AlertUtil.showError("Validasi Gagal", error.getMessage());
+                } else {
+                    System.err.println("Error saat update produk: " + error.getMessage());
+                    AlertUtil.showError("Error", "Terjadi kesalahan: " + error.getMessage());
+                }
+            });
 
         } catch (NumberFormatException e) {
             AlertUtil.showError("Input Tidak Valid", "Silakan masukkan nilai numerik yang valid.");
-        } catch (IllegalArgumentException e) {
-            AlertUtil.showError("Validasi Gagal", e.getMessage());
-        } catch (Exception e) {
-            System.err.println("Error saat update produk: " + e.getMessage());
-            AlertUtil.showError("Error", "Terjadi kesalahan: " + e.getMessage());
         }
     }
 
+    /**
+     * Update produk lalu update atau buat variasinya, dijalankan di background thread
+     */
+    private SaveResult saveProduct(String type, String value, int stock, double additionalPrice) {
+        // Update produk di database
+        if (!productService.updateProduct(currentProduct.getId(), currentProduct)) {
+            return SaveResult.PRODUCT_FAILED;
+        }
+
+        boolean variationUpdated;
+        if (currentVariation != null) {
+            // Update variasi yang sudah ada
+            variationUpdated = variationService.updateProductVariation(currentVariation.getId(), currentVariation);
+        } else {
+            // Buat variasi baru
+            ProductVariation newVariation = new ProductVariation(currentProduct.getId(), type, value, additionalPrice, stock);
+            int variationId = variationService.addProductVariation(newVariation);
+            variationUpdated = variationId > 0;
+        }
+        return variationUpdated ? SaveResult.SAVED : SaveResult.VARIATION_FAILED;
+    }
+
     /**
      * Validasi input form
      */
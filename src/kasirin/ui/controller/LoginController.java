@@ -8,6 +8,7 @@ import kasirin.data.model.User;
 import kasirin.service.UserService;
 import kasirin.ui.util.NavigationUtil;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -28,11 +29,14 @@ public class LoginController implements Initializable {
     @FXML private Label subtitleLabel;
 
     private UserService userService;
+    private AsyncUtil.Scope tasks;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
             userService = new UserService();
+            tasks = AsyncUtil.scope(loginButton);
+            loginButton.disableProperty().bind(tasks.loadingProperty());
             setupEventHandlers();
             System.out.println("LoginController initialized successfully");
         } catch (Exception e) {
@@ -68,12 +72,26 @@ public class LoginController implements Initializable {
             return;
         }
 
-        try {
-            // Authenticate user using service layer
-            User user = userService.authenticateUser(username, password);
+        if (tasks.isLoading()) {
+            return; // Enter pressed again while the previous attempt is still being checked
+        }
+
+        // Authenticate user using service layer, in the background
+        tasks.submit("login", () -> userService.authenticateUser(username, password),
+                this::onAuthenticated, error -> {
+                    System.err.println("Error during login: " + error.getMessage());
+                    error.printStackTrace();
+                    AlertUtil.showError("Error", "Terjadi kesalahan saat login: " + error.getMessage());
+                });
+    }
 
+    /**
+     * Continue to the main view once the credentials were checked, user is null if they were wrong
+     */
+    private void onAuthenticated(User user) {
+        try {
             if (user == null) {
-                System.out.println("Authentication failed for username: " + username);
+                System.out.println("Authentication failed for username: " + usernameField.getText().trim());
                 AlertUtil.showError("Login Gagal", "Username atau password salah!");
                 passwordField.clear();
                 return;
@@ -90,7 +108,7 @@ public class LoginController implements Initializable {
             NavigationUtil.navigateToMainView(currentStage, user);
 
         } catch (Exception e) {
-            System.err.println("Error during login: " + e.getMessage());
+            System.err.println("Error navigating to main view: " + e.getMessage());
             e.printStackTrace();
             AlertUtil.showError("Error", "Terjadi kesalahan saat login: " + e.getMessage());
         }
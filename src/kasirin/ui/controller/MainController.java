@@ -11,6 +11,7 @@ import kasirin.data.model.User;
 import kasirin.service.StoreService;
 import kasirin.ui.util.NavigationUtil;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 import kasirin.ui.util.StoreCardUtil;
 
 import java.net.URL;
@@ -39,11 +40,13 @@ public class MainController implements Initializable {
 
     private User currentUser;
     private StoreService storeService;
+    private AsyncUtil.Scope tasks;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
             storeService = new StoreService();
+            tasks = AsyncUtil.scope(storeListContainer);
             System.out.println("MainController initialized successfully");
         } catch (Exception e) {
             System.err.println("Error initializing MainController: " + e.getMessage());
@@ -83,9 +86,19 @@ public class MainController implements Initializable {
      * Load and display user's stores
      */
     private void loadStores() {
-        try {
-            List<Store> stores = storeService.getStoresByUserId(currentUser.getId());
+        int userId = currentUser.getId();
+        tasks.submit("stores", () -> storeService.getStoresByUserId(userId), this::showStores, error -> {
+            System.err.println("Error loading stores: " + error.getMessage());
+            error.printStackTrace();
+            AlertUtil.showError("Error", "Gagal memuat daftar toko: " + error.getMessage());
+        });
+    }
 
+    /**
+     * Display a store card for each of the user's stores
+     */
+    private void showStores(List<Store> stores) {
+        try {
             // Update store count
             storeCountLabel.setText(stores.size() + " toko");
 
@@ -18,8 +18,8 @@ import kasirin.data.model.Store;
 import kasirin.data.model.User;
 import kasirin.data.model.Role;
 import kasirin.service.ProductService;
-import kasirin.service.ProductVariationService;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.util.List;
@@ -64,7 +64,7 @@ public class ProductsController implements Initializable {
     private User currentUser;
     private Store currentStore;
     private ProductService productService;
-    private ProductVariationService variationService;
+    private AsyncUtil.Scope tasks;
     private ObservableList<Product> productList;
     private Product selectedProduct;
 
@@ -72,7 +72,7 @@ public class ProductsController implements Initializable {
     public void initialize(URL location, ResourceBundle resources) {
         try {
             productService = new ProductService();
-            variationService = new ProductVariationService();
+            tasks = AsyncUtil.scope(productsTable);
             productList = FXCollections.observableArrayList();
 
             setupTables();
@@ -211,7 +211,7 @@ public class ProductsController implements Initializable {
         // Kolom stok - hitung dari variasi produk
         productStockCol.setCellValueFactory(cellData -> {
             Product product = cellData.getValue();
-            int totalStock = variationService.getTotalStockForProduct(product.getId());
+            int totalStock = product.getVariations().stream().mapToInt(ProductVariation::getStocks).sum();
             return new javafx.beans.property.SimpleStringProperty(String.valueOf(totalStock));
         });
 
@@ -294,10 +294,10 @@ public class ProductsController implements Initializable {
      * Setup tabel variasi produk
      */
     private void setupVariationsTable() {
-        variationTypeCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("Size"));
-        variationValueCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("Large"));
-        variationStockCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("25"));
-        variationPriceCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("Rp 5,000"));
+        variationTypeCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getType()));
+        variationValueCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getValue()));
+        variationStockCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(String.valueOf(cellData.getValue().getStocks())));
+        variationPriceCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(String.format("Rp %,.0f", cellData.getValue().getAdditionalPrice())));
         variationActionsCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty("Edit"));
     }
 
@@ -306,7 +306,8 @@ public class ProductsController implements Initializable {
      */
     private void loadProductVariations(Product product) {
         try {
-            List<ProductVariation> productVariations = variationService.getVariationsByProductId(product.getId());
+            // Variasi sudah dimuat bersama produk
+            List<ProductVariation> productVariations = product.getVariations();
 
             // Clear existing data
             variationsTable.getItems().clear();
@@ -334,17 +335,17 @@ public class ProductsController implements Initializable {
      */
     private void loadProducts() {
         try {
-            List<Product> products = productService.getAllProducts();
-
-            // Filter produk berdasarkan toko saat ini
-            productList.clear();
-            for (Product product : products) {
-                if (product.getStoreID() == currentStore.getId()) {
-                    productList.add(product);
-                }
-            }
-
-            System.out.println("Dimuat " + productList.size() + " produk untuk toko: " + currentStore.getName());
+            // Hanya produk milik toko saat ini yang dimuat dari database, di background thread
+            int storeId = currentStore.getId();
+            tasks.submit("products", () -> productService.getProductsWithVariationsByStore(storeId), products -> {
+                productList.setAll(products);
+
+                System.out.println("Dimuat " + productList.size() + " produk untuk toko: " + currentStore.getName());
+            }, error -> {
+                System.err.println("Error memuat produk: " + error.getMessage());
+                error.printStackTrace();
+                AlertUtil.showError("Error", "Gagal memuat produk: " + error.getMessage());
+            });
         } catch (Exception e) {
             System.err.println("Error memuat produk: " + e.getMessage());
             e.printStackTrace();
@@ -485,17 +486,14 @@ public class ProductsController implements Initializable {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    boolean deleted = productService.deleteProduct(product.getId());
+                tasks.submit("delete-" + product.getId(), () -> productService.deleteProduct(product.getId()), deleted -> {
                     if (deleted) {
                         AlertUtil.showInfo("Berhasil", "Produk berhasil dihapus!");
                         refreshProducts();
                     } else {
                         AlertUtil.showError("Error", "Gagal menghapus produk.");
                     }
-                } catch (Exception e) {
-                    AlertUtil.showError("Error", "Gagal menghapus produk: " + e.getMessage());
-                }
+                }, error -> AlertUtil.showError("Error", "Gagal menghapus produk: " + error.getMessage()));
             }
         });
     }
@@ -507,25 +505,14 @@ public class ProductsController implements Initializable {
     private void searchProducts() {
         String searchTerm = searchField.getText().trim().toLowerCase();
 
-        try {
-            List<Product> allProducts = productService.getAllProducts();
-            productList.clear();
-
-            for (Product product : allProducts) {
-                if (product.getStoreID() == currentStore.getId()) {
-                    boolean matchesSearch = searchTerm.isEmpty() ||
-                            product.getName().toLowerCase().contains(searchTerm) ||
-                            product.getCategory().toLowerCase().contains(searchTerm);
-
-                    if (matchesSearch) {
-                        productList.add(product);
-                    }
-                }
-            }
-
-        } catch (Exception e) {
-            AlertUtil.showError("Error", "Pencarian gagal: " + e.getMessage());
-        }
+        // Memakai key yang sama dengan loadProducts, hasil yang lebih lama dibatalkan
+        int storeId = currentStore.getId();
+        tasks.submit("products", () -> productService.getProductsWithVariationsByStore(storeId).stream()
+                .filter(product -> searchTerm.isEmpty() ||
+                        product.getName().toLowerCase().contains(searchTerm) ||
+                        product.getCategory().toLowerCase().contains(searchTerm))
+                .toList(), products -> productList.setAll(products),
+                error -> AlertUtil.showError("Error", "Pencarian gagal: " + error.getMessage()));
     }
 
     /**
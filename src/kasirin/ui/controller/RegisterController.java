@@ -5,10 +5,10 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import kasirin.data.model.Role;
-import kasirin.data.model.User;
 import kasirin.service.UserService;
 import kasirin.ui.util.NavigationUtil;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -31,10 +31,13 @@ public class RegisterController implements Initializable {
     @FXML private Label titleLabel;
 
     private UserService userService;
+    private AsyncUtil.Scope tasks;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         userService = new UserService();
+        tasks = AsyncUtil.scope(registerButton);
+        registerButton.disableProperty().bind(tasks.loadingProperty());
         setupRoleComboBox();
     }
 
@@ -57,10 +60,24 @@ public class RegisterController implements Initializable {
         String confirmPassword = confirmPasswordField.getText();
         Role role = roleComboBox.getValue();
 
-        try {
-            // Use service to perform registration with validation
-            User newUser = userService.registerUser(name, username, password, confirmPassword, role);
+        // Use service to perform registration with validation, in the background
+        tasks.submit("register", () -> userService.registerUser(name, username, password, confirmPassword, role),
+                newUser -> onRegistered(), error -> {
+                    if (error instanceof IllegalArgumentException) {
+                        // Handle validation errors
+                        AlertUtil.showError("Registrasi Gagal", error.getMessage());
+                        handleRegistrationError(error.getMessage());
+                    } else {
+                        AlertUtil.showError("Error", "Terjadi kesalahan: " + error.getMessage());
+                    }
+                });
+    }
 
+    /**
+     * Return to the login view once the account was created
+     */
+    private void onRegistered() {
+        try {
             // Show success message
             AlertUtil.showInfo("Registrasi Berhasil",
                     "Akun berhasil dibuat! Silakan login dengan akun baru Anda.");
@@ -71,10 +88,6 @@ public class RegisterController implements Initializable {
             // Navigate back to login
             handleBack();
 
-        } catch (IllegalArgumentException e) {
-            // Handle validation errors
-            AlertUtil.showError("Registrasi Gagal", e.getMessage());
-            handleRegistrationError(e.getMessage());
         } catch (Exception e) {
             AlertUtil.showError("Error", "Terjadi kesalahan: " + e.getMessage());
         }
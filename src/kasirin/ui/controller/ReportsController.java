@@ -12,6 +12,7 @@ import kasirin.service.SalesReportService;
 import kasirin.service.SalesReportService.SalesReportData;
 import kasirin.service.SalesReportService.ItemizedSales;
 import kasirin.ui.util.AlertUtil;
+import kasirin.ui.util.AsyncUtil;
 
 import java.net.URL;
 import java.time.LocalDate;
@@ -52,6 +53,7 @@ public class ReportsController implements Initializable {
     private User currentUser;
     private Store currentStore;
     private SalesReportService salesReportService;
+    private AsyncUtil.Scope tasks;
     private SalesReportData currentReportData;
     private ObservableList<ItemizedSalesItem> itemizedSalesItems;
     private List<ItemizedSalesItem> allItemizedSalesItems; // For search functionality
@@ -63,6 +65,7 @@ public class ReportsController implements Initializable {
     public void initialize(URL location, ResourceBundle resources) {
         try {
             salesReportService = new SalesReportService();
+            tasks = AsyncUtil.scope(totalRevenueLabel);
             itemizedSalesItems = FXCollections.observableArrayList();
             allItemizedSalesItems = FXCollections.observableArrayList();
 
@@ -121,14 +124,21 @@ public class ReportsController implements Initializable {
 
             System.out.println("Loading sales report from " + startDate + " to " + endDate);
 
-            // Generate comprehensive sales report
-            currentReportData = salesReportService.generateSalesReport(currentStore.getId(), startDate, endDate);
-
-            // Update all UI components
-            updateSummaryCards();
-            updateItemizedSalesTable();
-
-            System.out.println("Sales report data loaded successfully");
+            // Generate comprehensive sales report in the background
+            int storeId = currentStore.getId();
+            tasks.submit("report", () -> salesReportService.generateSalesReport(storeId, startDate, endDate), reportData -> {
+                currentReportData = reportData;
+
+                // Update all UI components
+                updateSummaryCards();
+                updateItemizedSalesTable();
+
+                System.out.println("Sales report data loaded successfully");
+            }, error -> {
+                System.err.println("Error loading sales report data: " + error.getMessage());
+                error.printStackTrace();
+                AlertUtil.showError("Error", "Gagal memuat data laporan penjualan: " + error.getMessage());
+            });
         } catch (Exception e) {
             System.err.println("Error loading sales report data: " + e.getMessage());
             e.printStackTrace();
@@ -1,19 +1,28 @@
 package kasirin.ui.controller;
 
+import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Parent;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
+import kasirin.data.dao.QueryMetrics;
 import kasirin.data.model.Role;
 import kasirin.data.model.Store;
 import kasirin.data.model.User;
+import kasirin.service.CatalogCache;
+import kasirin.service.MetricsRegistry;
 import kasirin.ui.util.NavigationUtil;
 import kasirin.ui.util.AlertUtil;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ResourceBundle;
 
 /**
@@ -24,6 +33,10 @@ import java.util.ResourceBundle;
  */
 public class StoreManagementController implements Initializable {
 
+    // Panel diagnostik tersembunyi, hanya dibuka lewat shortcut oleh Admin/Owner
+    private static final KeyCombination DIAGNOSTICS_SHORTCUT =
+            new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
+
     @FXML private Label storeNameLabel;
     @FXML private Label storeTypeLabel;
     @FXML private StackPane contentArea;
@@ -48,6 +61,16 @@ public class StoreManagementController implements Initializable {
             activeButton = dashboardBtn;
             updateActiveButton(dashboardBtn);
 
+            // Shortcut dipasang di scene, jadi tetap aktif di view mana pun yang sedang dibuka
+            contentArea.sceneProperty().addListener((observable, oldScene, newScene) -> {
+                if (oldScene != null) {
+                    oldScene.getAccelerators().remove(DIAGNOSTICS_SHORTCUT);
+                }
+                if (newScene != null) {
+                    newScene.getAccelerators().put(DIAGNOSTICS_SHORTCUT, this::showDiagnostics);
+                }
+            });
+
             System.out.println("StoreManagementController initialized successfully");
         } catch (Exception e) {
             System.err.println("Error initializing StoreManagementController: " + e.getMessage());
@@ -308,6 +331,63 @@ public class StoreManagementController implements Initializable {
         }
     }
 
+    /**
+     * Tampilkan panel diagnostik: latensi tiap tahap checkout, penghitung, status cache katalog, dan statistik SQL
+     * Tidak ada tombol di menu, panel dibuka dengan Ctrl+Shift+D
+     */
+    private void showDiagnostics() {
+        if (currentUser == null || !hasSettingsAccess()) {
+            return;
+        }
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        QueryMetrics queryMetrics = QueryMetrics.getInstance();
+        TextArea reportArea = new TextArea();
+        reportArea.setEditable(false);
+        reportArea.setStyle("-fx-font-family: 'monospace';");
+        reportArea.setPrefSize(960, 520);
+        Runnable refresh = () -> reportArea.setText(metrics.report() + "\n" + CatalogCache.getInstance()
+                + "\n\n" + queryMetrics.report());
+        refresh.run();
+
+        ButtonType refreshType = new ButtonType("Refresh", ButtonBar.ButtonData.LEFT);
+        ButtonType dumpType = new ButtonType("Simpan ke File", ButtonBar.ButtonData.LEFT);
+        ButtonType resetType = new ButtonType("Reset", ButtonBar.ButtonData.LEFT);
+
+        Dialog<Void> dialog = new Dialog<>();
+        dialog.setTitle("Diagnostik");
+        dialog.setHeaderText("Latensi checkout per tahap dan penghitung sejak aplikasi dibuka");
+        dialog.getDialogPane().setContent(reportArea);
+        dialog.getDialogPane().getButtonTypes().addAll(refreshType, dumpType, resetType, ButtonType.CLOSE);
+
+        // Tombol selain Close dijalankan tanpa menutup panel
+        onDialogButton(dialog, refreshType, refresh);
+        onDialogButton(dialog, resetType, () -> {
+            metrics.reset();
+            queryMetrics.reset();
+            refresh.run();
+        });
+        onDialogButton(dialog, dumpType, () -> {
+            try {
+                Path file = metrics.dump(Path.of(System.getProperty("kasirin.log.dir", "logs")),
+                        CatalogCache.getInstance().toString(), queryMetrics.report());
+                AlertUtil.showInfo("Diagnostik", "Metrik disimpan ke " + file.toAbsolutePath());
+            } catch (IOException e) {
+                AlertUtil.showError("Error", "Gagal menyimpan metrik: " + e.getMessage());
+            }
+        });
+
+        dialog.showAndWait();
+    }
+
+    private void onDialogButton(Dialog<?> dialog, ButtonType type, Runnable action) {
+        Button button = (Button) dialog.getDialogPane().lookupButton(type);
+        button.addEventFilter(ActionEvent.ACTION, event -> {
+            event.consume();
+            action.run();
+        });
+    }
+
     /**
      * Load a view into the content area
      */
@@ -17,20 +17,22 @@ import kasirin.data.model.Product;
 import kasirin.data.model.ProductVariation;
 import kasirin.data.model.Store;
 import kasirin.data.model.User;
+import kasirin.service.CatalogCache.BarcodeMatch;
 import kasirin.service.ProductService;
 import kasirin.service.TransactionService;
 import kasirin.service.TransactionService.TransactionItem;
 import kasirin.service.TransactionService.TransactionResult;
 import kasirin.service.TransactionService.TransactionException;
 import kasirin.ui.util.AlertUtil;
-import kasirin.data.dao.DAOFactory;
-import kasirin.data.dao.ProductVariationDAO;
+import kasirin.ui.util.AsyncUtil;
+import kasirin.ui.util.BarcodeScanner;
 
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Optional;
 
@@ -70,18 +72,23 @@ public class TransactionsController implements Initializable {
     private Store currentStore;
     private ProductService productService;
     private TransactionService transactionService;
-    private ProductVariationDAO productVariationDAO;
+    private AsyncUtil.Scope tasks;
     private ObservableList<CartItem> cartItems;
     private List<Product> availableProducts;
     private double subtotal = 0.0;
     private double taxRate = 0.10; // 10% tax
+    private boolean checkoutRunning = false; // the cart is locked until the running checkout is done
+    private int coldScans = 0; // numbers the scans looked up on a worker thread, each one adds a unit to the cart
+
+    // Searches run as the user types, debounced and off the FX thread, only the latest one is displayed
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(150));
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
             productService = new ProductService();
             transactionService = new TransactionService();
-            productVariationDAO = DAOFactory.getDAOFactory(DAOFactory.MYSQL).getProductVariationDAO();
+            tasks = AsyncUtil.scope(productsGrid);
             cartItems = FXCollections.observableArrayList();
 
             setupDateTime();
@@ -89,6 +96,9 @@ public class TransactionsController implements Initializable {
             setupFilters();
             setupPaymentCalculation();
 
+            // Scanned barcodes go straight to the cart, whichever control has focus
+            BarcodeScanner.attach(productsGrid, this::handleBarcodeScan);
+
             System.out.println("TransactionsController initialized successfully");
         } catch (Exception e) {
             System.err.println("Error initializing TransactionsController: " + e.getMessage());
@@ -212,6 +222,9 @@ public class TransactionsController implements Initializable {
         productCategoryFilter.setValue("All Categories");
 
         // Categories will be populated when products are loaded
+        searchDelay.setOnFinished(e -> searchProducts());
+        productSearchField.textProperty().addListener((observable, oldValue, newValue) -> searchDelay.playFromStart());
+        productCategoryFilter.valueProperty().addListener((observable, oldValue, newValue) -> searchDelay.playFromStart());
     }
 
     /**
@@ -251,17 +264,18 @@ public class TransactionsController implements Initializable {
      */
     private void loadProducts() {
         try {
-            List<Product> allProducts = productService.getAllProducts();
-            availableProducts = allProducts.stream()
-                    .filter(p -> p.getStoreID() == currentStore.getId())
-                    .toList();
+            // Variations are join-fetched with the products, so rendering the grid needs no further queries
+            int storeId = currentStore.getId();
+            tasks.submit("products", () -> productService.getProductsWithVariationsByStore(storeId), products -> {
+                availableProducts = products;
 
-            // Update category filter
-            updateCategoryFilter();
+                // Update category filter
+                updateCategoryFilter();
 
-            displayProducts(availableProducts);
+                displayProducts(availableProducts);
 
-            System.out.println("Loaded " + availableProducts.size() + " products for POS");
+                System.out.println("Loaded " + availableProducts.size() + " products for POS");
+            }, AsyncUtil.showError("Product Loading Error"));
         } catch (Exception e) {
             System.err.println("Error loading products for POS: " + e.getMessage());
             e.printStackTrace();
@@ -303,30 +317,17 @@ public class TransactionsController implements Initializable {
         int maxCols = 4;
 
         for (Product product : products) {
-            try {
-                // Get the single variation for this product
-                List<ProductVariation> variations = productVariationDAO.findVariationsByProductId(product.getId());
-                ProductVariation variation = variations.isEmpty() ? null : variations.get(0);
+            // The single variation for this product, already loaded with it
+            List<ProductVariation> variations = product.getVariations();
+            ProductVariation variation = variations.isEmpty() ? null : variations.get(0);
 
-                VBox productCard = createProductCard(product, variation);
-                productsGrid.add(productCard, col, row);
+            VBox productCard = createProductCard(product, variation);
+            productsGrid.add(productCard, col, row);
 
-                col++;
-                if (col >= maxCols) {
-                    col = 0;
-                    row++;
-                }
-            } catch (Exception e) {
-                System.err.println("Error loading variation for product " + product.getName() + ": " + e.getMessage());
-                // Fallback: show product without variations
-                VBox productCard = createProductCard(product, null);
-                productsGrid.add(productCard, col, row);
-
-                col++;
-                if (col >= maxCols) {
-                    col = 0;
-                    row++;
-                }
+            col++;
+            if (col >= maxCols) {
+                col = 0;
+                row++;
             }
         }
     }
@@ -480,10 +481,54 @@ public class TransactionsController implements Initializable {
         }
     }
 
+    /**
+     * Add one unit of a scanned item to the cart
+     * A catalog that is already in memory answers on the FX thread, a store that would have to be loaded first, e.g.
+     * after the cache expired or was invalidated, is looked up on a worker thread like every other query
+     */
+    private void handleBarcodeScan(String barcode) {
+        if (currentStore == null) {
+            return;
+        }
+        if (checkoutRunning) {
+            warnCheckoutRunning();
+            return;
+        }
+
+        int storeId = currentStore.getId();
+        Map<String, BarcodeMatch> barcodes = productService.getLoadedBarcodes(storeId);
+        if (barcodes != null) {
+            addScannedItem(barcode, barcodes.get(barcode.trim()));
+        } else {
+            // A key of its own per scan, scanning the same item twice must not cancel the first lookup
+            tasks.submit("scan:" + ++coldScans, () -> productService.findByBarcode(storeId, barcode),
+                    match -> addScannedItem(barcode, match), "Barcode Error");
+        }
+    }
+
+    private void addScannedItem(String barcode, BarcodeMatch match) {
+        if (match == null) {
+            AlertUtil.showWarning("Unknown Barcode", "No product found with barcode " + barcode);
+            return;
+        }
+
+        ProductVariation variation = match.getVariation();
+        if (variation != null && variation.getStocks() <= 0) {
+            AlertUtil.showWarning("Out of Stock", match.getProduct().getName() + " is out of stock.");
+            return;
+        }
+        addToCart(match.getProduct(), variation, 1);
+    }
+
     /**
      * Add item to cart with validation
      */
     private void addToCart(Product product, ProductVariation variation, int quantity) {
+        if (checkoutRunning) {
+            warnCheckoutRunning();
+            return;
+        }
+
         try {
             System.out.println("Adding to cart: " + product.getName() + " x" + quantity);
 
@@ -654,27 +699,43 @@ public class TransactionsController implements Initializable {
 
     @FXML
     private void searchProducts() {
-        String searchTerm = productSearchField.getText().trim().toLowerCase();
+        searchDelay.stop();
+        if (availableProducts == null) {
+            return;
+        }
+
+        String searchTerm = productSearchField.getText().trim();
         String category = productCategoryFilter.getValue();
 
-        List<Product> filteredProducts = availableProducts.stream()
-                .filter(product -> {
-                    boolean matchesSearch = searchTerm.isEmpty() ||
-                            product.getName().toLowerCase().contains(searchTerm) ||
-                            product.getCategory().toLowerCase().contains(searchTerm);
+        if (searchTerm.isEmpty()) {
+            tasks.cancel("search");
+            displayProducts(filterByCategory(availableProducts, category));
+            return;
+        }
 
-                    boolean matchesCategory = "All Categories".equals(category) ||
-                            product.getCategory().equals(category);
+        // The search index ranks the products, best match first; a newer search cancels this one, its results would be stale
+        int storeId = currentStore.getId();
+        int limit = availableProducts.size();
+        tasks.submit("search", () -> productService.searchProducts(storeId, searchTerm, limit),
+                products -> displayProducts(filterByCategory(products, category)),
+                error -> System.err.println("Error searching products: " + error.getMessage()));
+    }
 
-                    return matchesSearch && matchesCategory;
-                })
+    private List<Product> filterByCategory(List<Product> products, String category) {
+        if (category == null || "All Categories".equals(category)) {
+            return products;
+        }
+        return products.stream()
+                .filter(product -> category.equals(product.getCategory()))
                 .toList();
-
-        displayProducts(filteredProducts);
     }
 
     @FXML
     private void clearCart() {
+        if (checkoutRunning) {
+            warnCheckoutRunning();
+            return;
+        }
         if (cartItems.isEmpty()) {
             AlertUtil.showInfo("Empty Cart", "Cart is already empty.");
             return;
@@ -752,58 +813,99 @@ public class TransactionsController implements Initializable {
             System.out.println("- Items: " + transactionItems.size());
             System.out.println("- Payment: Rp " + String.format("%,.2f", paymentAmount));
 
-            // Process transaction
-            TransactionResult result = transactionService.processCompleteTransaction(
-                    transactionItems, currentUser, currentStore, paymentAmount);
-
-            // Show success message
-            String successMessage = String.format(
-                    "Transaction completed successfully!\n\n" +
-                            "Transaction ID: %d\n" +
-                            "Total: Rp %,.0f\n" +
-                            "Payment: Rp %,.0f\n" +
-                            "Change: Rp %,.0f\n" +
-                            "Items: %d\n" +
-                            "Time: %s",
-                    result.getTransactionId(),
-                    result.getTotalAmount(),
-                    result.getPaymentAmount(),
-                    result.getChangeAmount(),
-                    result.getTransactionDetails().size(),
-                    result.getTransactionTime().toString()
-            );
-
-            AlertUtil.showInfo("Payment Processed", successMessage);
-
-            // Clear cart after successful payment
-            cartItems.clear();
-            paymentAmountField.clear();
-
-            // Refresh product display to update stock counts
-            loadProducts();
-
-            System.out.println("Transaction completed successfully: " + result);
-            System.out.println("=== Payment Processing Complete ===");
-
-        } catch (TransactionException e) {
-            System.err.println("Transaction error: " + e.getMessage());
-            e.printStackTrace();
-            AlertUtil.showError("Transaction Failed", e.getMessage());
+            // Process transaction in the background, the cart is locked until it's done
+            setCartLocked(true);
+            User user = currentUser;
+            Store store = currentStore;
+            tasks.submit("checkout",
+                    () -> transactionService.processCompleteTransaction(transactionItems, user, store, paymentAmount),
+                    result -> {
+                        resetCheckout();
+                        showPaymentResult(result);
+                    }, error -> {
+                        resetCheckout();
+                        if (error instanceof TransactionException) {
+                            System.err.println("Transaction error: " + error.getMessage());
+                            error.printStackTrace();
+                            AlertUtil.showError("Transaction Failed", error.getMessage());
+                        } else {
+                            System.err.println("Unexpected error processing payment: " + error.getMessage());
+                            error.printStackTrace();
+                            AlertUtil.showError("Payment Error", "An unexpected error occurred: " + error.getMessage());
+                        }
+                    });
         } catch (NumberFormatException e) {
+            resetCheckout();
             AlertUtil.showError("Invalid Payment", "Please enter a valid payment amount.");
             paymentAmountField.requestFocus();
         } catch (Exception e) {
+            resetCheckout();
             System.err.println("Unexpected error processing payment: " + e.getMessage());
             e.printStackTrace();
             AlertUtil.showError("Payment Error", "An unexpected error occurred: " + e.getMessage());
-        } finally {
-            // Reset checkout button
-            checkoutBtn.setText("💳 Process Payment");
-            checkoutBtn.setDisable(false);
-            calculateChange(); // Recalculate to set proper state
         }
     }
 
+    /**
+     * Show the receipt of a completed payment and start over with an empty cart
+     */
+    private void showPaymentResult(TransactionResult result) {
+        // Show success message
+        String successMessage = String.format(
+                "Transaction completed successfully!\n\n" +
+                        "Transaction ID: %d\n" +
+                        "%s\n\n" +
+                        "Total: Rp %,.0f\n" +
+                        "Payment: Rp %,.0f\n" +
+                        "Change: Rp %,.0f\n" +
+                        "Items: %d\n" +
+                        "Time: %s",
+                result.getTransactionId(),
+                String.join("\n", result.getReceiptLines()),
+                result.getTotalAmount(),
+                result.getPaymentAmount(),
+                result.getChangeAmount(),
+                result.getTransactionDetails().size(),
+                result.getTransactionTime().toString()
+        );
+
+        // Clear cart after successful payment
+        cartItems.clear();
+        paymentAmountField.clear();
+
+        AlertUtil.showInfo("Payment Processed", successMessage);
+
+        // Refresh product display to update stock counts
+        loadProducts();
+
+        System.out.println("Transaction completed successfully: " + result);
+        System.out.println("=== Payment Processing Complete ===");
+    }
+
+    private void resetCheckout() {
+        // Reset checkout button
+        checkoutBtn.setText("💳 Process Payment");
+        checkoutBtn.setDisable(false);
+        setCartLocked(false);
+        calculateChange(); // Recalculate to set proper state
+    }
+
+    /**
+     * Lock every way into the cart while a checkout runs: the table, the product grid, scans and the payment field
+     * The sale is cleared from the cart once it succeeds, so nothing may be added that wasn't submitted with it
+     */
+    private void setCartLocked(boolean locked) {
+        checkoutRunning = locked;
+        cartTable.setDisable(locked);
+        productsGrid.setDisable(locked);
+        clearCartBtn.setDisable(locked);
+        paymentAmountField.setDisable(locked);
+    }
+
+    private void warnCheckoutRunning() {
+        AlertUtil.showWarning("Checkout Running", "Please wait until the current payment is finished.");
+    }
+
     /**
      * Simplified CartItem class without variation ID
      */
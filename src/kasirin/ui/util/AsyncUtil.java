@@ -0,0 +1,150 @@
+package kasirin.ui.util;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/// Utility class for running service calls off the JavaFX Application Thread
+///
+/// Work runs on a small shared pool of daemon threads, so a slow query never freezes the UI, and its result or error
+/// is handed back on the FX thread. Controllers submit through a [Scope] bound to their view, which cancels a request
+/// when a newer one with the same key is submitted, cancels everything once the view is closed or replaced, and shows a
+/// wait cursor while anything is running. A cancelled task that hasn't started is skipped, one that has started is
+/// never interrupted, so a write or a unit of work always finishes, only its result is dropped.
+/// @author yamaym
+public class AsyncUtil {
+    // A few workers are enough for a single till and stay well below the connection pool's maximum size
+    private static final int WORKER_THREADS = 4;
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(WORKER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "kasirin-worker-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /// Create a scope for the tasks of a view, any node of the view will do
+    public static Scope scope(Node view) {
+        return new Scope(view);
+    }
+
+    /// Run work on a worker thread and hand its result to onSuccess, or its error to onFailure, on the FX thread
+    public static <T> Task<T> run(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+        task.setOnSucceeded(e -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(e -> onFailure.accept(task.getException()));
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /// Default error handler, logs the error and shows it to the user
+    public static Consumer<Throwable> showError(String title) {
+        return error -> {
+            System.err.println(title + ": " + error.getMessage());
+            error.printStackTrace();
+            AlertUtil.showError(title, error.getMessage());
+        };
+    }
+
+    /// The running tasks of one view, only to be used from the FX thread
+    public static class Scope {
+        private final Node view;
+        private final Map<String, Task<?>> running = new HashMap<>();
+        private final ReadOnlyBooleanWrapper loading = new ReadOnlyBooleanWrapper(false);
+
+        private Scope(Node view) {
+            this.view = view;
+
+            // Navigating replaces the stage's scene, closing a dialog detaches it from its window
+            if (view.getScene() != null) {
+                watch(view.getScene());
+            }
+            view.sceneProperty().addListener((observable, oldScene, newScene) -> {
+                if (newScene == null) {
+                    cancelAll();
+                } else {
+                    watch(newScene);
+                }
+            });
+        }
+
+        /// Submit work under a key, cancelling the previous task with that key, whose result would be stale by now
+        public <T> Task<T> submit(String key, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+            cancel(key);
+
+            Task<T> task = run(work, onSuccess, onFailure);
+            running.put(key, task);
+            task.stateProperty().addListener((observable, oldState, newState) -> {
+                if (newState == Worker.State.SUCCEEDED || newState == Worker.State.FAILED
+                        || newState == Worker.State.CANCELLED) {
+                    running.remove(key, task);
+                    updateLoading();
+                }
+            });
+            updateLoading();
+            return task;
+        }
+
+        /// Submit work under a key, errors are shown to the user with the given title
+        public <T> Task<T> submit(String key, Callable<T> work, Consumer<T> onSuccess, String errorTitle) {
+            return submit(key, work, onSuccess, showError(errorTitle));
+        }
+
+        /// Cancel the task submitted under a key, if it's still running
+        public void cancel(String key) {
+            Task<?> task = running.remove(key);
+            if (task != null) {
+                task.cancel(false);
+                updateLoading();
+            }
+        }
+
+        /// Cancel every task of the view, their results are dropped
+        public void cancelAll() {
+            for (Task<?> task : running.values()) {
+                task.cancel(false);
+            }
+            running.clear();
+            updateLoading();
+        }
+
+        /// True while any task of the view is running
+        public ReadOnlyBooleanProperty loadingProperty() {
+            return loading.getReadOnlyProperty();
+        }
+
+        public boolean isLoading() {
+            return loading.get();
+        }
+
+        private void watch(Scene scene) {
+            scene.windowProperty().addListener((observable, oldWindow, newWindow) -> {
+                if (newWindow == null) {
+                    cancelAll();
+                }
+            });
+        }
+
+        private void updateLoading() {
+            loading.set(!running.isEmpty());
+            Node root = view.getScene() != null ? view.getScene().getRoot() : view;
+            root.setCursor(running.isEmpty() ? null : Cursor.WAIT);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package kasirin.ui.util;
+
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.TextInputControl;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+
+import java.util.function.Consumer;
+
+/// Listens for a keyboard-wedge barcode scanner on a scene.
+///
+/// A wedge scanner "types" the barcode followed by Enter, much faster than a person can. Keystrokes that arrive less
+/// than [#MAX_GAP_NANOS] apart are collected, and an Enter ending such a burst is reported as a scan and consumed, so
+/// it never reaches a button or text field. Whatever the scanner typed into the focused text field is removed again.
+/// @author yamaym
+public class BarcodeScanner {
+    private static final long MAX_GAP_NANOS = 50_000_000; // 50 ms, a person rarely types four keys that fast
+    private static final int MIN_LENGTH = 4;
+
+    private final Consumer<String> onScan;
+    private final StringBuilder buffer = new StringBuilder();
+    private long lastKeyNanos = 0;
+
+    private final EventHandler<KeyEvent> keyTyped = this::onKeyTyped;
+    private final EventHandler<KeyEvent> keyPressed = this::onKeyPressed;
+
+    public BarcodeScanner(Consumer<String> onScan) {
+        this.onScan = onScan;
+    }
+
+    /// Start listening on a scene, and follow the node to any scene it is moved to
+    public static BarcodeScanner attach(Node node, Consumer<String> onScan) {
+        BarcodeScanner scanner = new BarcodeScanner(onScan);
+        if (node.getScene() != null) {
+            scanner.install(node.getScene());
+        }
+        node.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null) {
+                scanner.uninstall(oldScene);
+            }
+            if (newScene != null) {
+                scanner.install(newScene);
+            }
+        });
+        return scanner;
+    }
+
+    /// Start listening on a scene
+    public void install(Scene scene) {
+        scene.addEventFilter(KeyEvent.KEY_TYPED, keyTyped);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, keyPressed);
+    }
+
+    /// Stop listening on a scene
+    public void uninstall(Scene scene) {
+        scene.removeEventFilter(KeyEvent.KEY_TYPED, keyTyped);
+        scene.removeEventFilter(KeyEvent.KEY_PRESSED, keyPressed);
+    }
+
+    private void onKeyTyped(KeyEvent event) {
+        String character = event.getCharacter();
+        if (character.isEmpty() || Character.isISOControl(character.charAt(0))) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastKeyNanos > MAX_GAP_NANOS) {
+            buffer.setLength(0); // too slow for a scanner, start over
+        }
+        buffer.append(character);
+        lastKeyNanos = now;
+    }
+
+    private void onKeyPressed(KeyEvent event) {
+        if (event.getCode() != KeyCode.ENTER) {
+            return;
+        }
+
+        boolean isScan = buffer.length() >= MIN_LENGTH && System.nanoTime() - lastKeyNanos <= MAX_GAP_NANOS;
+        String barcode = buffer.toString();
+        buffer.setLength(0);
+        if (!isScan) {
+            return;
+        }
+
+        event.consume();
+        if (event.getTarget() instanceof TextInputControl field && field.getText().endsWith(barcode)) {
+            field.setText(field.getText().substring(0, field.getText().length() - barcode.length()));
+        }
+        onScan.accept(barcode);
+    }
+}
@@ -0,0 +1,39 @@
+package kasirin;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for LatencyHistogram.
+class LatencyHistogramTest {
+
+    /// Test if every value maps to a bucket whose upper end is within 1/16 of it.
+    @Test
+    void bucketsKeepRelativePrecision() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1_000, 123_456, 3_600_000_000L, Long.MAX_VALUE}) {
+            long highest = LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(value));
+            assertTrue(highest >= value, "bucket of " + value + " ends below it");
+            assertTrue(highest - value <= value / 16, "bucket of " + value + " is too wide");
+        }
+    }
+
+    /// Test if percentiles, mean and max are reported from the recorded samples.
+    @Test
+    void reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(500.5, histogram.getMeanMicros(), 0.001);
+        assertEquals(1_000, histogram.getMaxMicros());
+        assertEquals(500, histogram.getPercentileMicros(50), 500 / 16);
+        assertEquals(990, histogram.getPercentileMicros(99), 990 / 16);
+        assertEquals(1_000, histogram.getPercentileMicros(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMicros(50));
+    }
+}
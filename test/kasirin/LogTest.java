@@ -0,0 +1,82 @@
+package kasirin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for the Log facade and its AsyncFileAppender, using a temporary directory for the log files.
+class LogTest {
+    @TempDir
+    Path logDir;
+
+    private final Log.Level previousLevel = Log.getLevel();
+
+    @AfterEach
+    void restoreLevel() {
+        Log.setLevel(previousLevel);
+    }
+
+    /// Test if a disabled level neither evaluates the message supplier nor reports itself as enabled.
+    @Test
+    void disabledLevelSkipsSupplier() {
+        Log.setLevel(Log.Level.OFF);
+        Log log = Log.get(LogTest.class);
+
+        log.debug(() -> fail("the supplier must not run"));
+        log.info(() -> fail("the supplier must not run"));
+        assertFalse(log.isDebugEnabled());
+        assertFalse(log.isEnabled(Log.Level.ERROR));
+
+        Log.setLevel(Log.Level.INFO);
+        assertFalse(log.isDebugEnabled());
+        assertTrue(log.isEnabled(Log.Level.WARN));
+    }
+
+    /// Test if an unknown level name falls back to the default.
+    @Test
+    void parseLevelFallsBack() {
+        assertEquals(Log.Level.DEBUG, Log.parseLevel(" debug ", Log.Level.INFO));
+        assertEquals(Log.Level.INFO, Log.parseLevel("verbose", Log.Level.INFO));
+        assertEquals(Log.Level.INFO, Log.parseLevel(null, Log.Level.INFO));
+    }
+
+    /// Test if the appender formats the events on its own thread and writes them in order.
+    @Test
+    void appenderWritesFormattedEvents() throws IOException {
+        try (AsyncFileAppender appender = new AsyncFileAppender(logDir, "test.log", 16, 1_000_000, 1, false)) {
+            assertTrue(appender.append(0, Log.Level.INFO, "LogTest", "main", "Total: Rp %,.0f", 15000.0, null, null, 1, null));
+            assertTrue(appender.append(0, Log.Level.DEBUG, "LogTest", "main", "plain 100%", null, null, null, 0, null));
+            appender.flush();
+        }
+
+        List<String> lines = Files.readAllLines(logDir.resolve("test.log"));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("INFO  [main] LogTest - Total: Rp 15"));
+        assertTrue(lines.get(1).endsWith("DEBUG [main] LogTest - plain 100%"));
+    }
+
+    /// Test if the log file is rolled over once it grows past its maximum size, keeping only the configured backups.
+    @Test
+    void appenderRollsFiles() throws IOException {
+        try (AsyncFileAppender appender = new AsyncFileAppender(logDir, "test.log", 64, 200, 2, false)) {
+            for (int i = 0; i < 20; i++) {
+                appender.append(0, Log.Level.INFO, "LogTest", "main", "event %s", i, null, null, 1, null);
+            }
+            appender.flush();
+        }
+
+        assertTrue(Files.exists(logDir.resolve("test.log")));
+        assertTrue(Files.exists(logDir.resolve("test.log.1")));
+        assertTrue(Files.exists(logDir.resolve("test.log.2")));
+        assertFalse(Files.exists(logDir.resolve("test.log.3")));
+        assertTrue(Files.readString(logDir.resolve("test.log")).contains("event 19"));
+        assertTrue(Files.size(logDir.resolve("test.log")) <= 200);
+    }
+}
@@ -0,0 +1,80 @@
+package kasirin.data.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for ConnectionPool class.
+///
+/// <p><strong>Note:</strong> the JDBC must be able to connect to the MySQL database.</p>
+class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool(MySqlDAOFactory.DBURL, MySqlDAOFactory.USERNAME, MySqlDAOFactory.PASSWORD,
+                0, 2, 60_000, 500, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    /// Test if closing a borrowed connection returns it to the pool, so the next borrow reuses it instead of opening
+    /// a new one.
+    @Test
+    void closedConnectionIsReused() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.isValid(1));
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.isValid(1));
+        }
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.getCreatedCount());
+        assertEquals(2, stats.getBorrowCount());
+        assertEquals(1, stats.getIdleConnections());
+        assertEquals(0, stats.getActiveConnections());
+    }
+
+    /// Test if a returned connection can't be used anymore through the old handle.
+    @Test
+    void returnedConnectionIsClosedForCaller() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"));
+    }
+
+    /// Test if getConnection() gives up with a <code>SQLException</code> once the pool is exhausted for longer than
+    /// the borrow timeout.
+    @Test
+    void exhaustedPoolTimesOut() throws SQLException {
+        try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+            assertNotSame(first, second);
+            assertThrows(SQLException.class, () -> pool.getConnection());
+            assertEquals(1, pool.getStats().getTimeoutCount());
+        }
+    }
+
+    /// Test if a connection that died while idle is replaced on the next borrow.
+    @Test
+    void deadIdleConnectionIsReplaced() throws Exception {
+        try (Connection conn = pool.getConnection()) {
+            conn.unwrap(com.mysql.cj.jdbc.ConnectionImpl.class).close(); // kill the physical connection
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.isValid(1));
+        }
+
+        assertEquals(2, pool.getStats().getCreatedCount());
+    }
+}
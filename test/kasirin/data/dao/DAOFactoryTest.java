@@ -19,9 +19,10 @@ class DAOFactoryTest {
     /// Test if the static method getDAOFactory() throws an <code>IllegalArgumentException</code> when
     /// given an invalid factoryType in the parameter.
     ///
-    /// <p><strong>Note:</strong> since there is only one option, the valid factoryType is only <code>1</code>.</p>
+    /// <p><strong>Note:</strong> the valid factoryTypes are <code>1</code> (MySQL) and <code>2</code> (embedded).</p>
     @Test
     void getDAOFactoryThrowsIllegalArgumentException() {
-        assertThrows(IllegalArgumentException.class, () -> DAOFactory.getDAOFactory(2));
+        assertThrows(IllegalArgumentException.class, () -> DAOFactory.getDAOFactory(0));
+        assertThrows(IllegalArgumentException.class, () -> DAOFactory.getDAOFactory(3));
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package kasirin.data.dao;
+
+import kasirin.data.model.Product;
+import kasirin.data.model.ProductVariation;
+import kasirin.data.model.Role;
+import kasirin.data.model.Store;
+import kasirin.data.model.User;
+import kasirin.service.CatalogCache;
+import kasirin.service.DashboardService;
+import kasirin.service.SalesReportService;
+import kasirin.service.TransactionService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/// A unit test for EmbeddedDAOFactory that runs the MySQL DAOs and the checkout on the in-process H2 database.
+///
+/// <p><strong>Note:</strong> one run uses one datasource, so this class only runs with `-Dkasirin.datasource=embedded`,
+/// which runs the other DAO tests on the embedded database as well.</p>
+class EmbeddedDAOFactoryTest {
+    private static DAOFactory factory;
+    private static Store store;
+    private static User cashier;
+
+    @BeforeAll
+    static void selectEmbeddedDatabase() {
+        assumeTrue(DAOFactory.getDefaultFactoryType() == DAOFactory.EMBEDDED,
+                "Runs with -Dkasirin.datasource=embedded");
+        factory = DAOFactory.getDAOFactory(DAOFactory.EMBEDDED);
+
+        store = new Store("Toko Embedded", "Retail", "Jl. H2 No. 2");
+        store.setId(factory.getStoreDAO().insertStore(store));
+        cashier = new User("Kasir Embedded", "kasir_embedded", "rahasia");
+        cashier.setRole(Role.STAFF);
+        cashier.setId(factory.getUserDAO().insertUser(cashier));
+        new MySqlStoreDAO().linkUserToStore(cashier.getId(), store.getId());
+    }
+
+    /// Test if the embedded factory hands out the MySQL DAOs and switches their connections to the embedded database,
+    /// whose schema was built by the migration scripts.
+    @Test
+    void usesEmbeddedDatabaseWithMigratedSchema() {
+        assertInstanceOf(EmbeddedDAOFactory.class, factory);
+        assertEquals(MySqlProductDAO.class, factory.getProductDAO().getClass());
+        assertTrue(MySqlDAOFactory.isEmbedded());
+        assertEquals(0, SchemaMigrator.migrate(MySqlDAOFactory.getPool()));
+        assertTrue(store.getId() > 0);
+        assertEquals("Toko Embedded", factory.getStoreDAO().findStore(store.getId()).getName());
+    }
+
+    /// Test if a checkout commits its transaction, reserves stock and shows up in the sales report and the
+    /// dashboard, all on the embedded database.
+    @Test
+    void checkoutShowsUpInReportAndDashboard() throws Exception {
+        Product product = new Product("Kopi Embedded", store.getId(), "Minuman", 12_000);
+        product.setId(factory.getProductDAO().insertProduct(product));
+        ProductVariation variation = new ProductVariation(product.getId(), "Ukuran", "Standar", 0, 10);
+        variation.setId(factory.getProductVariationDAO().insertProductVariation(variation));
+
+        TransactionService.TransactionResult result = new TransactionService().processCompleteTransaction(
+                List.of(new TransactionService.TransactionItem(product.getId(), 2, 12_000)), cashier, store, 30_000);
+        assertTrue(result.getTransactionId() > 0);
+        assertEquals(6_000, result.getChangeAmount(), 0.001);
+        assertEquals(8, factory.getProductVariationDAO().findProductVariation(variation.getId()).getStocks());
+
+        LocalDate today = LocalDate.now();
+        SalesReportService.SalesReportData report =
+                new SalesReportService().generateSalesReport(store.getId(), today, today);
+        assertEquals(24_000, report.getSummary().getTotalRevenue(), 0.001);
+        assertEquals(1, report.getSummary().getTotalTransactions());
+
+        DashboardService.DashboardStats stats = new DashboardService().getDashboardStats(store.getId());
+        assertTrue(stats.getUnavailableSections().isEmpty());
+        assertEquals(24_000, stats.getTodaySales(), 0.001);
+    }
+
+    /// Test if a basket with one short line rolls the whole checkout back, and if the shortage shows the stock in the
+    /// database rather than the stale stock of the catalog cache.
+    @Test
+    void shortLineRollsBackCheckout() {
+        Product enough = new Product("Teh Cukup", store.getId(), "Minuman", 5_000);
+        enough.setId(factory.getProductDAO().insertProduct(enough));
+        ProductVariation enoughStock = new ProductVariation(enough.getId(), "Ukuran", "Standar", 0, 10);
+        enoughStock.setId(factory.getProductVariationDAO().insertProductVariation(enoughStock));
+        Product scarce = new Product("Teh Langka", store.getId(), "Minuman", 5_000);
+        scarce.setId(factory.getProductDAO().insertProduct(scarce));
+        ProductVariation scarceStock = new ProductVariation(scarce.getId(), "Ukuran", "Standar", 0, 10);
+        scarceStock.setId(factory.getProductVariationDAO().insertProductVariation(scarceStock));
+
+        // Cache the store, then let another till sell the scarce product behind the cache's back
+        CatalogCache.getInstance().invalidate(store.getId());
+        assertEquals(10, CatalogCache.getInstance().getProduct(store.getId(), scarce.getId()).getVariations().get(0)
+                .getStocks());
+        assertEquals(1, new MySqlProductVariationDAO().updateStock(scarceStock.getId(), 1));
+        int transactions = factory.getTransactionDAO().findTransactionsByStore(store.getId(), 0, 100).size();
+
+        TransactionService.TransactionException error = assertThrows(TransactionService.TransactionException.class,
+                () -> new TransactionService().processCompleteTransaction(List.of(
+                        new TransactionService.TransactionItem(enough.getId(), 2, 5_000),
+                        new TransactionService.TransactionItem(scarce.getId(), 3, 5_000)), cashier, store, 50_000));
+        assertTrue(error.getMessage().contains("Available 1, Required 3"), error.getMessage());
+
+        assertEquals(10, factory.getProductVariationDAO().findProductVariation(enoughStock.getId()).getStocks());
+        assertEquals(1, factory.getProductVariationDAO().findProductVariation(scarceStock.getId()).getStocks());
+        assertEquals(transactions, factory.getTransactionDAO().findTransactionsByStore(store.getId(), 0, 100).size());
+    }
+
+    /// Test if a checkout refuses a product of another store, which the catalog of the selling store doesn't hold.
+    @Test
+    void checkoutRejectsProductOfAnotherStore() {
+        Store otherStore = new Store("Toko Sebelah", "Retail", "Jl. H2 No. 3");
+        otherStore.setId(factory.getStoreDAO().insertStore(otherStore));
+        Product product = new Product("Kopi Sebelah", otherStore.getId(), "Minuman", 9_000);
+        product.setId(factory.getProductDAO().insertProduct(product));
+
+        TransactionService.TransactionException error = assertThrows(TransactionService.TransactionException.class,
+                () -> new TransactionService().processCompleteTransaction(
+                        List.of(new TransactionService.TransactionItem(product.getId(), 1, 9_000)), cashier, store,
+                        10_000));
+        assertTrue(error.getMessage().contains("Product not found"));
+    }
+
+    /// Test if the staff search of a store runs on the embedded database.
+    @Test
+    void findsStoreCashiers() {
+        List<User> cashiers = factory.getUserDAO().findUsersByStore(store.getId(), Role.STAFF, "Kasir E", 0, 10);
+        assertEquals(1, cashiers.size());
+        assertEquals("kasir_embedded", cashiers.get(0).getUsername());
+    }
+}
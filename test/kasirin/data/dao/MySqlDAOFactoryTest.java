@@ -3,6 +3,9 @@ package kasirin.data.dao;
 import com.mysql.cj.jdbc.ConnectionImpl;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /// A unit test for MySqlDAOFactory class.
@@ -15,13 +18,17 @@ class MySqlDAOFactoryTest {
         assertNotNull(MySqlDAOFactory.getConnection());
     }
 
-    /// Test if the static method getConnection() returns a <code>ConnectionImpl</code> object.
+    /// Test if the static method getConnection() returns a pooled connection wrapping a <code>ConnectionImpl</code>
+    /// object.
     ///
     /// <p><strong>Note:</strong> to successfully get <code>ConnectionImpl</code> object, the JDBC must be able to
     /// connect to the MySQL database.</p>
     @Test
-    void getConnectionReturnsConnectionImpl() {
-        assertEquals(ConnectionImpl.class, MySqlDAOFactory.getConnection().getClass());
+    void getConnectionReturnsConnectionImpl() throws SQLException {
+        try (Connection conn = MySqlDAOFactory.getConnection()) {
+            assertTrue(conn.isWrapperFor(ConnectionImpl.class));
+            assertEquals(ConnectionImpl.class, conn.unwrap(ConnectionImpl.class).getClass());
+        }
     }
 
     /// Test if the method getProductDAO() returns a <code>MySqlProductDAO</code> object.
@@ -59,4 +66,10 @@ class MySqlDAOFactoryTest {
     void getUserDAOReturnsUserDAO() {
         assertEquals(MySqlUserDAO.class, new MySqlDAOFactory().getUserDAO().getClass());
     }
-}
\ No newline at end of file
+
+    /// Test if the method getSalesReportDAO() is able to return a <code>MySqlSalesReportDAO</code> object.
+    @Test
+    void getSalesReportDAOReturnsSalesReportDAO() {
+        assertEquals(MySqlSalesReportDAO.class, new MySqlDAOFactory().getSalesReportDAO().getClass());
+    }
+}
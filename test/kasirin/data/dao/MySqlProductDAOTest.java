@@ -57,4 +57,48 @@ class MySqlProductDAOTest {
     void findAllProductsReturnArrayList() {
         assertEquals(ArrayList.class, mySqlProductDAO.findAllProducts().getClass());
     }
-}
\ No newline at end of file
+
+    /// Test if method countProductsByStore() agrees with the products of that store in findAllProducts().
+    @Test
+    @Order(6)
+    void countProductsByStoreMatchesFindAllProducts() {
+        long expected = mySqlProductDAO.findAllProducts().stream().filter(p -> p.getStoreID() == 1).count();
+        assertEquals(expected, mySqlProductDAO.countProductsByStore(1));
+    }
+
+    /// Test if method findProductsByStore() only returns products of that store, and if its paged variant returns at
+    /// most one page and rejects unknown sort columns.
+    @Test
+    @Order(7)
+    void findProductsByStoreIsScopedAndPaged() {
+        assertTrue(mySqlProductDAO.findProductsByStore(1).stream().allMatch(p -> p.getStoreID() == 1));
+        assertEquals(mySqlProductDAO.countProductsByStore(1), mySqlProductDAO.findProductsByStore(1).size());
+        assertTrue(mySqlProductDAO.findProductsByStore(1, "name", true, 0, 2).size() <= 2);
+        assertTrue(mySqlProductDAO.findProductsByStore(1, "name; DROP TABLE Products", true, 0, 2).isEmpty());
+    }
+
+    /// Test if method findProductsWithVariationsByStore() returns the same products as findProductsByStore(), each
+    /// carrying only its own variations.
+    @Test
+    @Order(8)
+    void findProductsWithVariationsByStoreMatchesFindProductsByStore() {
+        var products = mySqlProductDAO.findProductsWithVariationsByStore(1);
+        assertEquals(mySqlProductDAO.findProductsByStore(1).size(), products.size());
+        assertTrue(products.stream().allMatch(p -> p.getVariations().stream().allMatch(v -> v.getProductId() == p.getId())));
+    }
+
+    /// Test if a barcode is stored with the product and if the unique index rejects a second product of the same store
+    /// with that barcode.
+    @Test
+    @Order(9)
+    void barcodeIsStoredAndUniquePerStore() {
+        Product product = new Product("MySqlProductDAOTest", 1, "Unit Test", 999999);
+        product.setBarcode("MySqlProductDAOTest-0001");
+        int productId = mySqlProductDAO.insertProduct(product);
+        assertNotEquals(-1, productId);
+        assertEquals("MySqlProductDAOTest-0001", mySqlProductDAO.findProduct(productId).getBarcode());
+
+        assertEquals(-1, mySqlProductDAO.insertProduct(product));
+        assertEquals(1, mySqlProductDAO.deleteProduct(productId));
+    }
+}
@@ -0,0 +1,99 @@
+package kasirin.data.dao;
+
+import kasirin.data.model.LowStockVariation;
+import kasirin.data.model.Product;
+import kasirin.data.model.ProductVariation;
+import kasirin.data.model.Store;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for the stock methods of MySqlProductVariationDAO.
+///
+/// <p><strong>Note:</strong> the JDBC must be able to connect to the MySQL database. The test seeds two throwaway
+/// stores and removes them afterward.</p>
+class MySqlProductVariationDAOTest {
+    private static final MySqlStoreDAO mySqlStoreDAO = new MySqlStoreDAO();
+    private static final MySqlProductDAO mySqlProductDAO = new MySqlProductDAO();
+    private static final MySqlProductVariationDAO mySqlProductVariationDAO = new MySqlProductVariationDAO();
+    private static final List<Integer> productIds = new ArrayList<>();
+    private static final List<Integer> variationIds = new ArrayList<>();
+    private static int storeId;
+    private static int lowStockStoreId;
+
+    @BeforeAll
+    static void seedProducts() {
+        storeId = mySqlStoreDAO.insertStore(new Store("MySqlProductVariationDAOTest", "Unit Test", "Unit Test"));
+        lowStockStoreId = mySqlStoreDAO.insertStore(
+                new Store("MySqlProductVariationDAOTest", "Unit Test", "Unit Test"));
+        assertNotEquals(-1, storeId);
+        assertNotEquals(-1, lowStockStoreId);
+
+        // Inserted out of stock order, with a variation right at the threshold of 5 and one of another store
+        insertVariation(lowStockStoreId, "Gula", 4);
+        insertVariation(lowStockStoreId, "Garam", 0);
+        insertVariation(lowStockStoreId, "Kecap", 5);
+        insertVariation(lowStockStoreId, "Tepung", 2);
+        insertVariation(lowStockStoreId, "Beras", 9);
+        insertVariation(storeId, "Minyak", 0);
+    }
+
+    @AfterAll
+    static void removeSeededProducts() {
+        variationIds.forEach(mySqlProductVariationDAO::deleteProductVariation);
+        productIds.forEach(mySqlProductDAO::deleteProduct);
+        mySqlStoreDAO.deleteStore(storeId);
+        mySqlStoreDAO.deleteStore(lowStockStoreId);
+    }
+
+    /// Test if method countLowStockVariations() only counts the variations of the store below the threshold.
+    @Test
+    void countLowStockVariationsIsBelowThresholdAndScoped() {
+        assertEquals(3, mySqlProductVariationDAO.countLowStockVariations(lowStockStoreId, 5));
+        assertEquals(1, mySqlProductVariationDAO.countLowStockVariations(lowStockStoreId, 1));
+        assertEquals(0, mySqlProductVariationDAO.countLowStockVariations(lowStockStoreId, 0));
+    }
+
+    /// Test if method findLowStockVariations() returns the variations of the store below the threshold, lowest stock
+    /// first with their product names, and at most the limit.
+    @Test
+    void findLowStockVariationsIsOrderedByStockAndLimited() {
+        List<LowStockVariation> lowStock = mySqlProductVariationDAO.findLowStockVariations(lowStockStoreId, 5, 10);
+        assertEquals(List.of("Garam", "Tepung", "Gula"),
+                lowStock.stream().map(LowStockVariation::getProductName).toList());
+        assertEquals(List.of(0, 2, 4), lowStock.stream().map(LowStockVariation::getStocks).toList());
+
+        assertEquals(List.of("Garam", "Tepung"), mySqlProductVariationDAO.findLowStockVariations(lowStockStoreId, 5, 2)
+                .stream().map(LowStockVariation::getProductName).toList());
+    }
+
+    /// Test if method reduceStocks() applies the lines that have enough stock and reports a short line with a
+    /// <code>0</code>, leaving its stock untouched.
+    @Test
+    void reduceStocksSkipsShortLine() {
+        int enough = insertVariation(storeId, "Kopi Cukup", 5);
+        int shortOfStock = insertVariation(storeId, "Kopi Kurang", 1);
+
+        assertArrayEquals(new int[]{1, 0}, mySqlProductVariationDAO.reduceStocks(new int[]{enough, shortOfStock},
+                new int[]{2, 3}));
+        assertEquals(3, mySqlProductVariationDAO.findProductVariation(enough).getStocks());
+        assertEquals(1, mySqlProductVariationDAO.findProductVariation(shortOfStock).getStocks());
+    }
+
+    private static int insertVariation(int storeId, String productName, int stocks) {
+        int productId = mySqlProductDAO.insertProduct(new Product(productName, storeId, "Unit Test", 10_000));
+        assertNotEquals(-1, productId);
+        productIds.add(productId);
+
+        int variationId = mySqlProductVariationDAO.insertProductVariation(
+                new ProductVariation(productId, "Ukuran", "Standar", 0, stocks));
+        assertNotEquals(-1, variationId);
+        variationIds.add(variationId);
+        return variationId;
+    }
+}
@@ -0,0 +1,94 @@
+package kasirin.data.dao;
+
+import kasirin.data.model.Role;
+import kasirin.data.model.SalesAggregate;
+import kasirin.data.model.Store;
+import kasirin.data.model.Transaction;
+import kasirin.data.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A regression test proving that the daily sales rollup of MySqlSalesReportDAO agrees with the raw transactions.
+///
+/// <p><strong>Note:</strong> the JDBC must be able to connect to the MySQL database. The test seeds a throwaway store
+/// with transactions on a closed day and removes it afterward.</p>
+class MySqlSalesReportDAOTest {
+    private static final LocalDate CLOSED_DAY = LocalDate.now().minusDays(2);
+
+    private static final MySqlStoreDAO mySqlStoreDAO = new MySqlStoreDAO();
+    private static final MySqlUserDAO mySqlUserDAO = new MySqlUserDAO();
+    private static final MySqlSalesReportDAO mySqlSalesReportDAO = new MySqlSalesReportDAO();
+    private static int storeId;
+    private static int userId;
+
+    @BeforeAll
+    static void seedTransactions() throws SQLException {
+        storeId = mySqlStoreDAO.insertStore(new Store("MySqlSalesReportDAOTest", "Unit Test", "Unit Test"));
+        User user = new User("MySqlSalesReportDAOTest", "MySqlSalesReportDAOTest-" + System.nanoTime(), "Unit Test");
+        user.setRole(Role.STAFF);
+        userId = mySqlUserDAO.insertUser(user);
+        assertNotEquals(-1, storeId);
+        assertNotEquals(-1, userId);
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO Transactions (store_id, user_id, transaction_time, total) VALUES (?,?,?,?)")) {
+            for (int hour = 9; hour < 11; hour++) {
+                stmt.setInt(1, storeId);
+                stmt.setInt(2, userId);
+                stmt.setTimestamp(3, Timestamp.valueOf(CLOSED_DAY.atTime(hour, 0)));
+                stmt.setDouble(4, 10_000);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    @AfterAll
+    static void removeSeededTransactions() throws SQLException {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement rollup = conn.prepareStatement("DELETE FROM daily_store_sales WHERE store_id = ?");
+             PreparedStatement transactions = conn.prepareStatement("DELETE FROM Transactions WHERE store_id = ?")) {
+            rollup.setInt(1, storeId);
+            rollup.executeUpdate();
+            transactions.setInt(1, storeId);
+            transactions.executeUpdate();
+        }
+        mySqlUserDAO.deleteUser(userId);
+        mySqlStoreDAO.deleteStore(storeId);
+    }
+
+    /// Test if a rebuilt rollup reports the same closed-day totals as the raw transactions, and if recordSale() adds
+    /// a sale on top of it.
+    @Test
+    void rollupMatchesRawTransactionsAndRecordsSales() {
+        assertTrue(mySqlSalesReportDAO.rebuildDailySales(storeId, CLOSED_DAY, CLOSED_DAY) >= 2);
+        assertDailySales(2, 20_000);
+
+        Transaction sale = new Transaction(storeId, userId, Timestamp.valueOf(CLOSED_DAY.atTime(9, 30)), 5_000);
+        assertEquals(1, mySqlSalesReportDAO.recordSale(sale, List.of()));
+        assertDailySales(3, 25_000);
+
+        // rebuilding drops what the raw transactions don't back
+        mySqlSalesReportDAO.rebuildDailySales(storeId, CLOSED_DAY, CLOSED_DAY);
+        assertDailySales(2, 20_000);
+    }
+
+    private void assertDailySales(int transactionCount, double revenue) {
+        List<SalesAggregate> daily = mySqlSalesReportDAO.findDailySales(storeId, CLOSED_DAY, CLOSED_DAY);
+        assertEquals(1, daily.size());
+        assertEquals(CLOSED_DAY.toString(), daily.get(0).getGroupKey());
+        assertEquals(transactionCount, daily.get(0).getTransactionCount());
+        assertEquals(revenue, daily.get(0).getRevenue());
+    }
+}
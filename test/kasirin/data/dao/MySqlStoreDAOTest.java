@@ -33,12 +33,14 @@ class MySqlStoreDAOTest {
     }
 
     /// Test if method updateStore() is able to update a previously created store in the MySQL table by reporting
-    /// that it has affected exactly 1 row.
+    /// that it has affected exactly 1 row, including its low stock threshold.
     @Test
     @Order(3)
     void updateStoreAffectARow() {
-        assertEquals(1, mySqlStoreDAO.updateStore(generatedStoreId,
-                new Store("MySqlStoreDAOTest", "Updated Unit Test", "Updated Unit Test")));
+        Store store = new Store("MySqlStoreDAOTest", "Updated Unit Test", "Updated Unit Test");
+        store.setLowStockThreshold(5);
+        assertEquals(1, mySqlStoreDAO.updateStore(generatedStoreId, store));
+        assertEquals(5, mySqlStoreDAO.findStore(generatedStoreId).getLowStockThreshold());
     }
 
     /// Test if method deleteStore() is able to delete a previously created store in the MySQL table by reporting
@@ -0,0 +1,112 @@
+package kasirin.data.dao;
+
+import kasirin.data.model.Role;
+import kasirin.data.model.Store;
+import kasirin.data.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A regression test proving that the date-range queries of MySqlTransactionDAO are able to range-scan the
+/// <code>(store_id, transaction_time)</code> index instead of evaluating a function on every row.
+///
+/// <p><strong>Note:</strong> the JDBC must be able to connect to the MySQL database. The test seeds a throwaway store
+/// with a year of transactions and removes it afterward.</p>
+class MySqlTransactionDAOTest {
+    private static final String INDEX_NAME = "idx_transactions_store_time";
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    private static final int DAYS = 365;
+
+    private static final MySqlStoreDAO mySqlStoreDAO = new MySqlStoreDAO();
+    private static final MySqlUserDAO mySqlUserDAO = new MySqlUserDAO();
+    private static int storeId;
+    private static int userId;
+
+    @BeforeAll
+    static void seedTransactions() throws SQLException {
+        storeId = mySqlStoreDAO.insertStore(new Store("MySqlTransactionDAOTest", "Unit Test", "Unit Test"));
+        User user = new User("MySqlTransactionDAOTest", "MySqlTransactionDAOTest-" + System.nanoTime(), "Unit Test");
+        user.setRole(Role.STAFF);
+        userId = mySqlUserDAO.insertUser(user);
+        assertNotEquals(-1, storeId);
+        assertNotEquals(-1, userId);
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO Transactions (store_id, user_id, transaction_time, total) VALUES (?,?,?,?)")) {
+            for (int day = 0; day < DAYS; day++) {
+                for (int hour = 8; hour < 20; hour += 3) {
+                    stmt.setInt(1, storeId);
+                    stmt.setInt(2, userId);
+                    stmt.setTimestamp(3, Timestamp.valueOf(FIRST_DAY.plusDays(day).atTime(hour, 0)));
+                    stmt.setDouble(4, 10_000);
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+
+            try (Statement analyze = conn.createStatement()) {
+                analyze.execute("ANALYZE TABLE Transactions");
+            }
+        }
+    }
+
+    @AfterAll
+    static void removeSeededTransactions() throws SQLException {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM Transactions WHERE store_id = ?")) {
+            stmt.setInt(1, storeId);
+            stmt.executeUpdate();
+        }
+        mySqlUserDAO.deleteUser(userId);
+        mySqlStoreDAO.deleteStore(storeId);
+    }
+
+    /// Test if findTransactionsByStoreAndDateRange() uses an index range scan.
+    @Test
+    void dateRangeQueryUsesIndexRangeScan() throws SQLException {
+        assertIndexRangeScan(MySqlTransactionDAO.FIND_BY_STORE_AND_DATE_RANGE_QUERY);
+    }
+
+    /// Test if getDailyRevenue() and getTotalRevenue() use an index range scan.
+    @Test
+    void revenueQueryUsesIndexRangeScan() throws SQLException {
+        assertIndexRangeScan(MySqlTransactionDAO.REVENUE_BY_STORE_AND_DATE_RANGE_QUERY);
+    }
+
+    /// Test if the half-open range still includes the whole last day.
+    @Test
+    void dateRangeIncludesWholeLastDay() {
+        Date day = Date.valueOf(FIRST_DAY.plusDays(10));
+        assertEquals(4, new MySqlTransactionDAO().findTransactionsByStoreAndDateRange(storeId, day, day).size());
+        assertEquals(40_000, new MySqlTransactionDAO().getDailyRevenue(storeId, day));
+    }
+
+    private void assertIndexRangeScan(String query) throws SQLException {
+        Date day = Date.valueOf(FIRST_DAY.plusDays(100));
+
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query)) {
+            stmt.setInt(1, storeId);
+            stmt.setTimestamp(2, MySqlTransactionDAO.startOfDay(day));
+            stmt.setTimestamp(3, MySqlTransactionDAO.startOfNextDay(day));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("range", rs.getString("type"));
+                assertEquals(INDEX_NAME, rs.getString("key"));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package kasirin.data.dao;
+
+import kasirin.data.model.Role;
+import kasirin.data.model.Store;
+import kasirin.data.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for the store-scoped staff search of MySqlUserDAO.
+///
+/// <p><strong>Note:</strong> the JDBC must be able to connect to the MySQL database. The test seeds a throwaway store
+/// with a few users and removes them afterward.</p>
+class MySqlUserDAOTest {
+    private static final MySqlStoreDAO mySqlStoreDAO = new MySqlStoreDAO();
+    private static final MySqlUserDAO mySqlUserDAO = new MySqlUserDAO();
+    private static final String SUFFIX = "-" + System.nanoTime();
+    private static int storeId;
+    private static int budiId;
+    private static int bimaId;
+    private static int ownerId;
+
+    @BeforeAll
+    static void seedUsers() {
+        storeId = mySqlStoreDAO.insertStore(new Store("MySqlUserDAOTest", "Unit Test", "Unit Test"));
+        assertNotEquals(-1, storeId);
+
+        budiId = insertLinkedUser("Budi", Role.STAFF);
+        bimaId = insertLinkedUser("Bima", Role.STAFF);
+        ownerId = insertLinkedUser("Bagus", Role.OWNER);
+    }
+
+    @AfterAll
+    static void removeSeededUsers() throws SQLException {
+        try (Connection conn = MySqlDAOFactory.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM user_store_access WHERE store_id = ?")) {
+            stmt.setInt(1, storeId);
+            stmt.executeUpdate();
+        }
+        mySqlUserDAO.deleteUser(budiId);
+        mySqlUserDAO.deleteUser(bimaId);
+        mySqlUserDAO.deleteUser(ownerId);
+        mySqlStoreDAO.deleteStore(storeId);
+    }
+
+    /// Test if method findUsersByStore() filters by role and name prefix, ordered by name, and pages the result.
+    @Test
+    void findUsersByStoreFiltersAndPages() {
+        assertEquals(List.of(ownerId, bimaId, budiId), ids(mySqlUserDAO.findUsersByStore(storeId, null, "", 0, 10)));
+        assertEquals(List.of(bimaId, budiId), ids(mySqlUserDAO.findUsersByStore(storeId, Role.STAFF, null, 0, 10)));
+        assertEquals(List.of(budiId), ids(mySqlUserDAO.findUsersByStore(storeId, Role.STAFF, "bu", 0, 10)));
+        assertEquals(List.of(budiId), ids(mySqlUserDAO.findUsersByStore(storeId, Role.STAFF, "budi-", 0, 10)));
+        assertEquals(List.of(budiId), ids(mySqlUserDAO.findUsersByStore(storeId, Role.STAFF, null, 1, 1)));
+
+        // LIKE wildcards typed by the user are searched for literally
+        assertTrue(mySqlUserDAO.findUsersByStore(storeId, null, "%", 0, 10).isEmpty());
+    }
+
+    private static int insertLinkedUser(String name, Role role) {
+        User user = new User(name, name.toLowerCase() + SUFFIX, "Unit Test");
+        user.setRole(role);
+        int userId = mySqlUserDAO.insertUser(user);
+        assertNotEquals(-1, userId);
+        assertTrue(mySqlStoreDAO.linkUserToStore(userId, storeId));
+        return userId;
+    }
+
+    private static List<Integer> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+}
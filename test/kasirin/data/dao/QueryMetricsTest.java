@@ -0,0 +1,91 @@
+package kasirin.data.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for QueryMetrics on a stub connection, so it runs without a database.
+class QueryMetricsTest {
+
+    /// Test if queries are grouped by template and count their calls and fetched rows.
+    @Test
+    void recordsCallsAndRowsPerTemplate() throws SQLException {
+        QueryMetrics metrics = new QueryMetrics(10_000);
+        Connection conn = metrics.wrap(stubConnection(3, 0));
+
+        for (int i = 0; i < 2; i++) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM Users\n    WHERE id = ?")) {
+                stmt.setInt(1, i);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        assertEquals("row", rs.getString(1));
+                    }
+                }
+            }
+        }
+
+        List<QueryMetrics.QueryStats> stats = metrics.getStats();
+        assertEquals(1, stats.size());
+        assertEquals("SELECT * FROM Users WHERE id = ?", stats.get(0).getSql());
+        assertEquals(2, stats.get(0).getCalls());
+        assertEquals(6, stats.get(0).getRows());
+        assertTrue(metrics.getRecentSlowQueries().isEmpty());
+    }
+
+    /// Test if a slow statement is reported with the types of its binds but never their values.
+    @Test
+    void slowQueriesRedactBindValues() throws SQLException {
+        QueryMetrics metrics = new QueryMetrics(0);
+        Connection conn = metrics.wrap(stubConnection(0, 1));
+
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE Users SET password = ? WHERE id = ?")) {
+            stmt.setString(1, "rahasia123");
+            stmt.setInt(2, 42);
+            assertEquals(1, stmt.executeUpdate());
+        }
+
+        List<String> slowQueries = metrics.getRecentSlowQueries();
+        assertEquals(1, slowQueries.size());
+        assertTrue(slowQueries.get(0).contains("binds=[String, Int] UPDATE Users SET password = ? WHERE id = ?"));
+        assertFalse(slowQueries.get(0).contains("rahasia123"));
+        assertFalse(metrics.report().contains("rahasia123"));
+        assertEquals(1, metrics.getStats().get(0).getRows());
+    }
+
+    // A connection whose statements return the given number of rows or the given update count
+    private static Connection stubConnection(int rows, int updateCount) {
+        return stub(Connection.class, (method, args) -> method.equals("prepareStatement")
+                ? stub(PreparedStatement.class, (statementMethod, statementArgs) -> switch (statementMethod) {
+                    case "executeQuery" -> stubResultSet(rows);
+                    case "executeUpdate" -> updateCount;
+                    default -> null;
+                })
+                : null);
+    }
+
+    private static ResultSet stubResultSet(int rows) {
+        int[] remaining = {rows};
+        return stub(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> remaining[0]-- > 0;
+            case "getString" -> "row";
+            default -> null;
+        });
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> answer.answer(method.getName(), args));
+    }
+}
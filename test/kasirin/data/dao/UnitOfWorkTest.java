@@ -0,0 +1,53 @@
+package kasirin.data.dao;
+
+import kasirin.data.model.Store;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for UnitOfWork class.
+///
+/// <p><strong>Note:</strong> the JDBC must be able to connect to the MySQL database.</p>
+class UnitOfWorkTest {
+    private final MySqlStoreDAO mySqlStoreDAO = new MySqlStoreDAO();
+
+    /// Test if DAO calls made inside a unit of work run on the unit's own connection.
+    @Test
+    void daoConnectionJoinsUnitOfWork() throws SQLException {
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            try (Connection conn = MySqlDAOFactory.getConnection()) {
+                assertSame(unitOfWork.getConnection(), conn);
+                assertFalse(conn.getAutoCommit());
+            }
+        }
+        assertNull(UnitOfWork.current());
+    }
+
+    /// Test if an insert made inside a unit of work that is closed without a commit is rolled back.
+    @Test
+    void uncommittedUnitOfWorkRollsBack() throws SQLException {
+        int storeId;
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            assertSame(unitOfWork, UnitOfWork.current());
+            storeId = mySqlStoreDAO.insertStore(new Store("UnitOfWorkTest", "Unit Test", "Unit Test"));
+            assertNotEquals(-1, storeId);
+            assertNotNull(mySqlStoreDAO.findStore(storeId));
+        }
+        assertNull(mySqlStoreDAO.findStore(storeId));
+    }
+
+    /// Test if an insert made inside a committed unit of work is visible afterward.
+    @Test
+    void committedUnitOfWorkPersists() throws SQLException {
+        int storeId;
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            storeId = mySqlStoreDAO.insertStore(new Store("UnitOfWorkTest", "Unit Test", "Unit Test"));
+            unitOfWork.commit();
+        }
+        assertNotNull(mySqlStoreDAO.findStore(storeId));
+        assertEquals(1, mySqlStoreDAO.deleteStore(storeId));
+    }
+}
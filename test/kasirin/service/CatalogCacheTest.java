@@ -0,0 +1,179 @@
+package kasirin.service;
+
+import kasirin.data.model.Product;
+import kasirin.data.model.ProductVariation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for CatalogCache that loads made-up catalogs instead of querying MySQL.
+class CatalogCacheTest {
+    private final List<Integer> loads = new ArrayList<>();
+    private Runnable duringLoad = () -> { };
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void createCache() {
+        catalogCache = new CatalogCache(this::loadCatalog, 2, 60_000);
+    }
+
+    /// Test if a store is loaded once and then served from memory, counting a miss and then a hit.
+    @Test
+    void secondLookupIsAHit() {
+        assertEquals("Kopi Susu", catalogCache.getProduct(1, 101).getName());
+        assertEquals("Roti Bakar", catalogCache.getProduct(1, 102).getName());
+
+        assertEquals(List.of(1), loads);
+        assertEquals(1, catalogCache.getMisses());
+        assertEquals(1, catalogCache.getHits());
+    }
+
+    /// Test if name prefix and category lookups ignore case.
+    @Test
+    void findsByNamePrefixAndCategory() {
+        assertEquals(2, catalogCache.findByNamePrefix(1, "kopi").size());
+        assertEquals(1, catalogCache.findByNamePrefix(1, "KOPI H").size());
+        assertEquals(2, catalogCache.findByCategory(1, "minuman").size());
+        assertTrue(catalogCache.findByCategory(1, "Unknown").isEmpty());
+    }
+
+    /// Test if the least recently used store is evicted once the cache is full.
+    @Test
+    void evictsLeastRecentlyUsedStore() {
+        catalogCache.getProducts(1);
+        catalogCache.getProducts(2);
+        catalogCache.getProducts(1); // store 2 is now the coldest
+        catalogCache.getProducts(3);
+
+        assertEquals(2, catalogCache.getCachedStores());
+        assertEquals(1, catalogCache.getEvictions());
+
+        catalogCache.getProducts(1);
+        catalogCache.getProducts(2);
+        assertEquals(List.of(1, 2, 3, 2), loads);
+    }
+
+    /// Test if invalidating a product or a variation drops the store that contains it.
+    @Test
+    void invalidationReloadsStore() {
+        catalogCache.getProducts(1);
+        catalogCache.invalidateProduct(102);
+        catalogCache.getProducts(1);
+        catalogCache.invalidateVariation(1001);
+        catalogCache.getProducts(1);
+
+        assertEquals(List.of(1, 1, 1), loads);
+    }
+
+    /// Test if a committed sale patches the cached stock, without changing the product a screen already holds.
+    @Test
+    void applyStockChangePatchesVariation() {
+        // A store that isn't cached has nothing to patch
+        catalogCache.applyStockChange(1, 1001, -3);
+        Product shown = catalogCache.getProduct(1, 101);
+        assertEquals(10, shown.getVariations().get(0).getStocks());
+
+        catalogCache.applyStockChange(1, 1001, -3);
+        assertEquals(7, catalogCache.getProduct(1, 101).getVariations().get(0).getStocks());
+        assertEquals(7, catalogCache.findByBarcode(1, "8990001").getVariation().getStocks());
+        assertEquals(10, shown.getVariations().get(0).getStocks());
+        assertEquals(List.of(1), loads);
+    }
+
+    /// Test if an edited product is patched into the cache and its search index without reloading the store.
+    @Test
+    void patchProductUpdatesSearch() {
+        assertEquals(2, catalogCache.search(1, "kopi", 10).size());
+
+        Product shown = catalogCache.getProduct(1, 101);
+        Product edited = new Product("Teh Tarik", 1, "Minuman", 12_000);
+        catalogCache.patchProduct(101, edited);
+        assertNotEquals("Teh Tarik", shown.getName());
+
+        assertEquals(List.of(103), catalogCache.search(1, "kopi", 10).stream().map(Product::getId).toList());
+        assertEquals(1, catalogCache.findByNamePrefix(1, "teh").size());
+        assertEquals(12_000, catalogCache.getProduct(1, 101).getBasePrice());
+        assertEquals(List.of(1), loads);
+
+        // Moving the product to another store drops the cached store instead
+        catalogCache.patchProduct(101, new Product("Teh Tarik", 2, "Minuman", 12_000));
+        catalogCache.getProducts(1);
+        assertEquals(List.of(1, 1), loads);
+    }
+
+    /// Test if product and variation barcodes resolve to the right item without loading the store again.
+    @Test
+    void findsByBarcode() {
+        CatalogCache.BarcodeMatch productMatch = catalogCache.findByBarcode(1, "8990001");
+        assertEquals(101, productMatch.getProduct().getId());
+        assertEquals(1001, productMatch.getVariation().getId());
+
+        CatalogCache.BarcodeMatch variationMatch = catalogCache.findByBarcode(1, " 8990003 ");
+        assertEquals(103, variationMatch.getProduct().getId());
+        assertEquals(1003, variationMatch.getVariation().getId());
+
+        assertNull(catalogCache.findByBarcode(1, "0000000"));
+        assertEquals(List.of(1), loads);
+    }
+
+    /// Test if the barcodes of a store are only handed out once its catalog is loaded, without ever loading it.
+    @Test
+    void loadedBarcodesNeverLoad() {
+        assertNull(catalogCache.getLoadedBarcodes(1));
+        assertTrue(loads.isEmpty());
+
+        catalogCache.getProducts(1);
+        assertEquals(103, catalogCache.getLoadedBarcodes(1).get("8990003").getProduct().getId());
+        assertNull(catalogCache.getLoadedBarcodes(2));
+        assertEquals(List.of(1), loads);
+    }
+
+    /// Test if a load that overlapped an invalidation is served but not kept, so the write isn't lost for the TTL.
+    @Test
+    void loadRacingInvalidationIsNotCached() {
+        duringLoad = () -> catalogCache.invalidateVariation(1001);
+        assertEquals(3, catalogCache.getProducts(1).size());
+
+        duringLoad = () -> { };
+        catalogCache.getProducts(1);
+        catalogCache.getProducts(1);
+        assertEquals(List.of(1, 1), loads);
+    }
+
+    /// Test if an empty catalog, which may be a failed query, is never kept.
+    @Test
+    void emptyCatalogIsNotCached() {
+        catalogCache.getProducts(99);
+        catalogCache.getProducts(99);
+        assertEquals(List.of(99, 99), loads);
+    }
+
+    private List<Product> loadCatalog(int storeId) {
+        loads.add(storeId);
+        duringLoad.run();
+        List<Product> products = new ArrayList<>();
+        if (storeId == 99) {
+            return products;
+        }
+
+        products.add(createProduct(storeId, 101, "Kopi Susu", "Minuman", 1001));
+        products.add(createProduct(storeId, 102, "Roti Bakar", "Makanan", 1002));
+        products.add(createProduct(storeId, 103, "Kopi Hitam", "Minuman", 1003));
+        products.get(0).setBarcode("8990001");
+        products.get(2).getVariations().get(0).setBarcode("8990003");
+        return products;
+    }
+
+    private Product createProduct(int storeId, int id, String name, String category, int variationId) {
+        Product product = new Product(name, storeId, category, 10_000);
+        product.setId(id);
+        ProductVariation variation = new ProductVariation(id, "Size", "Regular", 0, 10);
+        variation.setId(variationId);
+        product.getVariations().add(variation);
+        return product;
+    }
+}
@@ -0,0 +1,36 @@
+package kasirin.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for MetricsRegistry.
+class MetricsRegistryTest {
+
+    /// Test if the registry times consecutive stages, counts events and dumps its report to a file.
+    @Test
+    void registryRecordsAndDumps(@TempDir Path directory) throws IOException {
+        MetricsRegistry metrics = new MetricsRegistry();
+        long start = System.nanoTime() - 2_000_000;
+        metrics.recordSince("checkout.total", start);
+        metrics.increment("checkout.rollbacks");
+        metrics.increment("checkout.rollbacks");
+
+        assertEquals(1, metrics.histogram("checkout.total").getCount());
+        assertTrue(metrics.histogram("checkout.total").getMaxMicros() >= 2_000);
+        assertEquals(2, metrics.getCount("checkout.rollbacks"));
+        assertEquals(0, metrics.getCount("checkout.unknown"));
+
+        String report = Files.readString(metrics.dump(directory));
+        assertTrue(report.contains("checkout.total"));
+        assertTrue(report.contains("checkout.rollbacks"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getCount("checkout.rollbacks"));
+    }
+}
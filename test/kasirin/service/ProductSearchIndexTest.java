@@ -0,0 +1,69 @@
+package kasirin.service;
+
+import kasirin.data.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// A unit test for ProductSearchIndex over a small made-up catalog.
+class ProductSearchIndexTest {
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void createIndex() {
+        searchIndex = new ProductSearchIndex(List.of(
+                createProduct(1, "Kopi Susu", "Minuman", "Kopi dengan susu segar"),
+                createProduct(2, "Es Teh Manis", "Minuman", "Teh melati"),
+                createProduct(3, "Roti Bakar", "Makanan", "Roti dengan selai kopi"),
+                createProduct(4, "Kopisusu Gula Aren", "Minuman", null)));
+    }
+
+    /// Test if a word prefix matches, with products whose name starts with it ranked first.
+    @Test
+    void prefixMatchesRankNameFirst() {
+        List<Product> results = searchIndex.search("kop", 10);
+
+        assertEquals(List.of(1, 4, 3), ids(results));
+    }
+
+    /// Test if trigrams find a term in the middle of a word.
+    @Test
+    void trigramsMatchInsideWords() {
+        assertEquals(List.of(1, 4), ids(searchIndex.search("SUSU", 10)));
+        assertEquals(List.of(4), ids(searchIndex.search("isus", 10)));
+        assertTrue(searchIndex.search("xyz", 10).isEmpty());
+    }
+
+    /// Test if every term of the query has to match and the limit is respected.
+    @Test
+    void allTermsMustMatch() {
+        assertEquals(List.of(3), ids(searchIndex.search("roti kopi", 10)));
+        assertEquals(1, searchIndex.search("minuman", 1).size());
+        assertTrue(searchIndex.search("  ", 10).isEmpty());
+    }
+
+    /// Test if an edited product is re-indexed and a removed one is no longer found.
+    @Test
+    void updateAndRemove() {
+        searchIndex.update(createProduct(2, "Es Jeruk", "Minuman", null));
+        assertTrue(searchIndex.search("teh", 10).isEmpty());
+        assertEquals(List.of(2), ids(searchIndex.search("jeruk", 10)));
+
+        searchIndex.remove(1);
+        assertEquals(List.of(4), ids(searchIndex.search("susu", 10)));
+        assertEquals(3, searchIndex.size());
+    }
+
+    private List<Integer> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private Product createProduct(int id, String name, String category, String description) {
+        Product product = new Product(name, 1, category, 10_000, description, null);
+        product.setId(id);
+        return product;
+    }
+}